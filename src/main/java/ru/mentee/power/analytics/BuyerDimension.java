@@ -0,0 +1,12 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+/** Разрез, по которому считаются различные покупатели, и формат ключа его корзины. */
+public enum BuyerDimension {
+    /** Месяц оформления заказа, ключ {@code 2024-01}. */
+    MONTH,
+    /** Купленный товар, ключ — id товара. */
+    PRODUCT,
+    /** Категория купленного товара. */
+    CATEGORY
+}
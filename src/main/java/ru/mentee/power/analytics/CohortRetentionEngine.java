@@ -0,0 +1,159 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.entity.CohortRetention;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Таблица удержания когорт без самосоединения {@code users} и {@code orders}.
+ *
+ * <p>Для каждого месяца хранятся два {@link IdBitmap}: пользователи, зарегистрированные в этом
+ * месяце, и пользователи, сделавшие в нём заказ. Ячейка таблицы — размер пересечения битмапа
+ * когорты с битмапом месяца активности; когорты считаются параллельно. Память — порядка бита на
+ * пользователя на каждый месяц его активности, время ячейки не зависит от числа заказов.
+ *
+ * <p>Id пользователей должны лежать в {@code [0, Integer.MAX_VALUE]}, иначе загрузка и учёт
+ * завершаются {@link DataAccessException}. Битмапы строятся одним проходом по {@code users} и
+ * {@code orders} и дополняются через {@link #recordUser} и {@link #recordOrder}; строки без {@code
+ * created_at} не относятся ни к одному месяцу и пропускаются. Удаления не поддерживаются, их
+ * исправляет повторная {@link #load(DataSource)}.
+ */
+@Slf4j
+public class CohortRetentionEngine {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String USERS_SQL =
+            "SELECT id, created_at FROM users WHERE created_at IS NOT NULL";
+
+    private static final String ORDERS_SQL =
+            "SELECT user_id, created_at FROM orders WHERE created_at IS NOT NULL";
+
+    private final NavigableMap<YearMonth, IdBitmap> cohorts = new TreeMap<>();
+    private final NavigableMap<YearMonth, IdBitmap> buyers = new TreeMap<>();
+
+    /** Строит битмапы по пользователям и заказам в одном снимке данных. */
+    public static CohortRetentionEngine load(DataSource dataSource) throws DataAccessException {
+        long start = System.nanoTime();
+        CohortRetentionEngine engine = new CohortRetentionEngine();
+        long rows =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                () -> engine.loadFrom(dataSource));
+        log.info(
+                "Loaded {} rows into cohort retention bitmaps in {} ms",
+                rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return engine;
+    }
+
+    public synchronized void recordUser(long userId, LocalDateTime createdAt)
+            throws DataAccessException {
+        bitmap(cohorts, createdAt).add(bitmapId(userId));
+    }
+
+    public synchronized void recordOrder(long userId, LocalDateTime createdAt)
+            throws DataAccessException {
+        bitmap(buyers, createdAt).add(bitmapId(userId));
+    }
+
+    /** Удержание всех когорт, по возрастанию месяца регистрации. */
+    public synchronized List<CohortRetention> getRetention() {
+        if (cohorts.isEmpty()) {
+            return List.of();
+        }
+        return getRetention(cohorts.firstKey(), cohorts.lastKey());
+    }
+
+    /**
+     * Удержание когорт, зарегистрированных в месяцах {@code [from, to]}, по возрастанию месяца.
+     * Ряд каждой когорты доходит до последнего месяца с заказами.
+     */
+    public synchronized List<CohortRetention> getRetention(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        YearMonth lastActive = buyers.isEmpty() ? null : buyers.lastKey();
+        Map<YearMonth, IdBitmap> range = cohorts.subMap(from, true, to, true);
+        // битмапы не меняются, пока вызывающий поток держит монитор
+        return range.entrySet().parallelStream()
+                .map(cohort -> retention(cohort, lastActive))
+                .toList();
+    }
+
+    private CohortRetention retention(Map.Entry<YearMonth, IdBitmap> cohort, YearMonth last) {
+        IdBitmap users = cohort.getValue();
+        List<Long> active = new ArrayList<>();
+        YearMonth month = cohort.getKey();
+        while (last != null && !month.isAfter(last)) {
+            IdBitmap monthBuyers = buyers.get(month);
+            active.add(monthBuyers == null ? 0 : users.andCardinality(monthBuyers));
+            month = month.plusMonths(1);
+        }
+        return new CohortRetention(cohort.getKey(), users.cardinality(), List.copyOf(active));
+    }
+
+    private static int bitmapId(long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            throw new DataAccessException(
+                    "User id "
+                            + userId
+                            + " is outside the cohort bitmap range [0, "
+                            + Integer.MAX_VALUE
+                            + "]");
+        }
+        return (int) userId;
+    }
+
+    private static IdBitmap bitmap(
+            NavigableMap<YearMonth, IdBitmap> bitmaps, LocalDateTime createdAt) {
+        return bitmaps.computeIfAbsent(YearMonth.from(createdAt), month -> new IdBitmap());
+    }
+
+    private long loadFrom(DataSource dataSource) {
+        long rows = 0;
+        try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+            try (PreparedStatement statement = connection.prepareStatement(USERS_SQL)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        recordUser(
+                                resultSet.getLong("id"),
+                                resultSet.getTimestamp("created_at").toLocalDateTime());
+                        rows++;
+                    }
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(ORDERS_SQL)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        recordOrder(
+                                resultSet.getLong("user_id"),
+                                resultSet.getTimestamp("created_at").toLocalDateTime());
+                        rows++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load cohort retention bitmaps", e);
+        }
+        return rows;
+    }
+}
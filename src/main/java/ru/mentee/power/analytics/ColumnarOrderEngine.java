@@ -0,0 +1,290 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+
+/**
+ * Агрегации по {@link OrderColumns} параллельными fork-join редукциями.
+ *
+ * <p>Диапазон строк рекурсивно делится пополам до {@value #LEAF_SIZE} строк. Каждый лист считает
+ * частичный агрегат в собственных примитивных массивах без синхронизации, результаты сливаются при
+ * возврате из рекурсии. Для итогов по пользователям граница деления сдвигается на смену {@code
+ * userId}, поэтому каждый пользователь целиком попадает в один лист и слияние сводится к
+ * конкатенации.
+ *
+ * <p>Результаты совпадают с SQL-версиями {@link ru.mentee.power.repository.OrderRepository}.
+ */
+public class ColumnarOrderEngine {
+
+    private static final int LEAF_SIZE = 1 << 16;
+
+    private static final Comparator<OrderAnalytics> BY_TOTAL_DESC =
+            Comparator.comparingLong(OrderAnalytics::getTotalSpentCents)
+                    .reversed()
+                    .thenComparingLong(OrderAnalytics::getUserId);
+
+    private final OrderColumns columns;
+    private final ForkJoinPool pool;
+
+    public ColumnarOrderEngine(OrderColumns columns) {
+        this(columns, ForkJoinPool.commonPool());
+    }
+
+    public ColumnarOrderEngine(OrderColumns columns, ForkJoinPool pool) {
+        this.columns = columns;
+        this.pool = pool;
+    }
+
+    /** Аналог {@code getMonthlyOrderStats()}: месяцы с заказами, от последнего к первому. */
+    public List<MonthlyOrderStats> getMonthlyOrderStats() {
+        return getMonthlyOrderStats(OrderFilter.all());
+    }
+
+    public List<MonthlyOrderStats> getMonthlyOrderStats(OrderFilter filter) {
+        Predicate predicate = Predicate.compile(filter, columns);
+        MonthlyTotals totals = pool.invoke(new MonthlyTask(predicate, 0, columns.size()));
+        List<MonthlyOrderStats> stats = new ArrayList<>();
+        for (int i = totals.counts.length - 1; i >= 0; i--) {
+            long count = totals.counts[i];
+            if (count == 0) {
+                continue;
+            }
+            int epochMonth = columns.minEpochMonth() + i;
+            stats.add(
+                    new MonthlyOrderStats(
+                            epochMonth / 12,
+                            epochMonth % 12 + 1,
+                            Math.toIntExact(count),
+                            totals.cents[i]));
+        }
+        return stats;
+    }
+
+    /** Итоги пользователей, у которых есть подходящие заказы, по убыванию суммы. */
+    public List<OrderAnalytics> getUserTotals() {
+        return getUserTotals(OrderFilter.all());
+    }
+
+    public List<OrderAnalytics> getUserTotals(OrderFilter filter) {
+        Predicate predicate = Predicate.compile(filter, columns);
+        UserRuns runs = pool.invoke(new UserTask(predicate, 0, columns.size()));
+        List<OrderAnalytics> totals = new ArrayList<>(runs.size);
+        for (int i = 0; i < runs.size; i++) {
+            totals.add(new OrderAnalytics(runs.userIds[i], runs.counts[i], runs.cents[i]));
+        }
+        totals.sort(BY_TOTAL_DESC);
+        return totals;
+    }
+
+    /** Фильтр, приведённый к сравнениям примитивов. */
+    private record Predicate(
+            OrderColumns columns,
+            boolean[] allowedStatuses,
+            int fromMonth,
+            int toMonth,
+            long minCents) {
+
+        static Predicate compile(OrderFilter filter, OrderColumns columns) {
+            boolean[] allowed = null;
+            if (filter.getStatuses() != null) {
+                List<String> dictionary = columns.statuses();
+                allowed = new boolean[dictionary.size()];
+                for (int code = 0; code < dictionary.size(); code++) {
+                    allowed[code] = filter.getStatuses().contains(dictionary.get(code));
+                }
+            }
+            return new Predicate(
+                    columns,
+                    allowed,
+                    filter.getFrom() == null
+                            ? Integer.MIN_VALUE
+                            : OrderColumns.epochMonth(
+                                    filter.getFrom().getYear(), filter.getFrom().getMonthValue()),
+                    filter.getTo() == null
+                            ? Integer.MAX_VALUE
+                            : OrderColumns.epochMonth(
+                                    filter.getTo().getYear(), filter.getTo().getMonthValue()),
+                    filter.getMinTotal() == null
+                            ? Long.MIN_VALUE
+                            : filter.getMinTotal()
+                                    .setScale(2, RoundingMode.CEILING)
+                                    .unscaledValue()
+                                    .longValueExact());
+        }
+
+        boolean test(int row) {
+            int month = columns.epochMonth(row);
+            return month >= fromMonth
+                    && month <= toMonth
+                    && columns.amountCents(row) >= minCents
+                    && (allowedStatuses == null || allowedStatuses[columns.statusCode(row)]);
+        }
+    }
+
+    private static final class MonthlyTotals {
+        final long[] counts;
+        final long[] cents;
+
+        MonthlyTotals(int months) {
+            counts = new long[months];
+            cents = new long[months];
+        }
+
+        MonthlyTotals merge(MonthlyTotals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                cents[i] += other.cents[i];
+            }
+            return this;
+        }
+    }
+
+    private final class MonthlyTask extends RecursiveTask<MonthlyTotals> {
+
+        private final Predicate predicate;
+        private final int from;
+        private final int to;
+
+        MonthlyTask(Predicate predicate, int from, int to) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MonthlyTotals compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                MonthlyTask left = new MonthlyTask(predicate, from, middle);
+                left.fork();
+                MonthlyTotals right = new MonthlyTask(predicate, middle, to).compute();
+                return left.join().merge(right);
+            }
+            int base = columns.minEpochMonth();
+            MonthlyTotals totals =
+                    new MonthlyTotals(columns.maxEpochMonth() - columns.minEpochMonth() + 1);
+            for (int row = from; row < to; row++) {
+                if (predicate.test(row)) {
+                    int slot = columns.epochMonth(row) - base;
+                    totals.counts[slot]++;
+                    totals.cents[slot] += columns.amountCents(row);
+                }
+            }
+            return totals;
+        }
+    }
+
+    /** Итоги подряд идущих пользователей в порядке возрастания {@code userId}. */
+    private static final class UserRuns {
+        long[] userIds;
+        int[] counts;
+        long[] cents;
+        int size;
+
+        UserRuns(int capacity) {
+            userIds = new long[capacity];
+            counts = new int[capacity];
+            cents = new long[capacity];
+        }
+
+        void add(long userId, int count, long totalCents) {
+            if (size == userIds.length) {
+                int capacity = Math.max(16, size * 2);
+                userIds = Arrays.copyOf(userIds, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+            }
+            userIds[size] = userId;
+            counts[size] = count;
+            cents[size] = totalCents;
+            size++;
+        }
+
+        UserRuns concat(UserRuns other) {
+            int total = size + other.size;
+            userIds = Arrays.copyOf(userIds, total);
+            counts = Arrays.copyOf(counts, total);
+            cents = Arrays.copyOf(cents, total);
+            System.arraycopy(other.userIds, 0, userIds, size, other.size);
+            System.arraycopy(other.counts, 0, counts, size, other.size);
+            System.arraycopy(other.cents, 0, cents, size, other.size);
+            size = total;
+            return this;
+        }
+    }
+
+    private final class UserTask extends RecursiveTask<UserRuns> {
+
+        private final Predicate predicate;
+        private final int from;
+        private final int to;
+
+        UserTask(Predicate predicate, int from, int to) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected UserRuns compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = userBoundary((from + to) >>> 1);
+                if (middle > from && middle < to) {
+                    UserTask left = new UserTask(predicate, from, middle);
+                    left.fork();
+                    UserRuns right = new UserTask(predicate, middle, to).compute();
+                    return left.join().concat(right);
+                }
+            }
+            return aggregate();
+        }
+
+        /** Ближайшая к {@code row} строка, с которой начинается новый пользователь. */
+        private int userBoundary(int row) {
+            int boundary = row;
+            while (boundary < to && sameUser(boundary)) {
+                boundary++;
+            }
+            if (boundary < to) {
+                return boundary;
+            }
+            boundary = row;
+            while (boundary > from && sameUser(boundary)) {
+                boundary--;
+            }
+            return boundary;
+        }
+
+        private boolean sameUser(int row) {
+            return columns.userId(row) == columns.userId(row - 1);
+        }
+
+        private UserRuns aggregate() {
+            UserRuns runs = new UserRuns(Math.min(to - from, 1024));
+            int row = from;
+            while (row < to) {
+                long userId = columns.userId(row);
+                int count = 0;
+                long cents = 0;
+                for (; row < to && columns.userId(row) == userId; row++) {
+                    if (predicate.test(row)) {
+                        count++;
+                        cents += columns.amountCents(row);
+                    }
+                }
+                if (count > 0) {
+                    runs.add(userId, count, cents);
+                }
+            }
+            return runs;
+        }
+    }
+}
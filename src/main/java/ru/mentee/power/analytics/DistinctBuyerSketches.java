@@ -0,0 +1,167 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.DistinctCountEstimate;
+
+/**
+ * Скетчи {@link HyperLogLog} различных покупателей по месяцам, товарам и категориям.
+ *
+ * <p>На корзину уходит {@code 2^precision} байт независимо от числа заказов. Скетчи строятся
+ * проходом по заказам ({@link #load(DataSource, int)}) и дополняются событиями {@link
+ * #recordOrder} и {@link #recordPurchase}; {@link #save(DataSource)} заменяет ими содержимое
+ * таблицы {@code buyer_sketches}, откуда их читает {@link
+ * ru.mentee.power.repository.SketchDistinctBuyerRepository}. Повторный учёт того же покупателя
+ * оценку не меняет, удаление заказов не поддерживается — его исправляет повторная загрузка.
+ * Заказы без {@code created_at} не относятся ни к одному месяцу и в месячные скетчи не попадают.
+ */
+@Slf4j
+public class DistinctBuyerSketches {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String ORDERS_SQL =
+            "SELECT user_id, created_at FROM orders WHERE created_at IS NOT NULL";
+
+    private static final String PURCHASES_SQL =
+            "SELECT o.user_id, oi.product_id, p.category FROM order_items oi JOIN orders o ON"
+                    + " o.id = oi.order_id JOIN products p ON p.id = oi.product_id";
+
+    private static final String DELETE_SQL = "DELETE FROM buyer_sketches";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO buyer_sketches (dimension, bucket, sketch) VALUES (?, ?, ?)";
+
+    private final HyperLogLog empty;
+    private final Map<BuyerDimension, Map<String, HyperLogLog>> sketches =
+            new EnumMap<>(BuyerDimension.class);
+
+    public DistinctBuyerSketches(int precision) {
+        this.empty = new HyperLogLog(precision);
+        for (BuyerDimension dimension : BuyerDimension.values()) {
+            sketches.put(dimension, new TreeMap<>());
+        }
+    }
+
+    /** Строит скетчи по всем заказам и позициям в одном снимке данных. */
+    public static DistinctBuyerSketches load(DataSource dataSource, int precision)
+            throws DataAccessException {
+        long start = System.nanoTime();
+        DistinctBuyerSketches sketches = new DistinctBuyerSketches(precision);
+        long rows =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                () -> sketches.loadFrom(dataSource));
+        log.info(
+                "Loaded {} rows into distinct buyer sketches in {} ms",
+                rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return sketches;
+    }
+
+    public synchronized void recordOrder(long userId, LocalDateTime createdAt) {
+        sketch(BuyerDimension.MONTH, YearMonth.from(createdAt).toString()).add(userId);
+    }
+
+    public synchronized void recordPurchase(long userId, long productId, String category) {
+        sketch(BuyerDimension.PRODUCT, String.valueOf(productId)).add(userId);
+        sketch(BuyerDimension.CATEGORY, category).add(userId);
+    }
+
+    /** Оценка по одной корзине; для неизвестной корзины — ноль. */
+    public synchronized DistinctCountEstimate estimate(BuyerDimension dimension, String bucket) {
+        HyperLogLog sketch = sketches.get(dimension).get(bucket);
+        return sketch == null
+                ? new DistinctCountEstimate(0, 0)
+                : new DistinctCountEstimate(sketch.estimate(), sketch.relativeError());
+    }
+
+    /** Заменяет все сохранённые скетчи текущими в одной транзакции. */
+    public void save(DataSource dataSource) throws DataAccessException {
+        int saved =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                () -> {
+                                    try (Connection connection =
+                                            UnitOfWork.getConnection(dataSource)) {
+                                        return saveTo(connection);
+                                    } catch (SQLException e) {
+                                        throw new DataAccessException(
+                                                "Failed to save distinct buyer sketches", e);
+                                    }
+                                });
+        log.info("Saved {} distinct buyer sketches", saved);
+    }
+
+    private synchronized int saveTo(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(DELETE_SQL);
+        }
+        int saved = 0;
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (Map.Entry<BuyerDimension, Map<String, HyperLogLog>> dimension :
+                    sketches.entrySet()) {
+                for (Map.Entry<String, HyperLogLog> bucket : dimension.getValue().entrySet()) {
+                    statement.setString(1, dimension.getKey().name());
+                    statement.setString(2, bucket.getKey());
+                    statement.setBytes(3, bucket.getValue().toBytes());
+                    statement.addBatch();
+                    saved++;
+                }
+            }
+            statement.executeBatch();
+        }
+        return saved;
+    }
+
+    private HyperLogLog sketch(BuyerDimension dimension, String bucket) {
+        return sketches.get(dimension).computeIfAbsent(bucket, key -> empty.copy());
+    }
+
+    private long loadFrom(DataSource dataSource) {
+        long rows = 0;
+        try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+            try (PreparedStatement statement = connection.prepareStatement(ORDERS_SQL)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        recordOrder(
+                                resultSet.getLong("user_id"),
+                                resultSet.getTimestamp("created_at").toLocalDateTime());
+                        rows++;
+                    }
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(PURCHASES_SQL)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        recordPurchase(
+                                resultSet.getLong("user_id"),
+                                resultSet.getLong("product_id"),
+                                resultSet.getString("category"));
+                        rows++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load distinct buyer sketches", e);
+        }
+        return rows;
+    }
+}
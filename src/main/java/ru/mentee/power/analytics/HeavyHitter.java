@@ -0,0 +1,21 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import lombok.Value;
+
+/**
+ * Оценка веса ключа из {@link SpaceSaving}: истинный вес лежит в {@code [count - error, count]}.
+ */
+@Value
+public class HeavyHitter<K> {
+    K key;
+    long count;
+    long error;
+
+    /** Ключ точно входит в истинный топ того же размера. */
+    boolean guaranteed;
+
+    public long lowerBound() {
+        return count - error;
+    }
+}
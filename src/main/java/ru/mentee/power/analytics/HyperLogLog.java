@@ -0,0 +1,141 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Скетч HyperLogLog для оценки числа различных значений: {@code 2^precision} однобайтовых
+ * регистров независимо от объёма потока, относительная стандартная ошибка {@code 1.04 /
+ * sqrt(2^precision)}. При точности 12 это 4 КБ и около 1.6%.
+ *
+ * <p>Скетчи одной точности объединяются через {@link #merge(HyperLogLog)} без потерь: результат
+ * совпадает со скетчем, построенным по объединению потоков, поэтому оценки за диапазон получаются
+ * слиянием скетчей отдельных интервалов. {@link #toBytes()} и {@link #fromBytes(byte[])} позволяют
+ * хранить скетч в БД. Класс не потокобезопасен.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                    "precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // сторожевой бит ограничивает ранг, когда оставшиеся биты хэша нулевые
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // на малых мощностях точнее линейный подсчёт по пустым регистрам
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /** Относительная стандартная ошибка оценки. */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /** Добавляет в этот скетч все значения {@code other}. */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException(
+                    "Cannot merge sketches of precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /** Версия формата, точность и регистры. */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 2];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 2, registers.length);
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported HyperLogLog format");
+        }
+        int precision = bytes[1];
+        if (precision < MIN_PRECISION
+                || precision > MAX_PRECISION
+                || bytes.length != (1 << precision) + 2) {
+            throw new IllegalArgumentException(
+                    "Corrupted HyperLogLog of " + bytes.length + " bytes");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 2, bytes.length));
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /** Финализатор MurmurHash3: последовательные id дают равномерно распределённые хэши. */
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
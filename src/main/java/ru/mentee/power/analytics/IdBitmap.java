@@ -0,0 +1,173 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Сжатое множество неотрицательных {@code int}-идентификаторов в духе Roaring bitmap.
+ *
+ * <p>Значения делятся на блоки по старшим 16 битам. Разреженный блок хранит отсортированный массив
+ * младших битов (2 байта на значение), блок плотнее {@value #ARRAY_LIMIT} значений — битовую карту
+ * на 8 КБ. Последовательные id пользователей попадают в плотные блоки и стоят бит на значение,
+ * поэтому десятки миллионов id занимают единицы мегабайт, а пересечение считается пословно по
+ * {@code long} без распаковки. Класс не потокобезопасен.
+ */
+public final class IdBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];
+    private int[] cardinalities = new int[4];
+    private int size;
+
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative: " + value);
+        }
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = insertContainer(-index - 1, key);
+        }
+        if (containers[index] instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinalities[index]++;
+            }
+            return;
+        }
+        char[] values = (char[]) containers[index];
+        int cardinality = cardinalities[index];
+        int position = Arrays.binarySearch(values, 0, cardinality, low);
+        if (position >= 0) {
+            return;
+        }
+        if (cardinality == ARRAY_LIMIT) {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            words[low >>> 6] |= 1L << low;
+            containers[index] = words;
+            cardinalities[index]++;
+            return;
+        }
+        position = -position - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            containers[index] = values;
+        }
+        System.arraycopy(values, position, values, position + 1, cardinality - position);
+        values[position] = low;
+        cardinalities[index]++;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        return contains(containers[index], cardinalities[index], (char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    /** Размер пересечения с {@code other} без построения самого пересечения. */
+    public long andCardinality(IdBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality +=
+                        andCardinality(
+                                containers[i],
+                                cardinalities[i],
+                                other.containers[j],
+                                other.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    private int insertContainer(int index, char key) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new char[4];
+        cardinalities[index] = 0;
+        size++;
+        return index;
+    }
+
+    private static boolean contains(Object container, int cardinality, char low) {
+        if (container instanceof long[] words) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, 0, cardinality, low) >= 0;
+    }
+
+    private static long andCardinality(Object left, int leftSize, Object right, int rightSize) {
+        if (left instanceof long[] leftWords && right instanceof long[] rightWords) {
+            long cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                cardinality += Long.bitCount(leftWords[i] & rightWords[i]);
+            }
+            return cardinality;
+        }
+        if (left instanceof long[]) {
+            return andCardinality(right, rightSize, left, leftSize);
+        }
+        char[] values = (char[]) left;
+        long cardinality = 0;
+        if (right instanceof long[] words) {
+            for (int i = 0; i < leftSize; i++) {
+                if ((words[values[i] >>> 6] & (1L << values[i])) != 0) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+        char[] others = (char[]) right;
+        int i = 0;
+        int j = 0;
+        while (i < leftSize && j < rightSize) {
+            if (values[i] < others[j]) {
+                i++;
+            } else if (values[i] > others[j]) {
+                j++;
+            } else {
+                cardinality++;
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+}
@@ -0,0 +1,278 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionIsolation;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Поддерживает таблицу {@code monthly_order_stats} инкрементально (только PostgreSQL).
+ *
+ * <p>За один запуск в одной транзакции:
+ *
+ * <ol>
+ *   <li>заказы после водяного знака {@code (created_at, id)} из {@code rollup_watermarks}
+ *       агрегируются по месяцам и прибавляются к сводке через {@code ON CONFLICT DO UPDATE};
+ *   <li>месяцы из {@code monthly_order_stats_dirty}, куда триггер на {@code orders} записывает
+ *       изменения и удаления уже учтённых заказов и заказы, закоммиченные за водяным знаком,
+ *       пересчитываются целиком;
+ *   <li>водяной знак сдвигается.
+ * </ol>
+ *
+ * <p>Заказы моложе {@code settleDelay} по часам БД не учитываются, чтобы не сдвигать водяной
+ * знак к самым свежим строкам. Заказ, закоммиченный уже за водяным знаком (долгая транзакция
+ * или явный {@code created_at} в прошлом), не теряется: отложенный триггер при коммите
+ * сравнивает его с текущим водяным знаком и отмечает месяц для пересчёта. Запуск держит
+ * эксклюзивную advisory-блокировку, которую триггер ждёт, а сам выполняется в READ COMMITTED:
+ * строки, чей коммит прошёл до блокировки, видны всем запросам запуска, а коммиты во время
+ * запуска ждут его окончания и видят уже сдвинутый водяной знак.
+ *
+ * <p>Поэтому, пока идёт запуск, коммит любой транзакции, изменившей {@code orders}, стоит до его
+ * окончания: запись заказов задерживается на время запуска. Триггер берёт блокировку и читает
+ * водяной знак один раз на транзакцию, а не на строку, но само ожидание неизбежно — запуски
+ * должны быть короткими, то есть частыми, а не редкими и большими.
+ */
+@Slf4j
+public class MonthlyRollupJob implements AutoCloseable {
+
+    static final String WATERMARK_NAME = "monthly_order_stats";
+
+    private static final Duration DEFAULT_SETTLE_DELAY = Duration.ofMinutes(1);
+
+    private static final String LOCK_ROLLUP_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private static final String LOCK_WATERMARK_SQL =
+            "SELECT last_created_at, last_id FROM rollup_watermarks WHERE name = ? FOR UPDATE";
+
+    private static final String INIT_WATERMARK_SQL =
+            "INSERT INTO rollup_watermarks(name, last_created_at, last_id) VALUES (?, TIMESTAMP"
+                    + " '1970-01-01 00:00:00', 0) ON CONFLICT (name) DO NOTHING";
+
+    private static final String FIND_UPPER_BOUND_SQL =
+            "SELECT created_at, id FROM orders WHERE created_at <= now() - make_interval(secs =>"
+                    + " ?) ORDER BY created_at DESC, id DESC LIMIT 1";
+
+    private static final String ROLL_UP_SQL =
+            "INSERT INTO monthly_order_stats(year, month, orders_count, monthly_revenue) SELECT"
+                + " CAST(EXTRACT(YEAR FROM created_at) AS INTEGER), CAST(EXTRACT(MONTH FROM"
+                + " created_at) AS INTEGER), COUNT(*), SUM(total) FROM orders WHERE (created_at,"
+                + " id) > (?, ?) AND (created_at, id) <= (?, ?) GROUP BY 1, 2 ON CONFLICT (year,"
+                + " month) DO UPDATE SET orders_count = monthly_order_stats.orders_count +"
+                + " EXCLUDED.orders_count, monthly_revenue = monthly_order_stats.monthly_revenue +"
+                + " EXCLUDED.monthly_revenue";
+
+    private static final String TAKE_DIRTY_MONTHS_SQL =
+            "DELETE FROM monthly_order_stats_dirty RETURNING month_start";
+
+    private static final String DELETE_MONTH_SQL =
+            "DELETE FROM monthly_order_stats WHERE year = ? AND month = ?";
+
+    private static final String RECOMPUTE_MONTH_SQL =
+            "INSERT INTO monthly_order_stats(year, month, orders_count, monthly_revenue) SELECT ?,"
+                    + " ?, COUNT(*), SUM(total) FROM orders WHERE created_at >= ? AND created_at <"
+                    + " ? AND (created_at, id) <= (?, ?) HAVING COUNT(*) > 0";
+
+    private static final String UPDATE_WATERMARK_SQL =
+            "UPDATE rollup_watermarks SET last_created_at = ?, last_id = ? WHERE name = ?";
+
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "monthly-rollup");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private static final TransactionOptions TRANSACTION =
+            TransactionOptions.builder().isolation(TransactionIsolation.READ_COMMITTED).build();
+
+    private final DataSource dataSource;
+    private final Duration settleDelay;
+    private ScheduledFuture<?> scheduled;
+
+    public MonthlyRollupJob(DataSource dataSource) {
+        this(dataSource, DEFAULT_SETTLE_DELAY);
+    }
+
+    public MonthlyRollupJob(DataSource dataSource, Duration settleDelay) {
+        this.dataSource = dataSource;
+        this.settleDelay = settleDelay;
+    }
+
+    /** Запускает {@link #run()} с фиксированной паузой между запусками. */
+    public synchronized void start(Duration interval) {
+        if (scheduled == null) {
+            long period = interval.toMillis();
+            scheduled =
+                    SCHEDULER.scheduleWithFixedDelay(
+                            this::runQuietly, 0, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Выполняет один инкрементальный проход.
+     *
+     * @return количество месяцев, обновлённых новыми заказами и пересчитанных целиком
+     */
+    public int run() throws DataAccessException {
+        return new UnitOfWork(dataSource)
+                .execute(
+                        TRANSACTION,
+                        () -> {
+                            try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+                                return rollUp(connection);
+                            } catch (SQLException e) {
+                                throw new DataAccessException(
+                                        "Failed to roll up monthly order stats", e);
+                            }
+                        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    private int rollUp(Connection connection) throws SQLException {
+        Position watermark = lockWatermark(connection);
+        Position bound = findUpperBound(connection, watermark);
+
+        int upserted = 0;
+        if (bound.isAfter(watermark)) {
+            try (PreparedStatement statement = connection.prepareStatement(ROLL_UP_SQL)) {
+                watermark.bind(statement, 1);
+                bound.bind(statement, 3);
+                upserted = statement.executeUpdate();
+            }
+        }
+
+        List<LocalDateTime> dirtyMonths = takeDirtyMonths(connection);
+        for (LocalDateTime monthStart : dirtyMonths) {
+            recomputeMonth(connection, monthStart, bound);
+        }
+
+        if (bound.isAfter(watermark)) {
+            try (PreparedStatement statement =
+                    connection.prepareStatement(UPDATE_WATERMARK_SQL)) {
+                bound.bind(statement, 1);
+                statement.setString(3, WATERMARK_NAME);
+                statement.executeUpdate();
+            }
+        }
+        log.info(
+                "Monthly rollup: {} months updated, {} months recomputed, watermark {}",
+                upserted,
+                dirtyMonths.size(),
+                bound);
+        return upserted + dirtyMonths.size();
+    }
+
+    private Position lockWatermark(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_ROLLUP_SQL)) {
+            statement.setString(1, WATERMARK_NAME);
+            statement.execute();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INIT_WATERMARK_SQL)) {
+            statement.setString(1, WATERMARK_NAME);
+            statement.executeUpdate();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_WATERMARK_SQL)) {
+            statement.setString(1, WATERMARK_NAME);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return new Position(resultSet.getTimestamp(1), resultSet.getLong(2));
+            }
+        }
+    }
+
+    private Position findUpperBound(Connection connection, Position watermark)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(FIND_UPPER_BOUND_SQL)) {
+            statement.setDouble(1, settleDelay.toMillis() / 1000.0);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return watermark;
+                }
+                Position newest = new Position(resultSet.getTimestamp(1), resultSet.getLong(2));
+                // последний учтённый заказ мог быть удалён — водяной знак назад не сдвигаем
+                return newest.isAfter(watermark) ? newest : watermark;
+            }
+        }
+    }
+
+    private List<LocalDateTime> takeDirtyMonths(Connection connection) throws SQLException {
+        List<LocalDateTime> months = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(TAKE_DIRTY_MONTHS_SQL);
+                ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                months.add(resultSet.getTimestamp(1).toLocalDateTime());
+            }
+        }
+        return months;
+    }
+
+    private void recomputeMonth(Connection connection, LocalDateTime monthStart, Position bound)
+            throws SQLException {
+        int year = monthStart.getYear();
+        int month = monthStart.getMonthValue();
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_MONTH_SQL)) {
+            statement.setInt(1, year);
+            statement.setInt(2, month);
+            statement.executeUpdate();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(RECOMPUTE_MONTH_SQL)) {
+            statement.setInt(1, year);
+            statement.setInt(2, month);
+            statement.setTimestamp(3, Timestamp.valueOf(monthStart));
+            statement.setTimestamp(4, Timestamp.valueOf(monthStart.plusMonths(1)));
+            bound.bind(statement, 5);
+            statement.executeUpdate();
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Monthly rollup failed, will retry on next run", e);
+        }
+    }
+
+    /** Позиция заказа в порядке {@code (created_at, id)}. */
+    private record Position(Timestamp createdAt, long id) {
+
+        boolean isAfter(Position other) {
+            int byTime = createdAt.compareTo(other.createdAt);
+            return byTime > 0 || byTime == 0 && id > other.id;
+        }
+
+        void bind(PreparedStatement statement, int index) throws SQLException {
+            statement.setTimestamp(index, createdAt);
+            statement.setLong(index + 1, id);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + createdAt + ", " + id + ")";
+        }
+    }
+}
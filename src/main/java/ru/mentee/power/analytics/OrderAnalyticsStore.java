@@ -0,0 +1,354 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Money;
+
+/**
+ * Пользовательская аналитика заказов, которая хранится в памяти и обновляется инкрементально.
+ *
+ * <p>При {@link #start()} итоги по всем пользователям загружаются одним запросом. Дальше
+ * изменения заказов применяются через {@link #apply(OrderEvent)} за O(1), а {@link
+ * #getUserAnalytics()} и {@link #getTopCustomers(int)} читают только память.
+ *
+ * <p>Граница устаревания: события видны сразу после {@code apply}. Изменения, не прошедшие через
+ * {@code apply} (другие писатели, потерянные события), исправляет периодическая сверка с БД каждые
+ * {@code refreshInterval}. Если сверка не удаётся дольше {@code maxStaleness}, {@link #isFresh()}
+ * возвращает {@code false}, и вызывающий код должен читать из БД.
+ *
+ * <p>События, пришедшие во время сверки, применяются к текущим данным и запоминаются как последнее
+ * состояние каждого заказа. Новый снимок поправляется на разницу между этим состоянием и строкой
+ * заказа в том же снимке, поэтому событие учитывается один раз независимо от того, закоммичено
+ * оно до начала снимка или после. События одного заказа должны приходить в порядке коммитов.
+ */
+@Slf4j
+public class OrderAnalyticsStore implements AutoCloseable {
+
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_MAX_STALENESS = Duration.ofMinutes(15);
+    private static final int FETCH_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final String LOAD_SQL =
+            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, CAST(COALESCE(SUM(o.total), 0) *"
+                    + " 100 AS BIGINT) AS total_spent_cents FROM users u LEFT JOIN orders o ON"
+                    + " u.id = o.user_id GROUP BY u.id";
+
+    private static final String SNAPSHOT_ORDERS_SQL =
+            "SELECT id, user_id, total FROM orders WHERE id = ANY(?)";
+
+    private static final ScheduledExecutorService REFRESHER =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "order-analytics-refresher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private static final Comparator<Entry> BY_TOTAL_DESC =
+            Comparator.comparingLong(Entry::totalCents)
+                    .reversed()
+                    .thenComparingLong(Entry::userId);
+
+    private final DataSource dataSource;
+    private final Duration refreshInterval;
+    private final Duration maxStaleness;
+    private final Object writeLock = new Object();
+
+    private volatile UserTotalsTable table;
+    private volatile long refreshedAtNanos;
+    private Replay replay;
+    private ScheduledFuture<?> refreshing;
+
+    public OrderAnalyticsStore(DataSource dataSource) {
+        this(dataSource, DEFAULT_REFRESH_INTERVAL, DEFAULT_MAX_STALENESS);
+    }
+
+    public OrderAnalyticsStore(
+            DataSource dataSource, Duration refreshInterval, Duration maxStaleness) {
+        this.dataSource = dataSource;
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /** Загружает данные и запускает периодическую сверку с БД. */
+    public synchronized void start() throws DataAccessException {
+        refresh();
+        if (refreshing == null) {
+            long period = refreshInterval.toMillis();
+            refreshing =
+                    REFRESHER.scheduleWithFixedDelay(
+                            this::refreshQuietly, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Перестраивает данные по БД и атомарно подменяет текущие. */
+    public synchronized void refresh() throws DataAccessException {
+        synchronized (writeLock) {
+            replay = new Replay();
+        }
+        UserTotalsTable current = table;
+        UserTotalsTable fresh;
+        try {
+            fresh = loadAndSwap(current == null ? INITIAL_CAPACITY : current.size());
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                replay = null;
+            }
+            throw e;
+        }
+        refreshedAtNanos = System.nanoTime();
+        log.info("Refreshed in-memory order analytics for {} users", fresh.size());
+    }
+
+    /** Применяет изменение заказа. До {@link #start()} события не нужны — их учтёт загрузка. */
+    public void apply(OrderEvent event) {
+        synchronized (writeLock) {
+            UserTotalsTable current = table;
+            if (current != null) {
+                applyTo(current, event);
+            }
+            if (replay != null) {
+                OrderRow changed = event.getAfter() != null ? event.getAfter() : event.getBefore();
+                replay.orders.put(changed.getOrderId(), event.getAfter());
+            }
+        }
+    }
+
+    /** Регистрирует нового пользователя без заказов, чтобы он сразу попадал в аналитику. */
+    public void onUserCreated(long userId) {
+        synchronized (writeLock) {
+            UserTotalsTable current = table;
+            if (current != null) {
+                current.add(userId, 0, 0);
+            }
+            if (replay != null) {
+                replay.users.add(userId);
+            }
+        }
+    }
+
+    /** Данные загружены и последняя успешная сверка была не раньше {@code maxStaleness} назад. */
+    public boolean isFresh() {
+        return table != null && System.nanoTime() - refreshedAtNanos <= maxStaleness.toNanos();
+    }
+
+    /** Время с последней успешной сверки с БД. */
+    public Duration getAge() {
+        return table == null ? null : Duration.ofNanos(System.nanoTime() - refreshedAtNanos);
+    }
+
+    /** Аналитика по всем пользователям, отсортированная по сумме заказов по убыванию. */
+    public List<OrderAnalytics> getUserAnalytics() throws DataAccessException {
+        UserTotalsTable current = requireTable();
+        List<Entry> entries = new ArrayList<>(current.size());
+        current.forEach((userId, count, cents) -> entries.add(new Entry(userId, count, cents)));
+        entries.sort(BY_TOTAL_DESC);
+        return toAnalytics(entries);
+    }
+
+    /** Топ-{@code limit} пользователей по сумме заказов; выбирается кучей за O(n log limit). */
+    public List<OrderAnalytics> getTopCustomers(int limit) throws DataAccessException {
+        if (limit < 0) {
+            throw new DataAccessException("Limit cannot be negative");
+        }
+        if (limit == 0) {
+            return List.of();
+        }
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, BY_TOTAL_DESC.reversed());
+        requireTable()
+                .forEach(
+                        (userId, count, cents) -> {
+                            top.add(new Entry(userId, count, cents));
+                            if (top.size() > limit) {
+                                top.poll();
+                            }
+                        });
+        List<Entry> entries = new ArrayList<>(top);
+        entries.sort(BY_TOTAL_DESC);
+        return toAnalytics(entries);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refreshing != null) {
+            refreshing.cancel(false);
+            refreshing = null;
+        }
+    }
+
+    /**
+     * Загружает итоги и подменяет ими текущие в одной транзакции со снимком: строки заказов,
+     * изменённых за время сверки, читаются из того же снимка, что и итоги. Дочитывание идёт без
+     * {@link #writeLock}, пока под блокировкой не окажется, что непрочитанных заказов не осталось.
+     */
+    private UserTotalsTable loadAndSwap(int expectedUsers) throws DataAccessException {
+        return new UnitOfWork(dataSource)
+                .execute(
+                        TransactionOptions.readOnlySnapshot(),
+                        () -> {
+                            try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+                                UserTotalsTable fresh = load(connection, expectedUsers);
+                                Map<Long, OrderRow> snapshotOrders = new HashMap<>();
+                                Set<Long> read = new HashSet<>();
+                                while (true) {
+                                    List<Long> pending;
+                                    synchronized (writeLock) {
+                                        pending = unread(read);
+                                        if (pending.isEmpty()) {
+                                            swap(fresh, snapshotOrders);
+                                            return fresh;
+                                        }
+                                    }
+                                    // Запрос идёт без блокировки, чтобы не задерживать apply
+                                    readSnapshotOrders(connection, pending, snapshotOrders, read);
+                                }
+                            } catch (SQLException e) {
+                                throw new DataAccessException(
+                                        "Failed to load order analytics", e);
+                            }
+                        });
+    }
+
+    /** Вызывается под {@link #writeLock}, когда строки всех изменённых заказов прочитаны. */
+    private void swap(UserTotalsTable fresh, Map<Long, OrderRow> snapshotOrders) {
+        reconcile(fresh, snapshotOrders, replay);
+        log.debug("Reconciled {} orders changed during refresh", replay.orders.size());
+        replay = null;
+        table = fresh;
+    }
+
+    private static UserTotalsTable load(Connection connection, int expectedUsers)
+            throws SQLException {
+        UserTotalsTable fresh = new UserTotalsTable(expectedUsers);
+        try (PreparedStatement statement = connection.prepareStatement(LOAD_SQL)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    fresh.add(
+                            resultSet.getLong("user_id"),
+                            resultSet.getInt("orders_count"),
+                            resultSet.getLong("total_spent_cents"));
+                }
+            }
+        }
+        return fresh;
+    }
+
+    private List<Long> unread(Set<Long> read) {
+        synchronized (writeLock) {
+            List<Long> orderIds = new ArrayList<>();
+            for (Long orderId : replay.orders.keySet()) {
+                if (!read.contains(orderId)) {
+                    orderIds.add(orderId);
+                }
+            }
+            return orderIds;
+        }
+    }
+
+    private static void readSnapshotOrders(
+            Connection connection,
+            List<Long> orderIds,
+            Map<Long, OrderRow> snapshotOrders,
+            Set<Long> read)
+            throws SQLException {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Array array = connection.createArrayOf("bigint", orderIds.toArray());
+        try (PreparedStatement statement = connection.prepareStatement(SNAPSHOT_ORDERS_SQL)) {
+            statement.setArray(1, array);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long orderId = resultSet.getLong("id");
+                    snapshotOrders.put(
+                            orderId,
+                            new OrderRow(
+                                    orderId,
+                                    resultSet.getLong("user_id"),
+                                    resultSet.getBigDecimal("total")));
+                }
+            }
+        } finally {
+            array.free();
+        }
+        read.addAll(orderIds);
+    }
+
+    /** Переводит каждый изменённый заказ из состояния в снимке в последнее пришедшее состояние. */
+    private static void reconcile(
+            UserTotalsTable fresh, Map<Long, OrderRow> snapshotOrders, Replay replay) {
+        replay.users.forEach(userId -> fresh.add(userId, 0, 0));
+        replay.orders.forEach(
+                (orderId, latest) ->
+                        applyTo(fresh, OrderEvent.updated(snapshotOrders.get(orderId), latest)));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh in-memory order analytics, data age is {}", getAge(), e);
+        }
+    }
+
+    private UserTotalsTable requireTable() {
+        UserTotalsTable current = table;
+        if (current == null) {
+            throw new DataAccessException("Order analytics store has not been started");
+        }
+        return current;
+    }
+
+    private static void applyTo(UserTotalsTable target, OrderEvent event) {
+        OrderRow before = event.getBefore();
+        OrderRow after = event.getAfter();
+        if (before != null) {
+            target.add(before.getUserId(), -1, -Money.toCents(before.getTotal()));
+        }
+        if (after != null) {
+            target.add(after.getUserId(), 1, Money.toCents(after.getTotal()));
+        }
+    }
+
+    private static List<OrderAnalytics> toAnalytics(List<Entry> entries) {
+        List<OrderAnalytics> analytics = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            analytics.add(
+                    new OrderAnalytics(entry.userId(), entry.ordersCount(), entry.totalCents()));
+        }
+        return analytics;
+    }
+
+    private record Entry(long userId, int ordersCount, long totalCents) {}
+
+    /** Изменения за время сверки: последнее состояние заказов ({@code null} — удалён). */
+    private static final class Replay {
+        private final Map<Long, OrderRow> orders = new HashMap<>();
+        private final List<Long> users = new ArrayList<>();
+    }
+}
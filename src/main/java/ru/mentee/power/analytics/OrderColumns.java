@@ -0,0 +1,272 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Money;
+
+/**
+ * Заказы в колоночном виде: по примитивному массиву на атрибут, строки упорядочены по {@code
+ * userId}. Месяц хранится как {@code year * 12 + month - 1}, сумма — в копейках, статус — кодом
+ * из словаря. Экземпляр неизменяем после {@link Builder#build()}.
+ */
+@Slf4j
+public final class OrderColumns {
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private static final String LOAD_SQL =
+            "SELECT user_id, CAST(EXTRACT(YEAR FROM created_at) * 12 + EXTRACT(MONTH FROM"
+                    + " created_at) - 1 AS INTEGER) AS epoch_month, CAST(total * 100 AS BIGINT)"
+                    + " AS amount_cents, status FROM orders ORDER BY user_id";
+
+    private final long[] userIds;
+    private final int[] epochMonths;
+    private final long[] amountCents;
+    private final byte[] statusCodes;
+    private final List<String> statuses;
+    private final int size;
+    private final int minEpochMonth;
+    private final int maxEpochMonth;
+
+    private OrderColumns(
+            long[] userIds,
+            int[] epochMonths,
+            long[] amountCents,
+            byte[] statusCodes,
+            List<String> statuses,
+            int size) {
+        this.userIds = userIds;
+        this.epochMonths = epochMonths;
+        this.amountCents = amountCents;
+        this.statusCodes = statusCodes;
+        this.statuses = List.copyOf(statuses);
+        this.size = size;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, epochMonths[i]);
+            max = Math.max(max, epochMonths[i]);
+        }
+        this.minEpochMonth = size == 0 ? 0 : min;
+        this.maxEpochMonth = size == 0 ? -1 : max;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /** Загружает все заказы одним проходом серверного курсора. */
+    public static OrderColumns load(DataSource dataSource) throws DataAccessException {
+        long start = System.nanoTime();
+        OrderColumns columns =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                () -> {
+                                    Builder builder = builder(FETCH_SIZE);
+                                    try (Connection connection =
+                                                    UnitOfWork.getConnection(dataSource);
+                                            PreparedStatement statement =
+                                                    connection.prepareStatement(LOAD_SQL)) {
+                                        statement.setFetchSize(FETCH_SIZE);
+                                        try (ResultSet resultSet = statement.executeQuery()) {
+                                            while (resultSet.next()) {
+                                                builder.appendEpochMonth(
+                                                        resultSet.getLong("user_id"),
+                                                        resultSet.getInt("epoch_month"),
+                                                        resultSet.getLong("amount_cents"),
+                                                        resultSet.getString("status"));
+                                            }
+                                        }
+                                    } catch (SQLException e) {
+                                        throw new DataAccessException(
+                                                "Failed to load order columns", e);
+                                    }
+                                    return builder.build();
+                                });
+        log.info(
+                "Loaded {} orders into columns in {} ms",
+                columns.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return columns;
+    }
+
+    public static int epochMonth(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long userId(int row) {
+        return userIds[row];
+    }
+
+    int epochMonth(int row) {
+        return epochMonths[row];
+    }
+
+    long amountCents(int row) {
+        return amountCents[row];
+    }
+
+    byte statusCode(int row) {
+        return statusCodes[row];
+    }
+
+    List<String> statuses() {
+        return statuses;
+    }
+
+    int minEpochMonth() {
+        return minEpochMonth;
+    }
+
+    int maxEpochMonth() {
+        return maxEpochMonth;
+    }
+
+    /** Накопитель строк; если строки пришли не по порядку {@code userId}, сортирует их в build. */
+    public static final class Builder {
+
+        private long[] userIds;
+        private int[] epochMonths;
+        private long[] amountCents;
+        private byte[] statusCodes;
+        private final List<String> statuses = new ArrayList<>();
+        private final Map<String, Byte> statusIndex = new HashMap<>();
+        private int size;
+        private boolean sortedByUser = true;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            userIds = new long[capacity];
+            epochMonths = new int[capacity];
+            amountCents = new long[capacity];
+            statusCodes = new byte[capacity];
+        }
+
+        public Builder append(
+                long userId, int year, int month, BigDecimal total, String status) {
+            long cents = Money.toCents(total);
+            return appendEpochMonth(userId, epochMonth(year, month), cents, status);
+        }
+
+        public Builder appendEpochMonth(
+                long userId, int epochMonth, long amountCents, String status) {
+            if (size == userIds.length) {
+                grow();
+            }
+            if (size > 0 && userId < userIds[size - 1]) {
+                sortedByUser = false;
+            }
+            userIds[size] = userId;
+            epochMonths[size] = epochMonth;
+            this.amountCents[size] = amountCents;
+            statusCodes[size] = codeOf(status);
+            size++;
+            return this;
+        }
+
+        public OrderColumns build() {
+            if (!sortedByUser) {
+                sortByUser();
+            }
+            return new OrderColumns(
+                    userIds, epochMonths, amountCents, statusCodes, statuses, size);
+        }
+
+        private byte codeOf(String status) {
+            Byte code = statusIndex.get(status);
+            if (code != null) {
+                return code;
+            }
+            if (statuses.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct order statuses");
+            }
+            byte newCode = (byte) statuses.size();
+            statuses.add(status);
+            statusIndex.put(status, newCode);
+            return newCode;
+        }
+
+        private void grow() {
+            int capacity = userIds.length + (userIds.length >> 1);
+            userIds = Arrays.copyOf(userIds, capacity);
+            epochMonths = Arrays.copyOf(epochMonths, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+        }
+
+        /**
+         * Стабильная сортировка по полному {@code long userId}: LSD radix sort номеров строк по
+         * 16-битным разрядам. Разряд, одинаковый у всех строк, пропускается — для обычных id
+         * хватает двух проходов.
+         */
+        private void sortByUser() {
+            int[] order = new int[size];
+            int[] buffer = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            int[] counts = new int[RADIX + 1];
+            for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+                Arrays.fill(counts, 0);
+                for (int i = 0; i < size; i++) {
+                    counts[digit(userIds[i], shift) + 1]++;
+                }
+                if (size == 0 || counts[digit(userIds[0], shift) + 1] == size) {
+                    continue;
+                }
+                for (int d = 0; d < RADIX; d++) {
+                    counts[d + 1] += counts[d];
+                }
+                for (int i = 0; i < size; i++) {
+                    int row = order[i];
+                    buffer[counts[digit(userIds[row], shift)]++] = row;
+                }
+                int[] sorted = buffer;
+                buffer = order;
+                order = sorted;
+            }
+            long[] sortedUsers = new long[size];
+            int[] sortedMonths = new int[size];
+            long[] sortedCents = new long[size];
+            byte[] sortedStatuses = new byte[size];
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                sortedUsers[i] = userIds[row];
+                sortedMonths[i] = epochMonths[row];
+                sortedCents[i] = amountCents[row];
+                sortedStatuses[i] = statusCodes[row];
+            }
+            userIds = sortedUsers;
+            epochMonths = sortedMonths;
+            amountCents = sortedCents;
+            statusCodes = sortedStatuses;
+            sortedByUser = true;
+        }
+
+        /** Разряд ключа; знаковый бит инвертирован, чтобы отрицательные id шли первыми. */
+        private static int digit(long userId, int shift) {
+            return (int) ((userId ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1);
+        }
+    }
+}
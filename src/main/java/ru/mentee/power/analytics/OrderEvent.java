@@ -0,0 +1,29 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Изменение заказа в формате CDC: состояние до и после. Для вставки {@code before} равен {@code
+ * null}, для удаления — {@code after}. Событие должно публиковаться после коммита транзакции.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class OrderEvent {
+    OrderRow before;
+    OrderRow after;
+
+    public static OrderEvent inserted(OrderRow order) {
+        return new OrderEvent(null, order);
+    }
+
+    public static OrderEvent updated(OrderRow before, OrderRow after) {
+        return new OrderEvent(before, after);
+    }
+
+    public static OrderEvent deleted(OrderRow order) {
+        return new OrderEvent(order, null);
+    }
+}
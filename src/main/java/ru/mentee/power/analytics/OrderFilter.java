@@ -0,0 +1,30 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Фильтр заказов для агрегаций {@link ColumnarOrderEngine}; {@code null} — без ограничения. */
+@Getter
+@Builder
+public class OrderFilter {
+
+    /** Допустимые статусы заказа. */
+    private final Set<String> statuses;
+
+    /** Первый месяц диапазона, включительно. */
+    private final YearMonth from;
+
+    /** Последний месяц диапазона, включительно. */
+    private final YearMonth to;
+
+    /** Минимальная сумма заказа, включительно. */
+    private final BigDecimal minTotal;
+
+    public static OrderFilter all() {
+        return OrderFilter.builder().build();
+    }
+}
@@ -0,0 +1,13 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import lombok.Value;
+
+/** Продажа товара одной позицией заказа. */
+@Value
+public class OrderItemSale {
+    long productId;
+    String productName;
+    String category;
+    int quantity;
+}
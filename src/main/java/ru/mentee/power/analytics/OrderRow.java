@@ -0,0 +1,13 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/** Состояние заказа, достаточное для пересчёта пользовательской аналитики. */
+@Value
+public class OrderRow {
+    long orderId;
+    long userId;
+    BigDecimal total;
+}
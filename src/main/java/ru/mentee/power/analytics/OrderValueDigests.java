@@ -0,0 +1,162 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderValuePercentiles;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Money;
+
+/**
+ * Перцентили сумм заказов по месяцам и типам клиентов на скетчах {@link TDigest}.
+ *
+ * <p>На каждый месяц и на каждую пару (тип клиента, месяц) хранится один скетч, поэтому память
+ * зависит от числа месяцев, а не заказов. Перцентили за диапазон месяцев получаются слиянием
+ * месячных скетчей. Тип клиента берётся на момент заказа — по сумме его покупок с учётом этого
+ * заказа, как в {@link OrderAnalytics#customerTypeOf(long)}, — поэтому новые заказы не
+ * меняют тип уже учтённых. Отмены и изменения сумм не поддерживаются, их исправляет повторная
+ * {@link #load(DataSource, double)}. Заказы без суммы или {@code created_at} не учитываются ни в
+ * перцентилях, ни в накопленных суммах клиентов.
+ */
+@Slf4j
+public class OrderValueDigests {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    // Накопленную сумму клиента считает БД, клиенту не нужно держать итоги всех пользователей
+    private static final String LOAD_SQL =
+            "SELECT CAST(total * 100 AS BIGINT) AS total_cents, created_at, CAST(SUM(total) OVER"
+                    + " (PARTITION BY user_id ORDER BY created_at, id) * 100 AS BIGINT) AS"
+                    + " spent_to_date_cents FROM orders WHERE created_at IS NOT NULL AND total IS"
+                    + " NOT NULL";
+
+    private final double compression;
+    private final NavigableMap<YearMonth, TDigest> byMonth = new TreeMap<>();
+    private final Map<String, NavigableMap<YearMonth, TDigest>> byCustomerType = new TreeMap<>();
+
+    public OrderValueDigests(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("compression must be at least 10");
+        }
+        this.compression = compression;
+    }
+
+    /** Строит скетчи одним проходом серверного курсора по заказам. */
+    public static OrderValueDigests load(DataSource dataSource, double compression)
+            throws DataAccessException {
+        long start = System.nanoTime();
+        OrderValueDigests digests = new OrderValueDigests(compression);
+        long orders =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                () -> digests.loadFrom(dataSource));
+        log.info(
+                "Loaded {} orders into order value digests in {} ms",
+                orders,
+                (System.nanoTime() - start) / 1_000_000);
+        return digests;
+    }
+
+    /**
+     * Учитывает новый заказ.
+     *
+     * @param totalCents сумма заказа в копейках
+     * @param customerType тип клиента с учётом этого заказа
+     */
+    public synchronized void record(LocalDateTime createdAt, long totalCents, String customerType) {
+        YearMonth month = YearMonth.from(createdAt);
+        double value = totalCents;
+        byMonth.computeIfAbsent(month, key -> new TDigest(compression)).add(value);
+        byCustomerType
+                .computeIfAbsent(customerType, key -> new TreeMap<>())
+                .computeIfAbsent(month, key -> new TDigest(compression))
+                .add(value);
+    }
+
+    /** Перцентили по всем заказам месяцев {@code [from, to]}. */
+    public synchronized OrderValuePercentiles getPercentiles(YearMonth from, YearMonth to) {
+        return percentiles(range(byMonth, from, to));
+    }
+
+    /** Перцентили по заказам клиентов типа {@code customerType} в месяцах {@code [from, to]}. */
+    public synchronized OrderValuePercentiles getPercentiles(
+            String customerType, YearMonth from, YearMonth to) {
+        NavigableMap<YearMonth, TDigest> digests =
+                byCustomerType.getOrDefault(customerType, Collections.emptyNavigableMap());
+        return percentiles(range(digests, from, to));
+    }
+
+    /** Перцентили каждого месяца с заказами, по возрастанию месяца. */
+    public synchronized Map<YearMonth, OrderValuePercentiles> getMonthlyPercentiles() {
+        Map<YearMonth, OrderValuePercentiles> monthly = new LinkedHashMap<>();
+        byMonth.forEach((month, digest) -> monthly.put(month, percentiles(digest)));
+        return monthly;
+    }
+
+    private static Collection<TDigest> range(
+            NavigableMap<YearMonth, TDigest> digests, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return digests.subMap(from, true, to, true).values();
+    }
+
+    private OrderValuePercentiles percentiles(Collection<TDigest> digests) {
+        TDigest merged = new TDigest(compression);
+        digests.forEach(merged::merge);
+        return percentiles(merged);
+    }
+
+    private static OrderValuePercentiles percentiles(TDigest digest) {
+        if (digest.size() == 0) {
+            return new OrderValuePercentiles(0, null, null, null);
+        }
+        return new OrderValuePercentiles(
+                Math.round(digest.size()),
+                toMoney(digest.quantile(0.5)),
+                toMoney(digest.quantile(0.9)),
+                toMoney(digest.quantile(0.99)));
+    }
+
+    private static BigDecimal toMoney(double cents) {
+        return Money.toBigDecimal(Math.round(cents));
+    }
+
+    private long loadFrom(DataSource dataSource) {
+        long orders = 0;
+        try (Connection connection = UnitOfWork.getConnection(dataSource);
+                PreparedStatement statement = connection.prepareStatement(LOAD_SQL)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    record(
+                            resultSet.getTimestamp("created_at").toLocalDateTime(),
+                            resultSet.getLong("total_cents"),
+                            OrderAnalytics.customerTypeOf(
+                                    resultSet.getLong("spent_to_date_cents")));
+                    orders++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load order value digests", e);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,20 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import lombok.Value;
+
+/**
+ * Приближённый показатель продаж товара из {@link ProductSalesSketch}. Истинное значение лежит в
+ * {@code [estimate - maxError, estimate]}.
+ */
+@Value
+public class ProductSalesEstimate {
+    long productId;
+    String productName;
+    String category;
+    long estimate;
+    long maxError;
+
+    /** Товар точно входит в истинный топ, несмотря на погрешность. */
+    boolean guaranteed;
+}
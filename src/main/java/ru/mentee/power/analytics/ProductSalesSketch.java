@@ -0,0 +1,193 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Приближённые лидеры продаж на {@link SpaceSaving}, обновляемые по событиям {@link
+ * OrderItemSale}.
+ *
+ * <p>{@link #getTopSellingProducts(int)} ранжирует товары по числу позиций заказов, как {@code
+ * getTopSellingProducts} в {@link ru.mentee.power.repository.UserOrderRepository}; {@link
+ * #getCategoryLeaders()} — по проданному количеству внутри категории, как запрос №9 из {@code
+ * 02-select-analytics.sql}. Память не зависит ни от числа заказов, ни от размера каталога:
+ * {@code capacity} счётчиков на общий топ и на каждую из не более чем {@code maxCategories}
+ * категорий, а название и категория хранятся только для товаров, которые сейчас отслеживает хотя
+ * бы один счётчик. Сами категории тоже отбираются Space-Saving по проданному количеству: новая
+ * категория при заполненной таблице вытесняет самую лёгкую вместе с её счётчиками. Отмены и
+ * удаления позиций не учитываются — для сверки и сброса накопленной погрешности служат точный
+ * SQL-запрос и повторная {@link #load(DataSource, int)}.
+ */
+@Slf4j
+public class ProductSalesSketch {
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final int DEFAULT_MAX_CATEGORIES = 256;
+
+    private static final String LOAD_SQL =
+            "SELECT oi.product_id, p.name, p.category, oi.quantity FROM order_items oi JOIN"
+                    + " products p ON p.id = oi.product_id";
+
+    private final int capacity;
+    private final SpaceSaving<Long> orderItems;
+    private final SpaceSaving<String> categories;
+    private final Map<String, SpaceSaving<Long>> quantityByCategory = new TreeMap<>();
+    private final Map<Long, Product> products = new HashMap<>();
+
+    public ProductSalesSketch(int capacity) {
+        this(capacity, DEFAULT_MAX_CATEGORIES);
+    }
+
+    public ProductSalesSketch(int capacity, int maxCategories) {
+        this.capacity = capacity;
+        this.orderItems = new SpaceSaving<>(capacity);
+        this.categories = new SpaceSaving<>(maxCategories);
+    }
+
+    /** Строит скетч по всем позициям заказов одним проходом серверного курсора. */
+    public static ProductSalesSketch load(DataSource dataSource, int capacity)
+            throws DataAccessException {
+        return load(dataSource, capacity, DEFAULT_MAX_CATEGORIES);
+    }
+
+    public static ProductSalesSketch load(DataSource dataSource, int capacity, int maxCategories)
+            throws DataAccessException {
+        long start = System.nanoTime();
+        ProductSalesSketch sketch = new ProductSalesSketch(capacity, maxCategories);
+        long items =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                () -> sketch.loadFrom(dataSource));
+        log.info(
+                "Loaded {} order items into product sales sketch in {} ms",
+                items,
+                (System.nanoTime() - start) / 1_000_000);
+        return sketch;
+    }
+
+    public synchronized void record(OrderItemSale sale) {
+        long productId = sale.getProductId();
+        track(orderItems, productId, 1L);
+        String evictedCategory = categories.offer(sale.getCategory(), sale.getQuantity());
+        if (evictedCategory != null) {
+            SpaceSaving<Long> evicted = quantityByCategory.remove(evictedCategory);
+            for (HeavyHitter<Long> hitter : evicted.top(evicted.capacity())) {
+                release(hitter.getKey());
+            }
+        }
+        track(
+                quantityByCategory.computeIfAbsent(
+                        sale.getCategory(), category -> new SpaceSaving<>(capacity)),
+                productId,
+                sale.getQuantity());
+        Product product = products.get(productId);
+        product.name = sale.getProductName();
+        product.category = sale.getCategory();
+    }
+
+    /** Товары с наибольшим числом позиций заказов, по убыванию оценки. */
+    public synchronized List<ProductSalesEstimate> getTopSellingProducts(int limit) {
+        List<ProductSalesEstimate> top = new ArrayList<>();
+        for (HeavyHitter<Long> hitter : orderItems.top(limit)) {
+            top.add(estimate(hitter));
+        }
+        return top;
+    }
+
+    /** Товар с наибольшим проданным количеством в каждой категории, категории по алфавиту. */
+    public synchronized List<ProductSalesEstimate> getCategoryLeaders() {
+        List<ProductSalesEstimate> leaders = new ArrayList<>();
+        for (SpaceSaving<Long> category : quantityByCategory.values()) {
+            leaders.add(estimate(category.top(1).get(0)));
+        }
+        return leaders;
+    }
+
+    /** Наибольшая погрешность оценок {@link #getTopSellingProducts(int)}. */
+    public synchronized long errorBound() {
+        return orderItems.errorBound();
+    }
+
+    /** Всего учтённых позиций заказов. */
+    public synchronized long totalOrderItems() {
+        return orderItems.totalWeight();
+    }
+
+    /** Число товаров, для которых хранятся название и категория. */
+    synchronized int trackedProducts() {
+        return products.size();
+    }
+
+    /** Добавляет вес товару и ведёт учёт, сколько счётчиков ссылается на его описание. */
+    private void track(SpaceSaving<Long> counters, long productId, long weight) {
+        boolean added = !counters.contains(productId);
+        Long evicted = counters.offer(productId, weight);
+        if (evicted != null) {
+            release(evicted);
+        }
+        if (added) {
+            products.computeIfAbsent(productId, id -> new Product()).references++;
+        }
+    }
+
+    private void release(long productId) {
+        Product product = products.get(productId);
+        if (--product.references == 0) {
+            products.remove(productId);
+        }
+    }
+
+    private ProductSalesEstimate estimate(HeavyHitter<Long> hitter) {
+        Product product = products.get(hitter.getKey());
+        return new ProductSalesEstimate(
+                hitter.getKey(),
+                product.name,
+                product.category,
+                hitter.getCount(),
+                hitter.getError(),
+                hitter.isGuaranteed());
+    }
+
+    private long loadFrom(DataSource dataSource) {
+        long items = 0;
+        try (Connection connection = UnitOfWork.getConnection(dataSource);
+                PreparedStatement statement = connection.prepareStatement(LOAD_SQL)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    record(
+                            new OrderItemSale(
+                                    resultSet.getLong("product_id"),
+                                    resultSet.getString("name"),
+                                    resultSet.getString("category"),
+                                    resultSet.getInt("quantity")));
+                    items++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load product sales sketch", e);
+        }
+        return items;
+    }
+
+    /** Описание товара и число счётчиков, которые его сейчас отслеживают. */
+    private static final class Product {
+        private String name;
+        private String category;
+        private int references;
+    }
+}
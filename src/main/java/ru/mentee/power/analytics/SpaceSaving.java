@@ -0,0 +1,178 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Алгоритм Space-Saving (Metwally и др.) для поиска самых частых ключей потока с весами за
+ * {@code O(log capacity)} на событие и фиксированную память.
+ *
+ * <p>Отслеживается не более {@code capacity} ключей. Новый ключ при заполненной таблице занимает
+ * счётчик с минимальным значением {@code min} и наследует его: оценка становится {@code min +
+ * weight}, а погрешность — {@code min}. Поэтому для каждого отслеживаемого ключа истинный вес лежит
+ * в {@code [count - error, count]}, а любой ключ с весом больше {@code totalWeight / capacity}
+ * гарантированно отслеживается. Вычитание весов не поддерживается.
+ *
+ * <p>Счётчики хранятся в индексированной min-куче по {@code count}. Класс не потокобезопасен.
+ *
+ * @param <K> тип ключа
+ */
+public final class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<K, Integer> positions;
+    private int size;
+    private long totalWeight;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Добавляет вес ключу.
+     *
+     * @return ключ, вытесненный из таблицы ради нового, или {@code null}
+     */
+    public K offer(K key, long weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        totalWeight += weight;
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+            return null;
+        }
+        if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+            return null;
+        }
+        K evicted = key(0);
+        positions.remove(evicted);
+        long min = counts[0];
+        keys[0] = key;
+        counts[0] = min + weight;
+        errors[0] = min;
+        positions.put(key, 0);
+        siftDown(0);
+        return evicted;
+    }
+
+    /** Отслеживается ли ключ сейчас. */
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    /**
+     * Ключи с наибольшими оценками, по убыванию. Ключ помечается гарантированным, если даже его
+     * нижняя граница не меньше оценки первого не вошедшего ключа — тогда он точно входит в
+     * истинный топ.
+     */
+    public List<HeavyHitter<K>> top(int limit) {
+        List<Integer> order = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+        int count = Math.min(limit, size);
+        // за пределами таблицы любой ключ весит не больше минимального счётчика
+        long threshold =
+                count < size ? counts[order.get(count)] : size == capacity ? counts[0] : 0;
+        List<HeavyHitter<K>> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = order.get(i);
+            top.add(
+                    new HeavyHitter<>(
+                            key(slot),
+                            counts[slot],
+                            errors[slot],
+                            counts[slot] - errors[slot] >= threshold));
+        }
+        return top;
+    }
+
+    /** Суммарный вес всех событий. */
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Максимальная погрешность любой оценки — минимальный счётчик, не больше {@code totalWeight /
+     * capacity}. Неотслеживаемые ключи весят не больше этой величины.
+     */
+    public long errorBound() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int slot) {
+        return (K) keys[slot];
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put(key(a), a);
+        positions.put(key(b), b);
+    }
+}
@@ -0,0 +1,194 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Скетч t-digest (Dunning) для оценки квантилей потока чисел за ограниченную память.
+ *
+ * <p>Значения собираются в кластеры-центроиды; размер кластера ограничен функцией масштаба {@code
+ * k(q) = compression / 2π · asin(2q - 1)}, поэтому у хвостов кластеры мелкие и крайние квантили
+ * вроде p99 точнее медианы. Число центроидов не превышает порядка {@code compression}: при 100 это
+ * несколько КБ и ошибка p99 в доли процента ранга. Новые значения копятся в буфере и вливаются в
+ * центроиды слиянием отсортированных последовательностей.
+ *
+ * <p>Скетчи сливаются через {@link #merge(TDigest)}, так что квантили за период получаются из
+ * скетчей его частей. Класс не потокобезопасен.
+ */
+public final class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private static final int BUFFER_FACTOR = 5;
+
+    private final double compression;
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered;
+    private boolean unitWeights = true;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("compression must be at least 10");
+        }
+        this.compression = compression;
+        int bufferSize = (int) Math.ceil(compression) * BUFFER_FACTOR;
+        this.bufferMeans = new double[bufferSize];
+        this.bufferWeights = new double[bufferSize];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("value must be finite");
+        }
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        if (buffered == bufferMeans.length) {
+            flush();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        unitWeights &= weight == 1;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Добавляет в этот скетч все значения {@code other}; {@code other} не меняется. */
+    public void merge(TDigest other) {
+        other.flush();
+        for (int i = 0; i < other.means.length; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.totalWeight > 0) {
+            // центроиды хранят средние, точные крайние значения переносятся отдельно
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * Оценка квантиля: значение, меньше которого доля {@code q} потока. Между центрами соседних
+     * центроидов значение интерполируется линейно, у краёв — до точных минимума и максимума.
+     *
+     * @return оценка или {@link Double#NaN} для пустого скетча
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        flush();
+        int count = means.length;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double index = q * totalWeight;
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double center = weights[0] / 2;
+        for (int i = 0; i < count - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (index < center + gap) {
+                return means[i] + (means[i + 1] - means[i]) * (index - center) / gap;
+            }
+            center += gap;
+        }
+        double tail = weights[count - 1] / 2;
+        return means[count - 1] + (max - means[count - 1]) * Math.min(1, (index - center) / tail);
+    }
+
+    /** Суммарный вес добавленных значений. */
+    public double size() {
+        return totalWeight;
+    }
+
+    /** Число центроидов после слияния буфера. */
+    public int centroidCount() {
+        flush();
+        return means.length;
+    }
+
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        int[] order = sortBuffer();
+
+        double[] mergedMeans = new double[means.length + buffered];
+        double[] mergedWeights = new double[mergedMeans.length];
+        int size = 0;
+        double weightBefore = 0;
+        double currentMean = 0;
+        double currentWeight = 0;
+        int centroid = 0;
+        int next = 0;
+        while (centroid < means.length || next < buffered) {
+            double mean;
+            double weight;
+            if (next == buffered
+                    || centroid < means.length && means[centroid] <= bufferMeans[order[next]]) {
+                mean = means[centroid];
+                weight = weights[centroid++];
+            } else {
+                mean = bufferMeans[order[next]];
+                weight = bufferWeights[order[next++]];
+            }
+            if (currentWeight == 0) {
+                currentMean = mean;
+                currentWeight = weight;
+            } else if (scale((weightBefore + currentWeight + weight) / totalWeight)
+                            - scale(weightBefore / totalWeight)
+                    <= 1) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                mergedMeans[size] = currentMean;
+                mergedWeights[size++] = currentWeight;
+                weightBefore += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[size] = currentMean;
+        mergedWeights[size++] = currentWeight;
+        means = Arrays.copyOf(mergedMeans, size);
+        weights = Arrays.copyOf(mergedWeights, size);
+        buffered = 0;
+        unitWeights = true;
+    }
+
+    /** Порядок буфера по возрастанию; значения с единичным весом сортируются на месте. */
+    private int[] sortBuffer() {
+        int[] order = new int[buffered];
+        if (unitWeights) {
+            Arrays.sort(bufferMeans, 0, buffered);
+            Arrays.setAll(order, i -> i);
+            return order;
+        }
+        Integer[] boxed = new Integer[buffered];
+        Arrays.setAll(boxed, i -> i);
+        Arrays.sort(boxed, (a, b) -> Double.compare(bufferMeans[a], bufferMeans[b]));
+        Arrays.setAll(order, i -> boxed[i]);
+        return order;
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+}
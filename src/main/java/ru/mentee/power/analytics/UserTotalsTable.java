@@ -0,0 +1,129 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица {@code userId -> (количество заказов, сумма в копейках)} на примитивных массивах с
+ * открытой адресацией. Разбита на сегменты со своими мониторами, так что обновления разных
+ * пользователей не блокируют друг друга, а ключи и значения не упаковываются в объекты.
+ */
+final class UserTotalsTable {
+
+    private static final int SEGMENT_COUNT = 64;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /** Получает данные одного пользователя при обходе таблицы. */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long userId, int ordersCount, long totalCents);
+    }
+
+    UserTotalsTable(int expectedUsers) {
+        int perSegment = Math.max(8, expectedUsers / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /** Прибавляет дельты к итогам пользователя, создавая запись при необходимости. */
+    void add(long userId, int ordersDelta, long centsDelta) {
+        segmentFor(userId).add(userId, ordersDelta, centsDelta);
+    }
+
+    /** Вызывает {@code visitor} для каждой записи; сегменты обходятся по очереди. */
+    void forEach(Visitor visitor) {
+        for (Segment segment : segments) {
+            segment.forEach(visitor);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long userId) {
+        return segments[(int) (mix(userId) >>> 58)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Segment {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private int[] counts;
+        private long[] cents;
+        private int size;
+
+        Segment(int expected) {
+            allocate(Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1);
+        }
+
+        synchronized void add(long userId, int ordersDelta, long centsDelta) {
+            int slot = find(userId);
+            if (keys[slot] == EMPTY) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                    slot = find(userId);
+                }
+                keys[slot] = userId;
+                size++;
+            }
+            counts[slot] += ordersDelta;
+            cents[slot] += centsDelta;
+        }
+
+        synchronized void forEach(Visitor visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    visitor.visit(keys[i], counts[i], cents[i]);
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long userId) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(userId) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != userId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            long[] oldCents = cents;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                    cents[slot] = oldCents[i];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            counts = new int[capacity];
+            cents = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Время жизни результатов аналитических запросов в кэширующих декораторах. */
+@Getter
+@Builder
+public class AnalyticsCacheConfig {
+
+    @Builder.Default private final Duration userAnalyticsTtl = Duration.ofMinutes(1);
+
+    @Builder.Default private final Duration topCustomersTtl = Duration.ofMinutes(1);
+
+    /** Месячная статистика меняется медленнее всего. */
+    @Builder.Default private final Duration monthlyStatsTtl = Duration.ofMinutes(10);
+
+    @Builder.Default private final Duration usersWithOrderCountTtl = Duration.ofMinutes(1);
+
+    @Builder.Default private final Duration topSellingProductsTtl = Duration.ofMinutes(5);
+
+    /** Сколько после истечения TTL можно отдавать прежнее значение, пока идёт обновление. */
+    @Builder.Default private final Duration staleWhileRevalidate = Duration.ofMinutes(5);
+
+    /** Максимальное количество вариантов аргументов одного метода в кэше. */
+    @Builder.Default private final long maximumSize = 100;
+
+    public static AnalyticsCacheConfig defaults() {
+        return AnalyticsCacheConfig.builder().build();
+    }
+}
@@ -0,0 +1,349 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Ограниченный по размеру конкурентный кэш с TTL, политикой допуска TinyLFU и однократной
+ * загрузкой (single-flight) при промахе.
+ *
+ * <p>Ключи распределены по сегментам с собственными блокировками и LRU-порядком, глобальной
+ * блокировки нет. Когда сегмент заполнен, новый ключ вытесняет самый давний только если, по оценке
+ * {@link FrequencySketch}, к нему обращаются чаще; иначе значение просто не кэшируется. Так
+ * однократные сканирования не вымывают из кэша популярные записи.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения, {@code null} не кэшируется
+ */
+public class BoundedCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final List<Segment> segments;
+    private final FrequencySketch sketch;
+    private final Function<? super V, Duration> expiryPolicy;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final AtomicLong invalidationClock = new AtomicLong();
+
+    /**
+     * @param maximumSize максимальное количество записей
+     * @param expiryPolicy время жизни для конкретного значения (например, короче для
+     *     отрицательных результатов)
+     */
+    public BoundedCache(long maximumSize, Function<? super V, Duration> expiryPolicy) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.sketch = new FrequencySketch(maximumSize);
+        this.expiryPolicy = expiryPolicy;
+        int segmentCount = (int) Math.min(SEGMENT_COUNT, maximumSize);
+        long segmentCapacity = maximumSize / segmentCount;
+        long remainder = maximumSize % segmentCount;
+        this.segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            // остаток делится по одному между первыми сегментами, сумма ёмкостей равна maximumSize
+            long capacity = segmentCapacity + (i < remainder ? 1 : 0);
+            segments.add(new Segment((int) Math.min(Integer.MAX_VALUE, capacity)));
+        }
+    }
+
+    public BoundedCache(long maximumSize, Duration ttl) {
+        this(maximumSize, value -> ttl);
+    }
+
+    /** Возвращает значение из кэша или {@code null}; учитывается в статистике попаданий. */
+    public V getIfPresent(K key) {
+        sketch.increment(key);
+        V value = segmentFor(key).get(key, System.nanoTime());
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /** Возвращает значение из кэша или {@code null}, не влияя на статистику и частоты. */
+    public V peek(K key) {
+        return segmentFor(key).get(key, System.nanoTime());
+    }
+
+    /**
+     * Возвращает значение из кэша, а при промахе загружает его через {@code loader}. Конкурентные
+     * промахи по одному ключу выполняют одну загрузку, остальные потоки ждут её результат.
+     *
+     * <p>Загрузка идёт под {@link Deadline} вызвавшего её потока. Присоединившийся вызов ждёт её не
+     * дольше собственного дедлайна, а если загрузка оборвалась по чужому дедлайну, запускает свою.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        while (true) {
+            CompletableFuture<V> loading = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, loading);
+            if (existing == null) {
+                return load(key, loader, loading);
+            }
+            try {
+                return join(existing);
+            } catch (QueryTimeoutException e) {
+                if (Deadline.current().map(Deadline::isExpired).orElse(false)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> loading) {
+        try {
+            V value = loader.apply(key);
+            loads.increment();
+            if (value != null) {
+                put(key, value);
+                if (!inFlight.remove(key, loading)) {
+                    // ключ инвалидирован во время загрузки — значение могло устареть
+                    segmentFor(key).remove(key);
+                }
+            } else {
+                inFlight.remove(key, loading);
+            }
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            inFlight.remove(key, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void put(K key, V value) {
+        putIfNotInvalidatedSince(key, value, -1);
+    }
+
+    /**
+     * Отметка для {@link #putIfNotInvalidatedSince}; её нужно взять до чтения значения из
+     * источника.
+     */
+    public long invalidationStamp() {
+        return invalidationClock.get();
+    }
+
+    /**
+     * Кладёт значение, прочитанное из источника не в ходе {@link #get}, только если с момента
+     * {@code stamp} ключ не инвалидировался. Иначе значение могло быть прочитано до изменения, и
+     * запись вернула бы в кэш устаревшие данные. Инвалидации учитываются по сегментам: отметку
+     * можно взять, ещё не зная ключа, а лишний отказ грозит лишь ключам того же сегмента.
+     *
+     * @param stamp результат {@link #invalidationStamp()} или {@code -1}, чтобы не проверять
+     */
+    public void putIfNotInvalidatedSince(K key, V value, long stamp) {
+        Duration ttl = expiryPolicy.apply(value);
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        segmentFor(key).put(key, value, System.nanoTime() + ttl.toNanos(), stamp);
+    }
+
+    public void invalidate(K key) {
+        inFlight.remove(key);
+        segmentFor(key).invalidate(key);
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public CacheStats getStats() {
+        return CacheStats.builder()
+                .hitCount(hits.sum())
+                .missCount(misses.sum())
+                .loadCount(loads.sum())
+                .loadFailureCount(loadFailures.sum())
+                .evictionCount(evictions.sum())
+                .rejectedCount(rejections.sum())
+                .expiredCount(expirations.sum())
+                .size(size())
+                .build();
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments.get((hash & Integer.MAX_VALUE) % segments.size());
+    }
+
+    /** Ждёт чужую загрузку не дольше дедлайна текущего потока. */
+    private static <V> V join(CompletableFuture<V> shared) {
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return await(shared);
+        }
+        // orTimeout на зависимой стадии: общая загрузка и остальные ожидающие его не видят
+        long remaining = Math.max(0, deadline.remainingNanos());
+        CompletableFuture<V> waiting = shared.copy().orTimeout(remaining, TimeUnit.NANOSECONDS);
+        try {
+            return await(waiting);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new QueryTimeoutException("Deadline exceeded while waiting for cache load");
+            }
+            throw e;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Node<V>(V value, long expiresAtNanos) {}
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        /** Отметка последней инвалидации в сегменте; меняется под {@link #lock}. */
+        private long invalidatedAt;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        V get(K key, long now) {
+            lock.lock();
+            try {
+                Node<V> node = entries.get(key);
+                if (node == null) {
+                    return null;
+                }
+                if (node.expiresAtNanos() - now <= 0) {
+                    entries.remove(key);
+                    expirations.increment();
+                    return null;
+                }
+                return node.value();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(K key, V value, long expiresAtNanos, long stamp) {
+            lock.lock();
+            try {
+                if (stamp >= 0 && invalidatedAt > stamp) {
+                    return;
+                }
+                if (entries.containsKey(key) || entries.size() < capacity || admit(key)) {
+                    entries.put(key, new Node<>(value, expiresAtNanos));
+                } else {
+                    rejections.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Решает, вытеснить ли самую давнюю запись ради {@code candidate}. */
+        private boolean admit(K candidate) {
+            Iterator<Map.Entry<K, Node<V>>> eldest = entries.entrySet().iterator();
+            Map.Entry<K, Node<V>> victim = eldest.next();
+            boolean expired = victim.getValue().expiresAtNanos() - System.nanoTime() <= 0;
+            if (!expired && sketch.frequency(candidate) <= sketch.frequency(victim.getKey())) {
+                return false;
+            }
+            eldest.remove();
+            if (expired) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+            return true;
+        }
+
+        void remove(K key) {
+            lock.lock();
+            try {
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(K key) {
+            lock.lock();
+            try {
+                // под блокировкой сегмента: запись со старой отметкой не проскочит после удаления
+                invalidatedAt = invalidationClock.incrementAndGet();
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                invalidatedAt = invalidationClock.incrementAndGet();
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
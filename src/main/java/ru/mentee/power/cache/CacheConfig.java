@@ -0,0 +1,25 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Параметры кэширующих декораторов репозиториев. */
+@Getter
+@Builder
+public class CacheConfig {
+
+    /** Максимальное количество записей в одном кэше. */
+    @Builder.Default private final long maximumSize = 10_000;
+
+    /** Время жизни найденного значения. */
+    @Builder.Default private final Duration ttl = Duration.ofMinutes(5);
+
+    /** Время жизни отрицательного результата (ключ не найден в БД). */
+    @Builder.Default private final Duration negativeTtl = Duration.ofSeconds(30);
+
+    public static CacheConfig defaults() {
+        return CacheConfig.builder().build();
+    }
+}
@@ -0,0 +1,24 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+/** Снимок метрик {@link BoundedCache}. */
+@Value
+@Builder
+public class CacheStats {
+    long hitCount;
+    long missCount;
+    long loadCount;
+    long loadFailureCount;
+    long evictionCount;
+    long rejectedCount;
+    long expiredCount;
+    long size;
+
+    public double hitRatio() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,106 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch с 4-битными счётчиками для оценки частоты обращений к ключу (TinyLFU). Каждое
+ * 64-битное слово хранит 16 счётчиков; после {@code 10 * capacity} инкрементов все счётчики делятся
+ * пополам, чтобы старая популярность со временем забывалась.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+
+    FrequencySketch(long maximumSize) {
+        int capacity = Integer.highestOneBit((int) Math.min(Math.max(maximumSize, 16), 1 << 30));
+        if (capacity < maximumSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.table = new AtomicLongArray(capacity);
+        this.tableMask = capacity - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            int count = (int) ((table.get(index(slot)) >>> offset(slot)) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            added |= tryIncrement(index(slot), offset(slot));
+        }
+        if (added && additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean tryIncrement(int index, int offset) {
+        while (true) {
+            long word = table.get(index);
+            if (((word >>> offset) & 0xF) == MAX_COUNT) {
+                return false;
+            }
+            if (table.compareAndSet(index, word, word + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset() {
+        if (!resetting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < table.length(); i++) {
+                table.getAndUpdate(i, word -> (word >>> 1) & RESET_MASK);
+            }
+            additions.set(sampleSize / 2);
+        } finally {
+            resetting.set(false);
+        }
+    }
+
+    private long slot(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h + (h >>> 32);
+    }
+
+    private int index(long slot) {
+        return (int) slot & tableMask;
+    }
+
+    private static int offset(long slot) {
+        return (int) ((slot >>> 40) & 0xF) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        hash *= 0xac4c1b51;
+        return hash ^ (hash >>> 15);
+    }
+}
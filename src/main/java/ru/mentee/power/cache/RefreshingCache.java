@@ -0,0 +1,221 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Кэш дорогих результатов с обновлением в фоне (stale-while-revalidate).
+ *
+ * <p>Значение моложе {@code ttl} отдаётся как есть. Устаревшее, но моложе {@code ttl +
+ * staleWhileRevalidate}, тоже отдаётся сразу, а в виртуальном потоке запускается одно обновление
+ * — вызывающие не ждут БД, пока значение не слишком старое. Если значения нет или оно старше этого
+ * окна, загрузка выполняется синхронно, и конкурентные вызовы с тем же ключом ждут одну загрузку.
+ *
+ * <p>Загрузка идёт под {@link Deadline} вызвавшего её потока. Присоединившийся вызов ждёт её не
+ * дольше собственного дедлайна, а если загрузка оборвалась по чужому дедлайну, запускает свою:
+ * таймаут одного вызывающего не становится ошибкой остальных.
+ *
+ * <p>{@link #invalidateAll()} сбрасывает все значения; загрузки, начатые до сброса, свой результат
+ * в кэш не записывают. Рассчитан на небольшое число ключей (метод и его аргументы): сверх {@code
+ * maximumSize} новые ключи не кэшируются.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения, {@code null} не кэшируется
+ */
+@Slf4j
+public class RefreshingCache<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long maximumSize;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshNanos = new LongAdder();
+    private final AtomicLong maxRefreshNanos = new AtomicLong();
+
+    /**
+     * @param name имя для логов и потоков обновления
+     * @param ttl сколько значение считается свежим
+     * @param staleWhileRevalidate сколько после {@code ttl} значение ещё можно отдавать, пока оно
+     *     обновляется в фоне
+     */
+    public RefreshingCache(
+            String name, Duration ttl, Duration staleWhileRevalidate, long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.maximumSize = maximumSize;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.loadedAtNanos();
+            if (age < ttlNanos) {
+                hits.increment();
+                return entry.value();
+            }
+            if (age - ttlNanos < staleNanos) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+                return entry.value();
+            }
+        }
+        misses.increment();
+        while (true) {
+            CompletableFuture<V> loading = new CompletableFuture<>();
+            long startedGeneration = generation.get();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, loading);
+            if (existing == null) {
+                run(key, loader, loading, startedGeneration);
+                return await(loading);
+            }
+            try {
+                return join(existing);
+            } catch (QueryTimeoutException e) {
+                if (Deadline.current().map(Deadline::isExpired).orElse(false)) {
+                    throw e;
+                }
+                log.debug("Load of {} for key {} hit another caller's deadline", name, key);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        inFlight.clear();
+        entries.clear();
+    }
+
+    public RefreshingCacheStats getStats() {
+        return RefreshingCacheStats.builder()
+                .hitCount(hits.sum())
+                .staleHitCount(staleHits.sum())
+                .missCount(misses.sum())
+                .refreshCount(refreshes.sum())
+                .refreshFailureCount(refreshFailures.sum())
+                .totalRefreshNanos(refreshNanos.sum())
+                .maxRefreshNanos(maxRefreshNanos.get())
+                .size(entries.size())
+                .build();
+    }
+
+    private void refreshInBackground(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> refresh = new CompletableFuture<>();
+        long startedGeneration = generation.get();
+        if (inFlight.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        Thread.ofVirtual()
+                .name(name + "-refresh")
+                .start(
+                        () -> {
+                            run(key, loader, refresh, startedGeneration);
+                            if (refresh.isCompletedExceptionally()) {
+                                log.warn(
+                                        "Background refresh of {} for key {} failed, serving"
+                                                + " stale value",
+                                        name,
+                                        key,
+                                        refresh.exceptionNow());
+                            }
+                        });
+    }
+
+    private void run(
+            K key,
+            Function<? super K, ? extends V> loader,
+            CompletableFuture<V> loading,
+            long startedGeneration) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            long finished = System.nanoTime();
+            if (value != null) {
+                store(key, new Entry<>(value, finished), startedGeneration);
+            }
+            recordRefresh(finished - start);
+            loading.complete(value);
+        } catch (RuntimeException | Error e) {
+            refreshFailures.increment();
+            loading.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    private void store(K key, Entry<V> entry, long loadedGeneration) {
+        if (generation.get() != loadedGeneration
+                || entries.size() >= maximumSize && !entries.containsKey(key)) {
+            return;
+        }
+        entries.put(key, entry);
+        if (generation.get() != loadedGeneration) {
+            // сброс произошёл во время записи — значение могло устареть
+            entries.remove(key, entry);
+        }
+    }
+
+    private void recordRefresh(long nanos) {
+        refreshes.increment();
+        refreshNanos.add(nanos);
+        maxRefreshNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Ждёт чужую загрузку не дольше дедлайна текущего потока. */
+    private V join(CompletableFuture<V> shared) {
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return await(shared);
+        }
+        // orTimeout на зависимой стадии: общая загрузка и остальные ожидающие его не видят
+        long remaining = Math.max(0, deadline.remainingNanos());
+        CompletableFuture<V> waiting = shared.copy().orTimeout(remaining, TimeUnit.NANOSECONDS);
+        try {
+            return await(waiting);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new QueryTimeoutException(
+                        "Deadline exceeded while waiting for " + name + " load");
+            }
+            throw e;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAtNanos) {}
+}
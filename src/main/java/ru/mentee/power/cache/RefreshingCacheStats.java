@@ -0,0 +1,36 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/** Снимок метрик {@link RefreshingCache}. */
+@Value
+@Builder
+public class RefreshingCacheStats {
+    long hitCount;
+    long staleHitCount;
+    long missCount;
+    long refreshCount;
+    long refreshFailureCount;
+    long totalRefreshNanos;
+    long maxRefreshNanos;
+    long size;
+
+    /** Доля вызовов, обслуженных из кэша, включая устаревшие значения. */
+    public double hitRatio() {
+        long requests = hitCount + staleHitCount + missCount;
+        return requests == 0 ? 1.0 : (double) (hitCount + staleHitCount) / requests;
+    }
+
+    public Duration averageRefreshTime() {
+        return refreshCount == 0
+                ? Duration.ZERO
+                : Duration.ofNanos(totalRefreshNanos / refreshCount);
+    }
+
+    public Duration maxRefreshTime() {
+        return Duration.ofNanos(maxRefreshNanos);
+    }
+}
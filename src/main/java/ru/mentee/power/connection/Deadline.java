@@ -0,0 +1,84 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.time.Duration;
+import java.util.Optional;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Дедлайн для обращений к БД в текущем потоке.
+ *
+ * <pre>{@code
+ * List<MonthlyOrderStats> stats =
+ *         Deadline.within(Duration.ofSeconds(2), orderRepository::getMonthlyOrderStats);
+ * }</pre>
+ *
+ * <p>Пока выполняется {@link #run}, каждое соединение из {@link UnitOfWork#getConnection} ждёт пул
+ * не дольше оставшегося времени, а каждый запрос получает его как {@code queryTimeout} и
+ * отменяется через {@link java.sql.Statement#cancel()}, когда дедлайн истекает; тогда бросается
+ * {@link QueryTimeoutException}. Запрос прерванного потока не начинается. Вложенный дедлайн не
+ * может продлить внешний — действует более ранний.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /** Выполняет {@code work} с дедлайном через {@code timeout} от текущего момента. */
+    public static <T> T within(Duration timeout, UnitOfWork.Work<T> work)
+            throws DataAccessException {
+        return after(timeout).run(work);
+    }
+
+    /** Дедлайн, действующий в текущем потоке. */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public <T> T run(UnitOfWork.Work<T> work) throws DataAccessException {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(previous != null && previous.isBefore(this) ? previous : this);
+        try {
+            return work.execute();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /** Бросает {@link QueryTimeoutException}, если дедлайн уже истёк. */
+    public void check(String operation) {
+        if (isExpired()) {
+            throw new QueryTimeoutException("Deadline exceeded before " + operation);
+        }
+    }
+
+    private boolean isBefore(Deadline other) {
+        return deadlineNanos - other.deadlineNanos < 0;
+    }
+}
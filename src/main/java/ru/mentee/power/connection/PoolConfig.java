@@ -0,0 +1,46 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Параметры пула соединений {@link PooledDataSource}. Значения по умолчанию подходят для
+ * небольшого сервиса; размер пула стоит подбирать по статистике {@link PoolStats}.
+ */
+@Getter
+@Builder
+public class PoolConfig {
+
+    /** Максимальное количество физических соединений. */
+    @Builder.Default private final int maximumPoolSize = 10;
+
+    /** Сколько простаивающих соединений пул держит открытыми после вытеснения. */
+    @Builder.Default private final int minimumIdle = 2;
+
+    /** Сколько поток ждёт свободное соединение, прежде чем получит ошибку. */
+    @Builder.Default private final Duration connectionTimeout = Duration.ofSeconds(30);
+
+    /** Через сколько простоя соединение закрывается фоновой задачей. */
+    @Builder.Default private final Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Максимальное время жизни физического соединения. */
+    @Builder.Default private final Duration maxLifetime = Duration.ofMinutes(30);
+
+    /** Таймаут проверки {@link java.sql.Connection#isValid(int)} при выдаче соединения. */
+    @Builder.Default private final Duration validationTimeout = Duration.ofSeconds(5);
+
+    /** Соединение, вернувшееся в пул недавнее этого интервала, выдаётся без проверки. */
+    @Builder.Default private final Duration validationBypassWindow = Duration.ofMillis(500);
+
+    /** Период фоновой задачи вытеснения простаивающих и устаревших соединений. */
+    @Builder.Default private final Duration housekeepingPeriod = Duration.ofSeconds(30);
+
+    /** Сколько подготовленных выражений кэшируется на одно соединение; 0 отключает кэш. */
+    @Builder.Default private final int statementCacheSize = 64;
+
+    public static PoolConfig defaults() {
+        return PoolConfig.builder().build();
+    }
+}
@@ -0,0 +1,24 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/** Снимок состояния пула соединений на момент вызова {@link PooledDataSource#getStats()}. */
+@Value
+@Builder
+public class PoolStats {
+    int totalConnections;
+    int activeConnections;
+    int idleConnections;
+    int threadsAwaitingConnection;
+    long borrowCount;
+    long timeoutCount;
+    long createdCount;
+    long closedCount;
+    Duration averageWait;
+    Duration maxWait;
+    long statementCacheHits;
+    long statementCacheMisses;
+}
@@ -0,0 +1,314 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Физическое соединение, которым владеет {@link PooledDataSource}. На каждую выдачу создаётся
+ * отдельный прокси-дескриптор: его {@code close()} возвращает соединение в пул, а повторное
+ * использование закрытого дескриптора не задевает следующего владельца.
+ *
+ * <p>Вызовы {@code prepareStatement(String)} обслуживаются {@link StatementCache}, который живёт
+ * столько же, сколько физическое соединение.
+ *
+ * <p>Выражения и их результаты тоже выдаются через прокси, поэтому ошибка из {@code
+ * executeQuery} или {@code next()} учитывается так же, как ошибка метода соединения: SQLState
+ * класса 08 сразу помечает соединение сломанным, любая другая ошибка — требующим проверки при
+ * возврате в пул.
+ */
+@Slf4j
+final class PooledConnection {
+
+    private static final String CONNECTION_ERROR_SQL_STATE_CLASS = "08";
+
+    private final PooledDataSource pool;
+    private final Connection physical;
+    private final long createdAtNanos;
+    private final int defaultIsolation;
+    private final StatementCache statementCache;
+
+    private volatile long lastAccessNanos;
+    private volatile boolean broken;
+    private volatile boolean failed;
+
+    PooledConnection(
+            PooledDataSource pool, Connection physical, StatementCache statementCache)
+            throws SQLException {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.createdAtNanos = System.nanoTime();
+        this.lastAccessNanos = createdAtNanos;
+        this.defaultIsolation = physical.getTransactionIsolation();
+    }
+
+    Connection physical() {
+        return physical;
+    }
+
+    long createdAtNanos() {
+        return createdAtNanos;
+    }
+
+    long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    /** Не возвращать соединение в пул: пул закроет его при возврате. */
+    void markBroken() {
+        broken = true;
+    }
+
+    /** Была ли ошибка SQL с прошлой выдачи; флаг сбрасывается. */
+    boolean takeFailed() {
+        boolean result = failed;
+        failed = false;
+        return result;
+    }
+
+    Connection newHandle() {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        new Handle());
+    }
+
+    /** Возвращает соединение в состояние, в котором его ожидает следующий владелец. */
+    void reset() throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        if (physical.getTransactionIsolation() != defaultIsolation) {
+            physical.setTransactionIsolation(defaultIsolation);
+        }
+        physical.clearWarnings();
+    }
+
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close physical connection", e);
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+
+        // Закрытое выражение удаляет себя само, поэтому набор не растёт в длинной единице работы
+        private final Set<Statement> openStatements =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "isWrapperFor":
+                    return args[0] == PooledConnection.class
+                            || ((Class<?>) args[0]).isInstance(physical)
+                            || physical.isWrapperFor((Class<?>) args[0]);
+                case "unwrap":
+                    if (args[0] == PooledConnection.class) {
+                        return PooledConnection.this;
+                    }
+                    return ((Class<?>) args[0]).isInstance(physical)
+                            ? physical
+                            : physical.unwrap((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is already returned to the pool");
+            }
+            Object result =
+                    isCacheablePrepare(method, args)
+                            ? prepareCached((String) args[0], (Connection) proxy)
+                            : delegate(method, args);
+            if (result instanceof Statement statement) {
+                Statement guarded =
+                        guard(statement, statementType(statement), proxy, openStatements);
+                openStatements.add(guarded);
+                return guarded;
+            }
+            return result;
+        }
+
+        private boolean isCacheablePrepare(Method method, Object[] args) {
+            return statementCache != null
+                    && "prepareStatement".equals(method.getName())
+                    && args.length == 1;
+        }
+
+        private PreparedStatement prepareCached(String sql, Connection owner)
+                throws SQLException {
+            try {
+                return statementCache.prepare(sql, owner);
+            } catch (SQLException e) {
+                recordFailure(e);
+                throw e;
+            }
+        }
+
+        private Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException) {
+                    recordFailure(sqlException);
+                }
+                throw cause;
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            List<Statement> leaked = new ArrayList<>(openStatements);
+            openStatements.clear();
+            for (Statement statement : leaked) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    log.debug("Failed to close leaked statement", e);
+                }
+            }
+            openStatements.clear();
+            pool.release(PooledConnection.this);
+        }
+    }
+
+    private void recordFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (sqlState != null && sqlState.startsWith(CONNECTION_ERROR_SQL_STATE_CLASS)) {
+            broken = true;
+        } else {
+            failed = true;
+        }
+    }
+
+    private static Class<?> statementType(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return CallableStatement.class;
+        }
+        return statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+    }
+
+    private Statement guard(
+            Statement target, Class<?> type, Object connection, Set<Statement> openStatements) {
+        return (Statement) newGuard(target, type, connection, null, openStatements);
+    }
+
+    private Object newGuard(
+            Object target,
+            Class<?> type,
+            Object connection,
+            Object statement,
+            Set<Statement> openStatements) {
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] {type},
+                new Guard(target, connection, statement, openStatements));
+    }
+
+    /**
+     * Прокси выражения или результата: учитывает ошибки SQL и возвращает из {@code
+     * getConnection()}/{@code getStatement()} выданные прокси, а не физические объекты.
+     */
+    private final class Guard implements InvocationHandler {
+
+        private final Object target;
+        private final Object connection;
+        private final Object statement;
+        private final Set<Statement> openStatements;
+
+        Guard(Object target, Object connection, Object statement, Set<Statement> openStatements) {
+            this.target = target;
+            this.connection = connection;
+            this.statement = statement;
+            this.openStatements = openStatements;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    if (statement == null && args == null) {
+                        return connection;
+                    }
+                    break;
+                case "getStatement":
+                    if (statement != null && args == null) {
+                        return statement;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException) {
+                    recordFailure(sqlException);
+                }
+                throw cause;
+            }
+            if (openStatements != null && "close".equals(method.getName())) {
+                openStatements.remove(proxy);
+            }
+            if (statement == null && result instanceof ResultSet resultSet) {
+                return newGuard(resultSet, ResultSet.class, connection, proxy, null);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.config.DatabaseConfig;
+
+/**
+ * Пул JDBC-соединений, построенный по {@link DatabaseConfig}.
+ *
+ * <p>Количество одновременно выданных соединений ограничено справедливым семафором: потоки
+ * получают соединения в порядке очереди и ждут не дольше {@link PoolConfig#getConnectionTimeout()}
+ * (или остатка {@link Deadline}, если он меньше).
+ * Простаивающие соединения лежат в неблокирующем деке и выдаются в порядке LIFO, чтобы чаще
+ * использовались «тёплые» соединения, а лишние спокойно доживали до вытеснения по простою.
+ *
+ * <p>Соединение, на котором с прошлой выдачи была ошибка SQL, при возврате проверяется {@code
+ * isValid}; без этого окно {@link PoolConfig#getValidationBypassWindow()} выдало бы следующему
+ * потоку уже мёртвое соединение.
+ *
+ * <p>Пул следует создавать один раз на приложение и закрывать при остановке.
+ */
+@Slf4j
+public final class PooledDataSource implements DataSource, AutoCloseable {
+
+    private static final ScheduledExecutorService HOUSEKEEPER =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private final DatabaseConfig databaseConfig;
+    private final PoolConfig poolConfig;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections =
+            new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final ScheduledFuture<?> housekeeping;
+
+    private volatile boolean closed;
+    private volatile int loginTimeout;
+    private PrintWriter logWriter;
+
+    public PooledDataSource(DatabaseConfig databaseConfig) {
+        this(databaseConfig, PoolConfig.defaults());
+    }
+
+    public PooledDataSource(DatabaseConfig databaseConfig, PoolConfig poolConfig) {
+        if (poolConfig.getMaximumPoolSize() <= 0) {
+            throw new IllegalArgumentException("maximumPoolSize must be positive");
+        }
+        this.databaseConfig = databaseConfig;
+        this.poolConfig = poolConfig;
+        this.permits = new Semaphore(poolConfig.getMaximumPoolSize(), true);
+        long period = poolConfig.getHousekeepingPeriod().toMillis();
+        this.housekeeping =
+                HOUSEKEEPER.scheduleWithFixedDelay(
+                        this::housekeep, period, period, TimeUnit.MILLISECONDS);
+        log.info(
+                "Initialized connection pool for {} (maximumPoolSize={})",
+                databaseConfig.getUrl(),
+                poolConfig.getMaximumPoolSize());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        acquirePermit();
+        return borrow();
+    }
+
+    /**
+     * Выдаёт соединение, только если в пуле есть свободное место прямо сейчас, и не ждёт. Для тех,
+     * кто уже держит соединение этого пула и берёт дополнительные: ожидание в такой ситуации
+     * взаимно блокирует вызывающих, как только каждый займёт по соединению.
+     */
+    public Optional<Connection> tryGetConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        if (!permits.tryAcquire()) {
+            return Optional.empty();
+        }
+        borrowCount.increment();
+        return Optional.of(borrow());
+    }
+
+    /** Выдаёт соединение под уже полученное разрешение семафора. */
+    private Connection borrow() throws SQLException {
+        try {
+            PooledConnection entry;
+            while ((entry = idleConnections.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return lend(entry);
+                }
+                retire(entry);
+            }
+            return lend(createConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException(
+                "Pooled connections always use credentials from DatabaseConfig");
+    }
+
+    public PoolStats getStats() {
+        int idle = idleConnections.size();
+        int total = totalConnections.get();
+        long borrows = borrowCount.sum();
+        return PoolStats.builder()
+                .totalConnections(total)
+                .activeConnections(Math.max(0, total - idle))
+                .idleConnections(idle)
+                .threadsAwaitingConnection(permits.getQueueLength())
+                .borrowCount(borrows)
+                .timeoutCount(timeoutCount.sum())
+                .createdCount(createdCount.sum())
+                .closedCount(closedCount.sum())
+                .averageWait(Duration.ofNanos(borrows == 0 ? 0 : totalWaitNanos.sum() / borrows))
+                .maxWait(Duration.ofNanos(maxWaitNanos.get()))
+                .statementCacheHits(statementCacheHits.sum())
+                .statementCacheMisses(statementCacheMisses.sum())
+                .build();
+    }
+
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeping.cancel(false);
+        PooledConnection entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            retire(entry);
+        }
+        log.info("Closed connection pool for {}", databaseConfig.getUrl());
+    }
+
+    void release(PooledConnection entry) {
+        try {
+            entry.reset();
+            if (closed
+                    || entry.isBroken()
+                    || isExpired(entry, System.nanoTime())
+                    || totalConnections.get() > poolConfig.getMaximumPoolSize()
+                    || entry.takeFailed() && !isValid(entry)) {
+                retire(entry);
+            } else {
+                entry.touch();
+                idleConnections.offerFirst(entry);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to reset connection state, closing it", e);
+            retire(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        long start = System.nanoTime();
+        long configuredNanos = poolConfig.getConnectionTimeout().toNanos();
+        long timeoutNanos =
+                Deadline.current()
+                        .map(d -> Math.min(configuredNanos, Math.max(0, d.remainingNanos())))
+                        .orElse(configuredNanos);
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after "
+                                + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+                                + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        borrowCount.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private Connection lend(PooledConnection entry) {
+        entry.touch();
+        return entry.newHandle();
+    }
+
+    private boolean isUsable(PooledConnection entry) {
+        long now = System.nanoTime();
+        if (entry.isBroken() || isExpired(entry, now)) {
+            return false;
+        }
+        if (now - entry.lastAccessNanos() < poolConfig.getValidationBypassWindow().toNanos()) {
+            return true;
+        }
+        return isValid(entry);
+    }
+
+    private boolean isValid(PooledConnection entry) {
+        try {
+            return entry.physical()
+                    .isValid((int) Math.max(1, poolConfig.getValidationTimeout().toSeconds()));
+        } catch (SQLException e) {
+            log.debug("Connection validation failed", e);
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection entry, long now) {
+        return now - entry.createdAtNanos() >= poolConfig.getMaxLifetime().toNanos();
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        totalConnections.incrementAndGet();
+        return openReserved();
+    }
+
+    /** Открывает соединение под уже учтённое в {@code totalConnections} место. */
+    private PooledConnection openReserved() throws SQLException {
+        Connection physical;
+        try {
+            physical =
+                    DriverManager.getConnection(
+                            databaseConfig.getUrl(),
+                            databaseConfig.getUsername(),
+                            databaseConfig.getPassword());
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        createdCount.increment();
+        log.debug("Opened new physical connection, total={}", totalConnections.get());
+        int cacheSize = poolConfig.getStatementCacheSize();
+        StatementCache statementCache =
+                cacheSize > 0
+                        ? new StatementCache(
+                                physical, cacheSize, statementCacheHits, statementCacheMisses)
+                        : null;
+        try {
+            return new PooledConnection(this, physical, statementCache);
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            physical.close();
+            throw e;
+        }
+    }
+
+    private void retire(PooledConnection entry) {
+        entry.closePhysical();
+        totalConnections.decrementAndGet();
+        closedCount.increment();
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+            long idleTimeout = poolConfig.getIdleTimeout().toNanos();
+            for (PooledConnection entry : idleConnections) {
+                boolean evictable =
+                        isExpired(entry, now)
+                                || (now - entry.lastAccessNanos() > idleTimeout
+                                        && totalConnections.get() > poolConfig.getMinimumIdle());
+                if (evictable && idleConnections.remove(entry)) {
+                    retire(entry);
+                }
+            }
+            fillMinimumIdle();
+        } catch (RuntimeException e) {
+            log.warn("Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * Досоздаёт соединения до {@code min(minimumIdle, maximumPoolSize)}. Место резервируется
+     * сравнением с обменом до открытия соединения, поэтому параллельные выдачи не выведут пул
+     * за максимум.
+     */
+    private void fillMinimumIdle() {
+        int target = Math.min(poolConfig.getMinimumIdle(), poolConfig.getMaximumPoolSize());
+        while (!closed) {
+            int total = totalConnections.get();
+            if (total >= target) {
+                return;
+            }
+            if (!totalConnections.compareAndSet(total, total + 1)) {
+                continue;
+            }
+            try {
+                idleConnections.offerLast(openReserved());
+            } catch (SQLException e) {
+                log.warn("Failed to open connection to keep minimum idle", e);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("java.util.logging is not used");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("PooledDataSource is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
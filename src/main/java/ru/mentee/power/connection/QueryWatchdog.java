@@ -0,0 +1,212 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Применяет {@link Deadline} к запросам соединения: перед каждым {@code execute*} выставляет
+ * {@code queryTimeout} по оставшемуся времени и планирует на момент дедлайна одну отмену запроса.
+ * Серверный таймаут задаётся в целых секундах, поэтому точную границу обеспечивает именно отмена.
+ * Сама отмена блокирующая (драйвер открывает к серверу новое соединение), поэтому таймер лишь
+ * запускает её в отдельном виртуальном потоке и не задерживает дедлайны других запросов.
+ *
+ * <p>Прерывание вызывающего потока проверяется на его же стороне: запрос не начинается, если флаг
+ * уже выставлен, а ошибка запроса при выставленном флаге считается прерыванием. Виртуальный поток,
+ * прерванный на чтении сокета, закрывает сокет, и драйвер сразу возвращает ошибку.
+ *
+ * <p>Отмена в PostgreSQL асинхронна: драйвер отправляет CancelRequest отдельным соединением, и
+ * сервер прерывает то, что backend выполняет в момент его получения. Запрос может успеть
+ * завершиться раньше, и тогда запоздавшая отмена прервёт следующий запрос на том же соединении.
+ * Поэтому соединение {@link PooledDataSource}, по которому ушла отмена или чей запрос прервали,
+ * помечается сломанным и при возврате закрывается, а не выдаётся следующему владельцу. Соединения
+ * других источников после отмены лучше закрыть, а не переиспользовать.
+ */
+@Slf4j
+final class QueryWatchdog {
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private QueryWatchdog() {}
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "query-watchdog");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        // Отменённые задачи с далёким дедлайном не должны копиться в очереди таймера
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    static Connection guard(Connection connection, Deadline deadline) {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "equals":
+                                    return proxy == args[0];
+                                case "hashCode":
+                                    return System.identityHashCode(proxy);
+                                default:
+                                    break;
+                            }
+                            Object result = invoke(connection, method, args);
+                            return result instanceof Statement statement
+                                    ? guard(statement, connection, deadline)
+                                    : result;
+                        });
+    }
+
+    private static Statement guard(
+            Statement statement, Connection connection, Deadline deadline) {
+        Class<?> type =
+                statement instanceof CallableStatement
+                        ? CallableStatement.class
+                        : statement instanceof PreparedStatement
+                                ? PreparedStatement.class
+                                : Statement.class;
+        return (Statement)
+                Proxy.newProxyInstance(
+                        Statement.class.getClassLoader(),
+                        new Class<?>[] {type},
+                        (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "equals":
+                                    return proxy == args[0];
+                                case "hashCode":
+                                    return System.identityHashCode(proxy);
+                                default:
+                                    break;
+                            }
+                            if (!method.getName().startsWith("execute")) {
+                                return invoke(statement, method, args);
+                            }
+                            return execute(
+                                    statement,
+                                    connection,
+                                    deadline,
+                                    () -> invoke(statement, method, args));
+                        });
+    }
+
+    private static Object execute(
+            Statement statement, Connection connection, Deadline deadline, Call call)
+            throws Throwable {
+        deadline.check("query execution");
+        if (Thread.currentThread().isInterrupted()) {
+            throw new DataAccessException("Query not started: calling thread was interrupted");
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos());
+        statement.setQueryTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
+        Watch watch = new Watch(statement, deadline);
+        watch.start();
+        boolean interrupted = false;
+        try {
+            return call.invoke();
+        } catch (SQLException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                interrupted = true;
+                throw new DataAccessException("Query cancelled: calling thread was interrupted", e);
+            }
+            if (watch.cancelled || e instanceof SQLTimeoutException || deadline.isExpired()) {
+                throw new QueryTimeoutException("Query cancelled: deadline exceeded", e);
+            }
+            throw e;
+        } finally {
+            watch.stop();
+            if (watch.cancelled || interrupted) {
+                retire(connection);
+            }
+        }
+    }
+
+    private static void retire(Connection connection) {
+        try {
+            if (connection.isWrapperFor(PooledConnection.class)) {
+                connection.unwrap(PooledConnection.class).markBroken();
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to mark cancelled connection for retirement", e);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object invoke() throws Throwable;
+    }
+
+    private static final class Watch implements Runnable {
+
+        private final Statement statement;
+        private final Deadline deadline;
+        private ScheduledFuture<?> task;
+        private boolean stopped;
+        private volatile boolean cancelled;
+
+        Watch(Statement statement, Deadline deadline) {
+            this.statement = statement;
+            this.deadline = deadline;
+        }
+
+        void start() {
+            task =
+                    TIMER.schedule(
+                            this, Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (stopped) {
+                return;
+            }
+            cancelled = true;
+            log.debug("Cancelling query: deadline exceeded");
+            Thread.ofVirtual().name("query-cancel").start(this::cancel);
+        }
+
+        private void cancel() {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.warn("Failed to cancel query", e);
+            }
+        }
+
+        /**
+         * После возврата новая отмена не запускается; уже запущенная может дойти до сервера позже,
+         * это учитывает {@link QueryWatchdog#retire(Connection)}.
+         */
+        synchronized void stop() {
+            stopped = true;
+            task.cancel(false);
+        }
+    }
+}
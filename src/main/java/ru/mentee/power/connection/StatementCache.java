@@ -0,0 +1,181 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * LRU-кэш подготовленных выражений одного физического соединения, ключ — текст SQL.
+ *
+ * <p>Вызывающий код получает прокси, чей {@code close()} не закрывает выражение, а сбрасывает
+ * параметры и возвращает его в кэш. Так драйвер не разбирает SQL заново, а PostgreSQL после
+ * нескольких выполнений переходит на серверный prepared statement с общим планом. Как и само
+ * соединение, кэш рассчитан на использование одним потоком за раз.
+ */
+@Slf4j
+final class StatementCache {
+
+    private final Connection physical;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() <= maxSize) {
+                            return false;
+                        }
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                };
+    }
+
+    /**
+     * Выдаёт выражение для {@code sql}. Если закэшированное выражение уже занято (вложенное
+     * использование того же SQL), возвращается обычное некэшируемое выражение.
+     */
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            return cached.lend(owner);
+        }
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (cached != null) {
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        statements.put(sql, cached);
+        return cached.lend(owner);
+    }
+
+    void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.evict();
+        }
+    }
+
+    private static final class CachedStatement {
+
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement lend(Connection owner) {
+            inUse = true;
+            return (PreparedStatement)
+                    Proxy.newProxyInstance(
+                            PreparedStatement.class.getClassLoader(),
+                            new Class<?>[] {PreparedStatement.class},
+                            new Handle(owner));
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void giveBack(ResultSet lastResultSet) {
+            inUse = false;
+            try {
+                if (lastResultSet != null) {
+                    lastResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearWarnings();
+                statement.setQueryTimeout(0);
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+            } catch (SQLException e) {
+                log.debug("Failed to reset cached statement, evicting it", e);
+                evicted = true;
+            }
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close cached statement", e);
+            }
+        }
+
+        private final class Handle implements InvocationHandler {
+
+            private final Connection owner;
+            private ResultSet lastResultSet;
+            private boolean closed;
+
+            Handle(Connection owner) {
+                this.owner = owner;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            giveBack(lastResultSet);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "getConnection":
+                        return owner;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + statement + "]";
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("Statement is closed");
+                }
+                try {
+                    Object result = method.invoke(statement, args);
+                    if (result instanceof ResultSet resultSet) {
+                        lastResultSet = resultSet;
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
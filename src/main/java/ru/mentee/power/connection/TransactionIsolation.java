@@ -0,0 +1,24 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.sql.Connection;
+
+/** Уровень изоляции транзакции {@link UnitOfWork}. */
+public enum TransactionIsolation {
+    /** Уровень по умолчанию для соединения (в PostgreSQL — READ COMMITTED). */
+    DEFAULT(-1),
+    READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+    /** Все запросы транзакции видят один снимок данных. */
+    REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+    SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+    private final int jdbcLevel;
+
+    TransactionIsolation(int jdbcLevel) {
+        this.jdbcLevel = jdbcLevel;
+    }
+
+    int getJdbcLevel() {
+        return jdbcLevel;
+    }
+}
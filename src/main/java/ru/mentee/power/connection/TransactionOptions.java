@@ -0,0 +1,27 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/** Параметры транзакции, которую открывает {@link UnitOfWork}. */
+@Getter
+@Builder
+public class TransactionOptions {
+
+    @Builder.Default private final boolean readOnly = false;
+
+    @Builder.Default private final TransactionIsolation isolation = TransactionIsolation.DEFAULT;
+
+    public static TransactionOptions defaults() {
+        return TransactionOptions.builder().build();
+    }
+
+    /** Транзакция только для чтения, все запросы которой видят один снимок данных. */
+    public static TransactionOptions readOnlySnapshot() {
+        return TransactionOptions.builder()
+                .readOnly(true)
+                .isolation(TransactionIsolation.REPEATABLE_READ)
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Шаблон единицы работы: на время {@link #execute} к текущему потоку привязывается одно
+ * соединение с открытой транзакцией, и все репозитории, берущие соединение через {@link
+ * #getConnection(DataSource)}, работают в ней.
+ *
+ * <pre>{@code
+ * UnitOfWork unitOfWork = new UnitOfWork(dataSource);
+ * CustomerPage page = unitOfWork.execute(TransactionOptions.readOnlySnapshot(), () -> {
+ *     Optional<User> user = userRepository.findByEmail(email);
+ *     List<OrderAnalytics> top = orderRepository.getTopCustomers(10);
+ *     return new CustomerPage(user, top);
+ * });
+ * }</pre>
+ *
+ * <p>Вложенный вызов {@link #execute} для того же {@link DataSource} присоединяется к внешней
+ * транзакции. Транзакция откатывается, если работа завершилась исключением.
+ */
+@Slf4j
+public class UnitOfWork {
+
+    private static final ThreadLocal<Map<DataSource, Connection>> BOUND_CONNECTIONS =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final DataSource dataSource;
+
+    public UnitOfWork(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /** Работа, выполняемая внутри единицы работы. */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws DataAccessException;
+    }
+
+    /**
+     * Возвращает соединение текущей единицы работы для {@code dataSource} либо новое соединение из
+     * него. Соединение единицы работы выдаётся в обёртке, чей {@code close()} ничего не делает,
+     * поэтому репозитории могут одинаково закрывать его в try-with-resources.
+     *
+     * <p>Если в потоке действует {@link Deadline}, запросы через возвращённое соединение
+     * ограничены им.
+     */
+    public static Connection getConnection(DataSource dataSource) throws SQLException {
+        Connection bound = BOUND_CONNECTIONS.get().get(dataSource);
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return bound != null ? bound : dataSource.getConnection();
+        }
+        deadline.check("acquiring a connection");
+        Connection connection;
+        try {
+            connection = bound != null ? bound : dataSource.getConnection();
+        } catch (SQLException e) {
+            if (deadline.isExpired()) {
+                throw new QueryTimeoutException(
+                        "Deadline exceeded while waiting for a connection", e);
+            }
+            throw e;
+        }
+        return QueryWatchdog.guard(connection, deadline);
+    }
+
+    /** Проверяет, выполняется ли текущий поток внутри единицы работы для {@code dataSource}. */
+    public static boolean isActive(DataSource dataSource) {
+        return BOUND_CONNECTIONS.get().containsKey(dataSource);
+    }
+
+    public <T> T execute(Work<T> work) throws DataAccessException {
+        return execute(TransactionOptions.defaults(), work);
+    }
+
+    public <T> T execute(TransactionOptions options, Work<T> work) throws DataAccessException {
+        if (isActive(dataSource)) {
+            return work.execute();
+        }
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to complete unit of work", e);
+        }
+        return execute(connection, options, work);
+    }
+
+    /**
+     * Выполняет работу в транзакции на уже полученном из {@code dataSource} соединении и закрывает
+     * его по завершении.
+     *
+     * @throws IllegalStateException если поток уже внутри единицы работы для {@code dataSource}
+     */
+    public <T> T execute(Connection connection, TransactionOptions options, Work<T> work)
+            throws DataAccessException {
+        Map<DataSource, Connection> bound = BOUND_CONNECTIONS.get();
+        if (bound.containsKey(dataSource)) {
+            closeQuietly(connection);
+            throw new IllegalStateException("Unit of work is already active for this DataSource");
+        }
+        try (connection) {
+            begin(connection, options);
+            bound.put(dataSource, nonClosing(connection));
+            T result;
+            try {
+                result = work.execute();
+            } catch (RuntimeException | Error e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                bound.remove(dataSource);
+                if (bound.isEmpty()) {
+                    BOUND_CONNECTIONS.remove();
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            return result;
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to complete unit of work", e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close connection", e);
+        }
+    }
+
+    private void begin(Connection connection, TransactionOptions options) throws SQLException {
+        connection.setAutoCommit(false);
+        if (options.isReadOnly()) {
+            connection.setReadOnly(true);
+        }
+        if (options.getIsolation() != TransactionIsolation.DEFAULT) {
+            connection.setTransactionIsolation(options.getIsolation().getJdbcLevel());
+        }
+    }
+
+    private void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.error("Failed to roll back unit of work", e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static Connection nonClosing(Connection connection) {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "close":
+                                    return null;
+                                case "equals":
+                                    return proxy == args[0];
+                                case "hashCode":
+                                    return System.identityHashCode(proxy);
+                                default:
+                                    break;
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+    }
+}
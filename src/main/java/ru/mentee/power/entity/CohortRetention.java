@@ -0,0 +1,26 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.time.YearMonth;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Удержание когорты пользователей, зарегистрированных в одном месяце. {@code activeBuyers.get(k)} —
+ * сколько пользователей когорты сделали хотя бы один заказ через {@code k} месяцев после месяца
+ * регистрации; нулевой элемент — заказы в сам месяц регистрации.
+ */
+@Value
+public class CohortRetention {
+    YearMonth cohortMonth;
+    long cohortSize;
+    List<Long> activeBuyers;
+
+    /** Доля когорты в процентах, сделавшая заказ через {@code monthsAfter} месяцев. */
+    public double retentionPercent(int monthsAfter) {
+        if (cohortSize == 0 || monthsAfter >= activeBuyers.size()) {
+            return 0;
+        }
+        return 100.0 * activeBuyers.get(monthsAfter) / cohortSize;
+    }
+}
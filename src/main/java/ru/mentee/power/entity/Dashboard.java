@@ -0,0 +1,14 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.util.List;
+import lombok.Value;
+import ru.mentee.power.model.ProductSalesInfo;
+
+/** Данные страницы администратора: топ покупателей, статистика по месяцам и топ товаров. */
+@Value
+public class Dashboard {
+    List<OrderAnalytics> topCustomers;
+    List<MonthlyOrderStats> monthlyStats;
+    List<ProductSalesInfo> topProducts;
+}
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.mentee.power.model.Money;
 
 @Data
 @AllArgsConstructor
@@ -14,6 +15,23 @@ public class MonthlyOrderStats {
     private int year;
     private int month;
     private int ordersCount;
-    private BigDecimal monthlyRevenue;
-    private BigDecimal avgOrderValue;
+    private long monthlyRevenueCents;
+    private long avgOrderValueCents;
+
+    public MonthlyOrderStats(int year, int month, int ordersCount, long monthlyRevenueCents) {
+        this(
+                year,
+                month,
+                ordersCount,
+                monthlyRevenueCents,
+                Money.average(monthlyRevenueCents, ordersCount));
+    }
+
+    public BigDecimal getMonthlyRevenue() {
+        return Money.toBigDecimal(monthlyRevenueCents);
+    }
+
+    public BigDecimal getAvgOrderValue() {
+        return Money.toBigDecimal(avgOrderValueCents);
+    }
 }
@@ -5,41 +5,102 @@ import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.mentee.power.model.Money;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderAnalytics {
+    private static final long VIP_THRESHOLD_CENTS = 5_000_000;
+    private static final long REGULAR_THRESHOLD_CENTS = 1_000_000;
+
     private long userId;
     private int ordersCount;
-    private BigDecimal totalSpent;
-    private BigDecimal avgOrderValue;
+    private long totalSpentCents;
+    private long avgOrderValueCents;
     private String customerType;
 
+    public OrderAnalytics(long userId, int ordersCount, long totalSpentCents) {
+        this(
+                userId,
+                ordersCount,
+                totalSpentCents,
+                Money.average(totalSpentCents, ordersCount),
+                customerTypeOf(totalSpentCents));
+    }
+
+    /**
+     * @deprecated суммы хранятся в копейках, используйте {@link #OrderAnalytics(long, int, long)}
+     */
+    @Deprecated
     public OrderAnalytics(
             Long userId, Integer ordersCount, BigDecimal totalSpent, BigDecimal avgOrderValue) {
-        this.userId = userId;
-        this.ordersCount = ordersCount;
-        this.totalSpent = totalSpent;
-        this.avgOrderValue = avgOrderValue;
-        this.customerType = calculateCustomerType(totalSpent);
+        this(
+                userId,
+                ordersCount,
+                Money.toCents(totalSpent == null ? BigDecimal.ZERO : totalSpent),
+                Money.toCents(avgOrderValue == null ? BigDecimal.ZERO : avgOrderValue),
+                customerTypeOf(totalSpent));
+    }
+
+    /**
+     * @deprecated прежний конструктор всех полей, суммы переводятся в копейки через {@link Money}
+     */
+    @Deprecated
+    public OrderAnalytics(
+            long userId,
+            int ordersCount,
+            BigDecimal totalSpent,
+            BigDecimal avgOrderValue,
+            String customerType) {
+        this(
+                userId,
+                ordersCount,
+                Money.toCents(totalSpent == null ? BigDecimal.ZERO : totalSpent),
+                Money.toCents(avgOrderValue == null ? BigDecimal.ZERO : avgOrderValue),
+                customerType);
+    }
+
+    public void setTotalSpentCents(long totalSpentCents) {
+        this.totalSpentCents = totalSpentCents;
+        this.customerType = customerTypeOf(totalSpentCents);
+    }
+
+    public BigDecimal getTotalSpent() {
+        return Money.toBigDecimal(totalSpentCents);
     }
 
+    /** @deprecated используйте {@link #setTotalSpentCents(long)} */
+    @Deprecated
     public void setTotalSpent(BigDecimal totalSpent) {
-        this.totalSpent = totalSpent;
-        this.customerType = calculateCustomerType(totalSpent);
+        setTotalSpentCents(Money.toCents(totalSpent == null ? BigDecimal.ZERO : totalSpent));
     }
 
-    private String calculateCustomerType(BigDecimal totalSpent) {
-        if (totalSpent == null) {
-            return "NEW";
-        }
-        if (totalSpent.compareTo(BigDecimal.valueOf(50000)) > 0) {
+    public BigDecimal getAvgOrderValue() {
+        return Money.toBigDecimal(avgOrderValueCents);
+    }
+
+    /** @deprecated используйте {@link #setAvgOrderValueCents(long)} */
+    @Deprecated
+    public void setAvgOrderValue(BigDecimal avgOrderValue) {
+        this.avgOrderValueCents =
+                Money.toCents(avgOrderValue == null ? BigDecimal.ZERO : avgOrderValue);
+    }
+
+    /** Тип клиента по сумме покупок в копейках: {@code NEW}, {@code REGULAR} или {@code VIP}. */
+    public static String customerTypeOf(long totalSpentCents) {
+        if (totalSpentCents > VIP_THRESHOLD_CENTS) {
             return "VIP";
-        } else if (totalSpent.compareTo(BigDecimal.valueOf(10000)) >= 0) {
+        } else if (totalSpentCents >= REGULAR_THRESHOLD_CENTS) {
             return "REGULAR";
         } else {
             return "NEW";
         }
     }
+
+    /** @deprecated используйте {@link #customerTypeOf(long)} */
+    @Deprecated
+    public static String customerTypeOf(BigDecimal totalSpent) {
+        return totalSpent == null ? "NEW" : customerTypeOf(Money.toCents(totalSpent));
+    }
 }
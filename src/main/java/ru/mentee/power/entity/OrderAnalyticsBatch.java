@@ -0,0 +1,194 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import ru.mentee.power.model.Money;
+
+/**
+ * Аналитика пользователей в колоночном виде: параллельные массивы id, числа заказов и суммы в
+ * копейках плюс тип клиента кодом из {@link #customerTypes()}. Строка занимает 21 байт вместо
+ * объекта {@link OrderAnalytics} со ссылкой на него, а проход по одному атрибуту читает
+ * последовательную память.
+ *
+ * <p>Строки доступны по индексу напрямую или через лёгкий {@link Row}; {@link
+ * #toOrderAnalytics(int)} создаёт обычный объект, если он нужен. Экземпляр неизменяем после
+ * {@link Builder#build()}.
+ */
+public final class OrderAnalyticsBatch {
+
+    private static final List<String> CUSTOMER_TYPES = List.of("NEW", "REGULAR", "VIP");
+
+    private final long[] userIds;
+    private final int[] ordersCounts;
+    private final long[] totalSpentCents;
+    private final byte[] customerTypeCodes;
+    private final int size;
+
+    private OrderAnalyticsBatch(
+            long[] userIds,
+            int[] ordersCounts,
+            long[] totalSpentCents,
+            byte[] customerTypeCodes,
+            int size) {
+        this.userIds = userIds;
+        this.ordersCounts = ordersCounts;
+        this.totalSpentCents = totalSpentCents;
+        this.customerTypeCodes = customerTypeCodes;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static OrderAnalyticsBatch of(Collection<OrderAnalytics> analytics) {
+        Builder builder = builder(analytics.size());
+        for (OrderAnalytics row : analytics) {
+            builder.append(row.getUserId(), row.getOrdersCount(), row.getTotalSpentCents());
+        }
+        return builder.build();
+    }
+
+    /** Словарь типов клиента; {@link #getCustomerTypeCode(int)} — индекс в нём. */
+    public static List<String> customerTypes() {
+        return CUSTOMER_TYPES;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getUserId(int row) {
+        return userIds[checkIndex(row)];
+    }
+
+    public int getOrdersCount(int row) {
+        return ordersCounts[checkIndex(row)];
+    }
+
+    public long getTotalSpentCents(int row) {
+        return totalSpentCents[checkIndex(row)];
+    }
+
+    public long getAvgOrderValueCents(int row) {
+        return Money.average(getTotalSpentCents(row), getOrdersCount(row));
+    }
+
+    public byte getCustomerTypeCode(int row) {
+        return customerTypeCodes[checkIndex(row)];
+    }
+
+    public String getCustomerType(int row) {
+        return CUSTOMER_TYPES.get(getCustomerTypeCode(row));
+    }
+
+    public Row row(int row) {
+        return new Row(checkIndex(row));
+    }
+
+    public OrderAnalytics toOrderAnalytics(int row) {
+        return new OrderAnalytics(getUserId(row), getOrdersCount(row), getTotalSpentCents(row));
+    }
+
+    public List<OrderAnalytics> toList() {
+        List<OrderAnalytics> analytics = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            analytics.add(toOrderAnalytics(i));
+        }
+        return analytics;
+    }
+
+    private int checkIndex(int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    /** Строка пакета без копирования значений. */
+    public final class Row {
+
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getUserId() {
+            return userIds[index];
+        }
+
+        public int getOrdersCount() {
+            return ordersCounts[index];
+        }
+
+        public long getTotalSpentCents() {
+            return totalSpentCents[index];
+        }
+
+        public BigDecimal getTotalSpent() {
+            return Money.toBigDecimal(totalSpentCents[index]);
+        }
+
+        public long getAvgOrderValueCents() {
+            return Money.average(totalSpentCents[index], ordersCounts[index]);
+        }
+
+        public String getCustomerType() {
+            return CUSTOMER_TYPES.get(customerTypeCodes[index]);
+        }
+    }
+
+    /** Накопитель строк в порядке добавления. */
+    public static final class Builder {
+
+        private long[] userIds;
+        private int[] ordersCounts;
+        private long[] totalSpentCents;
+        private byte[] customerTypeCodes;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            userIds = new long[capacity];
+            ordersCounts = new int[capacity];
+            totalSpentCents = new long[capacity];
+            customerTypeCodes = new byte[capacity];
+        }
+
+        public Builder append(long userId, int ordersCount, long totalSpentCents) {
+            if (size == userIds.length) {
+                resize(size * 2);
+            }
+            userIds[size] = userId;
+            ordersCounts[size] = ordersCount;
+            this.totalSpentCents[size] = totalSpentCents;
+            customerTypeCodes[size] =
+                    (byte) CUSTOMER_TYPES.indexOf(OrderAnalytics.customerTypeOf(totalSpentCents));
+            size++;
+            return this;
+        }
+
+        /** Обрезает массивы до числа строк, если запас заметен. */
+        public OrderAnalyticsBatch build() {
+            if (userIds.length - size > size / 8) {
+                resize(size);
+            }
+            return new OrderAnalyticsBatch(
+                    userIds, ordersCounts, totalSpentCents, customerTypeCodes, size);
+        }
+
+        private void resize(int capacity) {
+            userIds = Arrays.copyOf(userIds, capacity);
+            ordersCounts = Arrays.copyOf(ordersCounts, capacity);
+            totalSpentCents = Arrays.copyOf(totalSpentCents, capacity);
+            customerTypeCodes = Arrays.copyOf(customerTypeCodes, capacity);
+        }
+    }
+}
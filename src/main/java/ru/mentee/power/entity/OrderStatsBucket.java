@@ -0,0 +1,32 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.mentee.power.model.Money;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatsBucket {
+
+    private LocalDateTime bucketStart;
+    private int ordersCount;
+    private long revenueCents;
+    private long avgOrderValueCents;
+
+    public OrderStatsBucket(LocalDateTime bucketStart, int ordersCount, long revenueCents) {
+        this(bucketStart, ordersCount, revenueCents, Money.average(revenueCents, ordersCount));
+    }
+
+    public BigDecimal getRevenue() {
+        return Money.toBigDecimal(revenueCents);
+    }
+
+    public BigDecimal getAvgOrderValue() {
+        return Money.toBigDecimal(avgOrderValueCents);
+    }
+}
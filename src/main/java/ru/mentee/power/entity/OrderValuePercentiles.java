@@ -0,0 +1,17 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * Приближённые перцентили суммы заказа за период. Для периода без заказов перцентили равны {@code
+ * null}.
+ */
+@Value
+public class OrderValuePercentiles {
+    long ordersCount;
+    BigDecimal p50;
+    BigDecimal p90;
+    BigDecimal p99;
+}
@@ -0,0 +1,57 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Шаг временной группировки заказов. Границы интервалов совпадают с {@code date_trunc} в
+ * PostgreSQL: неделя начинается с понедельника, квартал — с января, апреля, июля или октября.
+ */
+public enum TimeGranularity {
+    HOUR("hour"),
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    QUARTER("quarter");
+
+    private final String sqlField;
+
+    TimeGranularity(String sqlField) {
+        this.sqlField = sqlField;
+    }
+
+    /** Имя поля для {@code date_trunc}. */
+    public String sqlField() {
+        return sqlField;
+    }
+
+    /** Начало интервала, в который попадает {@code time}. */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK ->
+                    time.truncatedTo(ChronoUnit.DAYS)
+                            .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            case QUARTER ->
+                    time.truncatedTo(ChronoUnit.DAYS)
+                            .withDayOfMonth(1)
+                            .withMonth((time.getMonthValue() - 1) / 3 * 3 + 1);
+        };
+    }
+
+    /** Начало интервала, следующего за интервалом с началом {@code bucketStart}. */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case QUARTER -> bucketStart.plusMonths(3);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.exception;
+
+/** Запрос не уложился в отведённый дедлайн и был отменён. */
+public class QueryTimeoutException extends DataAccessException {
+
+    public QueryTimeoutException(String message) {
+        super(message);
+    }
+
+    public QueryTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
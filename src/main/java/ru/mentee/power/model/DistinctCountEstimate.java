@@ -0,0 +1,24 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import lombok.Value;
+
+/**
+ * Оценка числа различных значений по скетчу HyperLogLog. Границы {@link #lowerBound()} и {@link
+ * #upperBound()} — две стандартные ошибки, истинное значение попадает в них примерно в 95% случаев.
+ */
+@Value
+public class DistinctCountEstimate {
+    long estimate;
+
+    /** Относительная стандартная ошибка, одинаковая для любой мощности. */
+    double relativeError;
+
+    public long lowerBound() {
+        return Math.max(0, (long) Math.floor(estimate * (1 - 2 * relativeError)));
+    }
+
+    public long upperBound() {
+        return (long) Math.ceil(estimate * (1 + 2 * relativeError));
+    }
+}
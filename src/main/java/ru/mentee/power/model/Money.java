@@ -0,0 +1,49 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежные суммы в копейках ({@code long}), соответствующие столбцам {@code DECIMAL(10, 2)}.
+ *
+ * <p>Модели хранят суммы примитивным {@code long}: запросы отдают их целым столбцом {@code
+ * CAST(... * 100 AS BIGINT)}, который читается через {@code getLong} без создания {@link
+ * BigDecimal} на каждую строку. Суммирование в копейках точное, среднее округляется до копейки по
+ * {@link RoundingMode#HALF_UP}. {@link BigDecimal} создаётся только по запросу через {@link
+ * #toBigDecimal(long)}.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {}
+
+    /** Сумма в рублях с двумя знаками после запятой. */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Переводит сумму в копейки, дробные копейки округляются по {@link RoundingMode#HALF_UP}.
+     *
+     * @throws ArithmeticException если сумма не помещается в {@code long}
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Среднее {@code totalCents / count} с округлением до копейки; для нуля значений — ноль. */
+    public static long average(long totalCents, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        long quotient = totalCents / count;
+        long remainder = totalCents % count;
+        // |remainder| * 2 >= |count| без переполнения
+        if (Math.abs(remainder) >= Math.abs(count) - Math.abs(remainder)) {
+            quotient += (totalCents < 0) == (count < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,19 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/** Позиция заказа вместе с названием и категорией товара. Цена — за единицу на момент заказа. */
+@Value
+public class OrderItemDetails {
+    long productId;
+    String productName;
+    String category;
+    int quantity;
+    long priceCents;
+
+    public BigDecimal getPrice() {
+        return Money.toBigDecimal(priceCents);
+    }
+}
@@ -0,0 +1,22 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Value;
+
+/** Заказ пользователя со всеми позициями; у заказа без позиций список пуст. */
+@Value
+public class OrderWithItems {
+    long orderId;
+    long userId;
+    long totalCents;
+    String status;
+    LocalDateTime createdAt;
+    List<OrderItemDetails> items;
+
+    public BigDecimal getTotal() {
+        return Money.toBigDecimal(totalCents);
+    }
+}
@@ -0,0 +1,23 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Страница результатов keyset-пагинации. {@code nextPageToken} непрозрачен для клиента и равен
+ * {@code null} на последней странице.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Page<T> {
+    private List<T> items;
+    private String nextPageToken;
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
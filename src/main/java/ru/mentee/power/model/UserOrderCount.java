@@ -14,5 +14,30 @@ public class UserOrderCount {
     private String userName;
     private String email;
     private int ordersCount;
-    private BigDecimal totalSpent;
+    private long totalSpentCents;
+
+    /**
+     * @deprecated суммы хранятся в копейках, используйте конструктор с {@code long
+     *     totalSpentCents}
+     */
+    @Deprecated
+    public UserOrderCount(
+            Long userId, String userName, String email, int ordersCount, BigDecimal totalSpent) {
+        this(
+                userId,
+                userName,
+                email,
+                ordersCount,
+                totalSpent == null ? 0L : Money.toCents(totalSpent));
+    }
+
+    public BigDecimal getTotalSpent() {
+        return Money.toBigDecimal(totalSpentCents);
+    }
+
+    /** @deprecated используйте {@link #setTotalSpentCents(long)} */
+    @Deprecated
+    public void setTotalSpent(BigDecimal totalSpent) {
+        this.totalSpentCents = totalSpent == null ? 0 : Money.toCents(totalSpent);
+    }
 }
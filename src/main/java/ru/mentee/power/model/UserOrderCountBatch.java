@@ -0,0 +1,197 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Пользователи с числом и суммой заказов в колоночном виде: по массиву на атрибут вместо объекта
+ * {@link UserOrderCount} на строку. Числа хранятся примитивами, поэтому агрегаты по пакету не
+ * разыменовывают ни одной ссылки; имя и email хранятся строками в том виде, в каком их вернул
+ * драйвер.
+ *
+ * <p>Экземпляр неизменяем после {@link Builder#build()}.
+ */
+public final class UserOrderCountBatch {
+
+    private final long[] userIds;
+    private final String[] userNames;
+    private final String[] emails;
+    private final int[] ordersCounts;
+    private final long[] totalSpentCents;
+    private final int size;
+
+    private UserOrderCountBatch(
+            long[] userIds,
+            String[] userNames,
+            String[] emails,
+            int[] ordersCounts,
+            long[] totalSpentCents,
+            int size) {
+        this.userIds = userIds;
+        this.userNames = userNames;
+        this.emails = emails;
+        this.ordersCounts = ordersCounts;
+        this.totalSpentCents = totalSpentCents;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static UserOrderCountBatch of(Collection<UserOrderCount> users) {
+        Builder builder = builder(users.size());
+        for (UserOrderCount user : users) {
+            builder.append(
+                    user.getUserId(),
+                    user.getUserName(),
+                    user.getEmail(),
+                    user.getOrdersCount(),
+                    user.getTotalSpentCents());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getUserId(int row) {
+        return userIds[checkIndex(row)];
+    }
+
+    public String getUserName(int row) {
+        return userNames[checkIndex(row)];
+    }
+
+    public String getEmail(int row) {
+        return emails[checkIndex(row)];
+    }
+
+    public int getOrdersCount(int row) {
+        return ordersCounts[checkIndex(row)];
+    }
+
+    public long getTotalSpentCents(int row) {
+        return totalSpentCents[checkIndex(row)];
+    }
+
+    public Row row(int row) {
+        return new Row(checkIndex(row));
+    }
+
+    public UserOrderCount toUserOrderCount(int row) {
+        return new UserOrderCount(
+                getUserId(row),
+                getUserName(row),
+                getEmail(row),
+                getOrdersCount(row),
+                getTotalSpentCents(row));
+    }
+
+    public List<UserOrderCount> toList() {
+        List<UserOrderCount> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(toUserOrderCount(i));
+        }
+        return users;
+    }
+
+    private int checkIndex(int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    /** Строка пакета без копирования значений. */
+    public final class Row {
+
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getUserId() {
+            return userIds[index];
+        }
+
+        public String getUserName() {
+            return userNames[index];
+        }
+
+        public String getEmail() {
+            return emails[index];
+        }
+
+        public int getOrdersCount() {
+            return ordersCounts[index];
+        }
+
+        public long getTotalSpentCents() {
+            return totalSpentCents[index];
+        }
+
+        public BigDecimal getTotalSpent() {
+            return Money.toBigDecimal(totalSpentCents[index]);
+        }
+    }
+
+    /** Накопитель строк в порядке добавления. */
+    public static final class Builder {
+
+        private long[] userIds;
+        private String[] userNames;
+        private String[] emails;
+        private int[] ordersCounts;
+        private long[] totalSpentCents;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            userIds = new long[capacity];
+            userNames = new String[capacity];
+            emails = new String[capacity];
+            ordersCounts = new int[capacity];
+            totalSpentCents = new long[capacity];
+        }
+
+        public Builder append(
+                long userId, String userName, String email, int ordersCount, long spentCents) {
+            if (size == userIds.length) {
+                resize(size * 2);
+            }
+            userIds[size] = userId;
+            userNames[size] = userName;
+            emails[size] = email;
+            ordersCounts[size] = ordersCount;
+            totalSpentCents[size] = spentCents;
+            size++;
+            return this;
+        }
+
+        /** Обрезает массивы до числа строк, если запас заметен. */
+        public UserOrderCountBatch build() {
+            if (userIds.length - size > size / 8) {
+                resize(size);
+            }
+            return new UserOrderCountBatch(
+                    userIds, userNames, emails, ordersCounts, totalSpentCents, size);
+        }
+
+        private void resize(int capacity) {
+            userIds = Arrays.copyOf(userIds, capacity);
+            userNames = Arrays.copyOf(userNames, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            ordersCounts = Arrays.copyOf(ordersCounts, capacity);
+            totalSpentCents = Arrays.copyOf(totalSpentCents, capacity);
+        }
+    }
+}
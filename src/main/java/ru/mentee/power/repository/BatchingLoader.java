@@ -0,0 +1,117 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Загрузчик в стиле DataLoader: одиночные запросы по ключу, пришедшие из разных потоков в течение
+ * короткого окна, собираются в один пакет и выполняются одним вызовом пакетной функции (например
+ * {@link UserRepository#findAllByIds}). Так N обращений к БД превращаются в одно.
+ *
+ * <p>Пакет отправляется по истечении окна либо сразу, как только набрано {@code maxBatchSize}
+ * ключей. Пакетная функция выполняется в виртуальном потоке, поэтому блокирующий JDBC-вызов не
+ * занимает поток таймера.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+@Slf4j
+public class BatchingLoader<K, V> {
+
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "batching-loader-timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final Duration window;
+    private final int maxBatchSize;
+
+    private Map<K, CompletableFuture<Optional<V>>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param batchFunction загружает значения по набору ключей; отсутствующие ключи не
+     *     возвращаются
+     * @param window сколько ждать дополнительные ключи после первого ключа пакета
+     * @param maxBatchSize максимальный размер пакета
+     */
+    public BatchingLoader(
+            Function<Set<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.batchFunction = batchFunction;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Ставит ключ в текущий пакет. Повторный ключ в том же пакете получает тот же future.
+     *
+     * @param key ключ
+     * @return future со значением или {@link Optional#empty()}, если значение не найдено
+     */
+    public CompletableFuture<Optional<V>> load(K key) {
+        Map<K, CompletableFuture<Optional<V>>> full = null;
+        CompletableFuture<Optional<V>> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            boolean firstInBatch = pending.isEmpty();
+            pending.put(key, future);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (firstInBatch) {
+                Map<K, CompletableFuture<Optional<V>>> batch = pending;
+                TIMER.schedule(
+                        () -> dispatchIfPending(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void dispatchIfPending(Map<K, CompletableFuture<Optional<V>>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<Optional<V>>> batch) {
+        Thread.ofVirtual().name("batching-loader").start(() -> execute(batch));
+    }
+
+    private void execute(Map<K, CompletableFuture<Optional<V>>> batch) {
+        log.debug("Dispatching batch of {} keys", batch.size());
+        try {
+            Map<K, V> loaded = batchFunction.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(Optional.ofNullable(loaded.get(key))));
+        } catch (RuntimeException | Error e) {
+            log.error("Batch load of {} keys failed", batch.size(), e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
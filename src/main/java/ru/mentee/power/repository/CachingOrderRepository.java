@@ -0,0 +1,112 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.cache.AnalyticsCacheConfig;
+import ru.mentee.power.cache.RefreshingCache;
+import ru.mentee.power.cache.RefreshingCacheStats;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Декоратор {@link OrderRepository}, кэширующий агрегаты через {@link RefreshingCache}: много
+ * одновременных запросов одной и той же аналитики выполняют один запрос к БД, а после истечения
+ * TTL получают прежний результат, пока он обновляется в фоне.
+ *
+ * <p>Запросы за произвольный период, потоки и колоночные пакеты не кэшируются. После записи
+ * заказов вызывающий код должен вызвать {@link #invalidateAll()}.
+ */
+@Slf4j
+public class CachingOrderRepository implements OrderRepository {
+
+    private static final String ALL = "all";
+
+    private final OrderRepository delegate;
+    private final RefreshingCache<String, List<OrderAnalytics>> userAnalytics;
+    private final RefreshingCache<Integer, List<OrderAnalytics>> topCustomers;
+    private final RefreshingCache<String, List<MonthlyOrderStats>> monthlyStats;
+
+    public CachingOrderRepository(OrderRepository delegate) {
+        this(delegate, AnalyticsCacheConfig.defaults());
+    }
+
+    public CachingOrderRepository(OrderRepository delegate, AnalyticsCacheConfig config) {
+        this.delegate = delegate;
+        this.userAnalytics =
+                new RefreshingCache<>(
+                        "user-analytics",
+                        config.getUserAnalyticsTtl(),
+                        config.getStaleWhileRevalidate(),
+                        config.getMaximumSize());
+        this.topCustomers =
+                new RefreshingCache<>(
+                        "top-customers",
+                        config.getTopCustomersTtl(),
+                        config.getStaleWhileRevalidate(),
+                        config.getMaximumSize());
+        this.monthlyStats =
+                new RefreshingCache<>(
+                        "monthly-stats",
+                        config.getMonthlyStatsTtl(),
+                        config.getStaleWhileRevalidate(),
+                        config.getMaximumSize());
+    }
+
+    @Override
+    public List<OrderAnalytics> getUserAnalytics() throws DataAccessException {
+        return userAnalytics.get(ALL, key -> List.copyOf(delegate.getUserAnalytics()));
+    }
+
+    @Override
+    public Flow.Publisher<OrderAnalytics> publishUserAnalytics() {
+        return delegate.publishUserAnalytics();
+    }
+
+    @Override
+    public OrderAnalyticsBatch getUserAnalyticsBatch() throws DataAccessException {
+        return delegate.getUserAnalyticsBatch();
+    }
+
+    @Override
+    public List<OrderAnalytics> getTopCustomers(int limit) throws DataAccessException {
+        return topCustomers.get(limit, key -> List.copyOf(delegate.getTopCustomers(key)));
+    }
+
+    @Override
+    public List<MonthlyOrderStats> getMonthlyOrderStats() throws DataAccessException {
+        return monthlyStats.get(ALL, key -> List.copyOf(delegate.getMonthlyOrderStats()));
+    }
+
+    @Override
+    public List<OrderStatsBucket> getOrderStats(
+            LocalDateTime from, LocalDateTime to, TimeGranularity granularity)
+            throws DataAccessException {
+        return delegate.getOrderStats(from, to, granularity);
+    }
+
+    /** Сбрасывает все закэшированные агрегаты, например после создания или изменения заказа. */
+    public void invalidateAll() {
+        log.debug("Invalidating cached order analytics");
+        userAnalytics.invalidateAll();
+        topCustomers.invalidateAll();
+        monthlyStats.invalidateAll();
+    }
+
+    /** Метрики кэшей по методам. */
+    public Map<String, RefreshingCacheStats> getStats() {
+        Map<String, RefreshingCacheStats> stats = new LinkedHashMap<>();
+        stats.put("getUserAnalytics", userAnalytics.getStats());
+        stats.put("getTopCustomers", topCustomers.getStats());
+        stats.put("getMonthlyOrderStats", monthlyStats.getStats());
+        return stats;
+    }
+}
@@ -0,0 +1,110 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.cache.AnalyticsCacheConfig;
+import ru.mentee.power.cache.RefreshingCache;
+import ru.mentee.power.cache.RefreshingCacheStats;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.OrderWithItems;
+import ru.mentee.power.model.Page;
+import ru.mentee.power.model.ProductSalesInfo;
+import ru.mentee.power.model.UserOrderCount;
+import ru.mentee.power.model.UserOrderCountBatch;
+import ru.mentee.power.model.UserOrderSummary;
+
+/**
+ * Декоратор {@link UserOrderRepository} с кэшем отчётов по пользователям и товарам, устроенный так
+ * же, как {@link CachingOrderRepository}. Поиск по порогу суммы, потоки, колоночные пакеты и
+ * история заказов идут в делегат. После записи заказов или позиций заказов нужно вызвать {@link
+ * #invalidateAll()}.
+ */
+@Slf4j
+public class CachingUserOrderRepository implements UserOrderRepository {
+
+    private static final String ALL = "all";
+
+    private final UserOrderRepository delegate;
+    private final RefreshingCache<String, List<UserOrderCount>> usersWithOrderCount;
+    private final RefreshingCache<Integer, List<ProductSalesInfo>> topSellingProducts;
+
+    public CachingUserOrderRepository(UserOrderRepository delegate) {
+        this(delegate, AnalyticsCacheConfig.defaults());
+    }
+
+    public CachingUserOrderRepository(UserOrderRepository delegate, AnalyticsCacheConfig config) {
+        this.delegate = delegate;
+        this.usersWithOrderCount =
+                new RefreshingCache<>(
+                        "users-with-order-count",
+                        config.getUsersWithOrderCountTtl(),
+                        config.getStaleWhileRevalidate(),
+                        config.getMaximumSize());
+        this.topSellingProducts =
+                new RefreshingCache<>(
+                        "top-selling-products",
+                        config.getTopSellingProductsTtl(),
+                        config.getStaleWhileRevalidate(),
+                        config.getMaximumSize());
+    }
+
+    @Override
+    public List<UserOrderSummary> findUsersWithTotalAbove(BigDecimal minTotal)
+            throws DataAccessException {
+        return delegate.findUsersWithTotalAbove(minTotal);
+    }
+
+    @Override
+    public List<UserOrderCount> getAllUsersWithOrderCount() throws DataAccessException {
+        return usersWithOrderCount.get(
+                ALL, key -> List.copyOf(delegate.getAllUsersWithOrderCount()));
+    }
+
+    @Override
+    public Flow.Publisher<UserOrderCount> publishAllUsersWithOrderCount() {
+        return delegate.publishAllUsersWithOrderCount();
+    }
+
+    @Override
+    public UserOrderCountBatch getAllUsersWithOrderCountBatch() throws DataAccessException {
+        return delegate.getAllUsersWithOrderCountBatch();
+    }
+
+    @Override
+    public List<ProductSalesInfo> getTopSellingProducts(int limit) throws DataAccessException {
+        return topSellingProducts.get(
+                limit, key -> List.copyOf(delegate.getTopSellingProducts(key)));
+    }
+
+    @Override
+    public Page<OrderWithItems> findOrderHistory(long userId, String pageToken, int pageSize)
+            throws DataAccessException {
+        return delegate.findOrderHistory(userId, pageToken, pageSize);
+    }
+
+    @Override
+    public Map<Long, List<OrderWithItems>> findOrderHistories(
+            Collection<Long> userIds, int ordersPerUser) throws DataAccessException {
+        return delegate.findOrderHistories(userIds, ordersPerUser);
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidating cached user order reports");
+        usersWithOrderCount.invalidateAll();
+        topSellingProducts.invalidateAll();
+    }
+
+    /** Метрики кэшей по методам. */
+    public Map<String, RefreshingCacheStats> getStats() {
+        Map<String, RefreshingCacheStats> stats = new LinkedHashMap<>();
+        stats.put("getAllUsersWithOrderCount", usersWithOrderCount.getStats());
+        stats.put("getTopSellingProducts", topSellingProducts.getStats());
+        return stats;
+    }
+}
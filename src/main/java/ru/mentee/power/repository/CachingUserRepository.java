@@ -0,0 +1,207 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.cache.BoundedCache;
+import ru.mentee.power.cache.CacheConfig;
+import ru.mentee.power.cache.CacheStats;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Page;
+import ru.mentee.power.model.User;
+
+/**
+ * Декоратор {@link UserRepository} с read-through кэшем для поиска по ID и email.
+ *
+ * <p>Кэшируются и отрицательные результаты (пользователь не найден) с отдельным, более коротким
+ * TTL. Конкурентные промахи по одному ключу выполняют один запрос к БД. Загруженный по ID
+ * пользователь кладётся и в кэш по email (и наоборот), но только при загрузке и только если
+ * второй кэш не инвалидировали за время запроса; попадания в кэш второй кэш не трогают. Списочные
+ * запросы, пагинация и потоки не кэшируются и идут напрямую в делегат. После изменения
+ * пользователя вызывающий код должен вызвать один из методов {@code invalidate*}.
+ */
+@Slf4j
+public class CachingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final BoundedCache<Long, Optional<User>> byId;
+    private final BoundedCache<String, Optional<User>> byEmail;
+
+    public CachingUserRepository(UserRepository delegate) {
+        this(delegate, CacheConfig.defaults());
+    }
+
+    public CachingUserRepository(UserRepository delegate, CacheConfig config) {
+        this.delegate = delegate;
+        this.byId =
+                new BoundedCache<>(
+                        config.getMaximumSize(),
+                        user -> user.isPresent() ? config.getTtl() : config.getNegativeTtl());
+        this.byEmail =
+                new BoundedCache<>(
+                        config.getMaximumSize(),
+                        user -> user.isPresent() ? config.getTtl() : config.getNegativeTtl());
+    }
+
+    @Override
+    public Optional<User> findById(Long id) throws DataAccessException {
+        if (id == null) {
+            throw new DataAccessException("Ошибка нахождения по ID: null");
+        }
+        return byId.get(
+                id,
+                key -> {
+                    long emailStamp = byEmail.invalidationStamp();
+                    Optional<User> user = delegate.findById(key);
+                    user.ifPresent(
+                            found ->
+                                    byEmail.putIfNotInvalidatedSince(
+                                            found.getEmail(), user, emailStamp));
+                    return user;
+                });
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) throws DataAccessException {
+        if (email == null) {
+            throw new DataAccessException("Ошибка нахождения пользователя по email: null");
+        }
+        return byEmail.get(
+                email,
+                key -> {
+                    long idStamp = byId.invalidationStamp();
+                    Optional<User> user = delegate.findByEmail(key);
+                    user.ifPresent(
+                            found -> byId.putIfNotInvalidatedSince(found.getId(), user, idStamp));
+                    return user;
+                });
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) throws DataAccessException {
+        if (ids == null) {
+            throw new DataAccessException("Ошибка нахождения по списку ID: null");
+        }
+        List<User> result = new ArrayList<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Optional<User> cached = byId.getIfPresent(id);
+            if (cached == null) {
+                missing.add(id);
+            } else {
+                cached.ifPresent(result::add);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        long idStamp = byId.invalidationStamp();
+        long emailStamp = byEmail.invalidationStamp();
+        for (User user : delegate.findAllByIds(missing)) {
+            missing.remove(user.getId());
+            byId.putIfNotInvalidatedSince(user.getId(), Optional.of(user), idStamp);
+            byEmail.putIfNotInvalidatedSince(user.getEmail(), Optional.of(user), emailStamp);
+            result.add(user);
+        }
+        missing.forEach(id -> byId.putIfNotInvalidatedSince(id, Optional.empty(), idStamp));
+        return result;
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) throws DataAccessException {
+        return delegate.findAllByEmails(emails);
+    }
+
+    @Override
+    public List<User> findAll() throws DataAccessException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findAll(String pageToken, int pageSize) throws DataAccessException {
+        return delegate.findAll(pageToken, pageSize);
+    }
+
+    @Override
+    public Stream<User> streamAll() throws DataAccessException {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<User> findByRegistrationDateAfter(LocalDate registrationDate)
+            throws DataAccessException {
+        return delegate.findByRegistrationDateAfter(registrationDate);
+    }
+
+    @Override
+    public Page<User> findByRegistrationDateAfter(
+            LocalDate registrationDate, String pageToken, int pageSize)
+            throws DataAccessException {
+        return delegate.findByRegistrationDateAfter(registrationDate, pageToken, pageSize);
+    }
+
+    @Override
+    public Stream<User> streamByRegistrationDateAfter(LocalDate registrationDate)
+            throws DataAccessException {
+        return delegate.streamByRegistrationDateAfter(registrationDate);
+    }
+
+    @Override
+    public List<User> findByNameContaining(String namePart) throws DataAccessException {
+        return delegate.findByNameContaining(namePart);
+    }
+
+    @Override
+    public Page<User> findByNameContaining(String namePart, String pageToken, int pageSize)
+            throws DataAccessException {
+        return delegate.findByNameContaining(namePart, pageToken, pageSize);
+    }
+
+    @Override
+    public long count() throws DataAccessException {
+        return delegate.count();
+    }
+
+    /** Удаляет из кэша все записи пользователя (по ID и по email). */
+    public void invalidate(User user) {
+        byId.invalidate(user.getId());
+        byEmail.invalidate(user.getEmail());
+    }
+
+    public void invalidateById(Long id) {
+        Optional<User> cached = byId.peek(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            cached.ifPresent(user -> byEmail.invalidate(user.getEmail()));
+        }
+    }
+
+    public void invalidateByEmail(String email) {
+        Optional<User> cached = byEmail.peek(email);
+        byEmail.invalidate(email);
+        if (cached != null) {
+            cached.ifPresent(user -> byId.invalidate(user.getId()));
+        }
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidating all cached users");
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    public CacheStats getIdCacheStats() {
+        return byId.getStats();
+    }
+
+    public CacheStats getEmailCacheStats() {
+        return byEmail.getStats();
+    }
+}
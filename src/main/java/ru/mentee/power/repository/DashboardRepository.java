@@ -0,0 +1,24 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import ru.mentee.power.entity.Dashboard;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Данные страницы администратора одним вызовом вместо {@link OrderRepository#getTopCustomers},
+ * {@link OrderRepository#getMonthlyOrderStats} и {@link UserOrderRepository#getTopSellingProducts}
+ * по очереди.
+ */
+public interface DashboardRepository {
+
+    /**
+     * Собирает все три отчёта страницы администратора.
+     *
+     * @param topCustomersLimit сколько покупателей вернуть
+     * @param topProductsLimit сколько товаров вернуть
+     * @return отчёты в том же виде, что у соответствующих методов репозиториев
+     * @throws DataAccessException если какой-либо лимит отрицателен или при ошибках доступа к БД
+     */
+    Dashboard getDashboard(int topCustomersLimit, int topProductsLimit)
+            throws DataAccessException;
+}
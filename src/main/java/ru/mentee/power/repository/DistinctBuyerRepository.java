@@ -0,0 +1,43 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.YearMonth;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.DistinctCountEstimate;
+
+/**
+ * Приближённое число различных покупателей без {@code COUNT(DISTINCT user_id)} по заказам. Оценки
+ * строятся по скетчам HyperLogLog, поэтому стоимость запроса зависит от числа корзин, а не от
+ * объёма заказов.
+ */
+public interface DistinctBuyerRepository {
+
+    /**
+     * Оценивает число различных покупателей, оформивших заказ в месяцах {@code [from, to]}.
+     * Покупатель, заказывавший в нескольких месяцах, учитывается один раз.
+     *
+     * @param from первый месяц диапазона
+     * @param to последний месяц диапазона включительно
+     * @return оценка с границами погрешности
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    DistinctCountEstimate countBuyers(YearMonth from, YearMonth to) throws DataAccessException;
+
+    /**
+     * Оценивает число различных покупателей товара.
+     *
+     * @param productId ID товара
+     * @return оценка с границами погрешности
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    DistinctCountEstimate countProductBuyers(long productId) throws DataAccessException;
+
+    /**
+     * Оценивает число различных покупателей хотя бы одного товара категории.
+     *
+     * @param category категория товара
+     * @return оценка с границами погрешности
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    DistinctCountEstimate countCategoryBuyers(String category) throws DataAccessException;
+}
@@ -0,0 +1,51 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.Value;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Позиция keyset-пагинации по {@code (created_at, id)}: последняя строка предыдущей страницы.
+ * Клиенту передаётся в виде base64-строки. Общая для пользователей и истории заказов.
+ */
+@Value
+class KeysetPageToken {
+    /** Наибольший размер страницы; страница читается с запасом в одну строку. */
+    static final int MAX_PAGE_SIZE = 1_000;
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime createdAt;
+    long id;
+
+    static KeysetPageToken after(LocalDateTime createdAt, long id) {
+        return new KeysetPageToken(createdAt, id);
+    }
+
+    static KeysetPageToken decode(String token) throws DataAccessException {
+        try {
+            String decoded =
+                    new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new DataAccessException("Некорректный токен страницы: " + token);
+            }
+            return new KeysetPageToken(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new DataAccessException("Некорректный токен страницы: " + token, e);
+        }
+    }
+
+    String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Flow;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.analytics.OrderAnalyticsStore;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Декоратор {@link OrderRepository}, который отдаёт пользовательскую аналитику из {@link
+ * OrderAnalyticsStore} вместо {@code GROUP BY} по всей таблице заказов. Пока хранилище не
+ * загружено или устарело сверх допустимого ({@link OrderAnalyticsStore#isFresh()}), запросы идут в
+ * делегат. Остальные методы делегируются без изменений.
+ */
+@Slf4j
+public class MaterializedOrderRepository implements OrderRepository {
+
+    private final OrderRepository delegate;
+    private final OrderAnalyticsStore store;
+
+    public MaterializedOrderRepository(OrderRepository delegate, OrderAnalyticsStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public List<OrderAnalytics> getUserAnalytics() throws DataAccessException {
+        if (!store.isFresh()) {
+            log.warn("In-memory order analytics is stale ({}), querying database", store.getAge());
+            return delegate.getUserAnalytics();
+        }
+        return store.getUserAnalytics();
+    }
+
+    @Override
+    public Flow.Publisher<OrderAnalytics> publishUserAnalytics() {
+        return delegate.publishUserAnalytics();
+    }
+
+    @Override
+    public OrderAnalyticsBatch getUserAnalyticsBatch() throws DataAccessException {
+        if (!store.isFresh()) {
+            log.warn("In-memory order analytics is stale ({}), querying database", store.getAge());
+            return delegate.getUserAnalyticsBatch();
+        }
+        return OrderAnalyticsBatch.of(store.getUserAnalytics());
+    }
+
+    @Override
+    public List<OrderAnalytics> getTopCustomers(int limit) throws DataAccessException {
+        if (!store.isFresh()) {
+            log.warn("In-memory order analytics is stale ({}), querying database", store.getAge());
+            return delegate.getTopCustomers(limit);
+        }
+        return store.getTopCustomers(limit);
+    }
+
+    @Override
+    public List<MonthlyOrderStats> getMonthlyOrderStats() throws DataAccessException {
+        return delegate.getMonthlyOrderStats();
+    }
+
+    @Override
+    public List<OrderStatsBucket> getOrderStats(
+            LocalDateTime from, LocalDateTime to, TimeGranularity granularity)
+            throws DataAccessException {
+        return delegate.getOrderStats(from, to, granularity);
+    }
+}
@@ -0,0 +1,50 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.OrderWithItems;
+
+/**
+ * Объединяет запросы последних заказов отдельных пользователей из конкурентных обработчиков в
+ * пакетные вызовы {@link UserOrderRepository#findOrderHistories}: список пользователей с их
+ * заказами загружается одним запросом, а не запросом на пользователя.
+ */
+public class OrderHistoryLoader {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    private static final int DEFAULT_MAX_BATCH_SIZE = 200;
+
+    private final BatchingLoader<Long, List<OrderWithItems>> byUserId;
+
+    public OrderHistoryLoader(UserOrderRepository userOrderRepository, int ordersPerUser) {
+        this(userOrderRepository, ordersPerUser, DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public OrderHistoryLoader(
+            UserOrderRepository userOrderRepository,
+            int ordersPerUser,
+            Duration window,
+            int maxBatchSize) {
+        if (ordersPerUser <= 0) {
+            throw new IllegalArgumentException("ordersPerUser must be positive");
+        }
+        this.byUserId =
+                new BatchingLoader<>(
+                        userIds -> userOrderRepository.findOrderHistories(userIds, ordersPerUser),
+                        window,
+                        maxBatchSize);
+    }
+
+    /** Последние заказы пользователя, новые первыми; пустой список, если заказов нет. */
+    public CompletableFuture<List<OrderWithItems>> load(Long userId) {
+        if (userId == null) {
+            return CompletableFuture.failedFuture(
+                    new DataAccessException("Error loading order history: user id is null"));
+        }
+        return byUserId.load(userId).thenApply(orders -> orders.orElseGet(List::of));
+    }
+}
@@ -1,9 +1,14 @@
 /* @MENTEE_POWER (C)2025 */
 package ru.mentee.power.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Flow;
 import ru.mentee.power.entity.MonthlyOrderStats;
 import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
 import ru.mentee.power.exception.DataAccessException;
 
 /**
@@ -21,6 +26,25 @@ public interface OrderRepository {
      */
     List<OrderAnalytics> getUserAnalytics() throws DataAccessException;
 
+    /**
+     * Та же аналитика, что и {@link #getUserAnalytics()}, но в виде реактивного потока.
+     * Строки читаются из БД по мере запроса подписчиком, соединение освобождается
+     * при завершении, ошибке или отмене подписки.
+     *
+     * @return публикатор аналитических данных по пользователям
+     */
+    Flow.Publisher<OrderAnalytics> publishUserAnalytics();
+
+    /**
+     * Та же аналитика, что и {@link #getUserAnalytics()}, в колоночном виде.
+     * Строки читаются одним проходом курсора прямо в массивы, без объекта на строку,
+     * поэтому метод подходит потребителям, которые обходят всех пользователей.
+     *
+     * @return аналитика по пользователям по убыванию суммы покупок
+     * @throws DataAccessException если произошла ошибка при работе с БД
+     */
+    OrderAnalyticsBatch getUserAnalyticsBatch() throws DataAccessException;
+
     /**
      * Найти топ активных покупателей.
      * Возвращает пользователей с наибольшей суммой заказов.
@@ -39,4 +63,22 @@ public interface OrderRepository {
      * @throws DataAccessException если произошла ошибка при работе с БД
      */
     List<MonthlyOrderStats> getMonthlyOrderStats() throws DataAccessException;
+
+    /**
+     * Получить статистику заказов за период {@code [from, to)} с заданным шагом.
+     * Фильтр по диапазону {@code created_at} использует индекс по дате создания,
+     * поэтому короткие периоды не требуют чтения всей таблицы.
+     * Возвращаются все интервалы периода, включая интервалы без заказов,
+     * от ранних к поздним. Крайние интервалы учитывают только заказы внутри периода.
+     *
+     * @param from начало периода, включительно
+     * @param to конец периода, не включительно
+     * @param granularity шаг группировки
+     * @return статистика по интервалам
+     * @throws DataAccessException если какой-либо аргумент равен {@code null}, {@code from} не
+     *     раньше {@code to} или произошла ошибка при работе с БД
+     */
+    List<OrderStatsBucket> getOrderStats(
+            LocalDateTime from, LocalDateTime to, TimeGranularity granularity)
+            throws DataAccessException;
 }
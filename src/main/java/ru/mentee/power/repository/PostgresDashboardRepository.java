@@ -0,0 +1,149 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.entity.Dashboard;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.ProductSalesInfo;
+import ru.mentee.power.repository.jdbc.ColumnMapper;
+import ru.mentee.power.repository.jdbc.RowMapper;
+
+/**
+ * {@link DashboardRepository}, выполняющий запросы {@link PostgresOrderRepository} и {@link
+ * UserOrderRepositoryImpl} на одном соединении.
+ *
+ * <p>В PostgreSQL три запроса уходят одним подготовленным выражением через точку с запятой:
+ * драйвер отправляет их одним сообщением с общей синхронизацией и читает три результата подряд,
+ * так что страница платит за один сетевой обмен и один запрос соединения из пула. На других СУБД
+ * запросы выполняются по очереди на том же соединении.
+ */
+@Slf4j
+public class PostgresDashboardRepository implements DashboardRepository {
+
+    private static final String DASHBOARD_SQL =
+            PostgresOrderRepository.GET_TOP_CUSTOMERS_SQL
+                    + ";\n"
+                    + PostgresOrderRepository.GET_MONTHLY_STATS_SQL
+                    + ";\n"
+                    + UserOrderRepositoryImpl.GET_TOP_SELLING_PRODUCTS_SQL;
+
+    private final DataSource dataSource;
+
+    public PostgresDashboardRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Dashboard getDashboard(int topCustomersLimit, int topProductsLimit)
+            throws DataAccessException {
+        if (topCustomersLimit < 0 || topProductsLimit < 0) {
+            throw new DataAccessException("Limit cannot be negative");
+        }
+        log.debug(
+                "Starting to fetch dashboard with top {} customers and top {} products",
+                topCustomersLimit,
+                topProductsLimit);
+        try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+            Dashboard dashboard =
+                    isPostgres(connection)
+                            ? queryBatch(connection, topCustomersLimit, topProductsLimit)
+                            : querySequentially(connection, topCustomersLimit, topProductsLimit);
+            log.info(
+                    "Successfully fetched dashboard: {} customers, {} months, {} products",
+                    dashboard.getTopCustomers().size(),
+                    dashboard.getMonthlyStats().size(),
+                    dashboard.getTopProducts().size());
+            return dashboard;
+        } catch (SQLException e) {
+            log.error("Failed to get dashboard", e);
+            throw new DataAccessException("Failed to get dashboard", e);
+        }
+    }
+
+    private Dashboard queryBatch(Connection connection, int topCustomers, int topProducts)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DASHBOARD_SQL)) {
+            statement.setInt(1, topCustomers);
+            statement.setInt(2, topProducts);
+            statement.execute();
+            List<OrderAnalytics> customers = next(statement, RowMappers.ORDER_ANALYTICS, false);
+            List<MonthlyOrderStats> months =
+                    next(statement, RowMappers.MONTHLY_ORDER_STATS, true);
+            List<ProductSalesInfo> products =
+                    next(statement, RowMappers.PRODUCT_SALES_INFO, true);
+            return new Dashboard(customers, months, products);
+        }
+    }
+
+    private Dashboard querySequentially(Connection connection, int topCustomers, int topProducts)
+            throws SQLException {
+        List<OrderAnalytics> customers =
+                query(
+                        connection,
+                        PostgresOrderRepository.GET_TOP_CUSTOMERS_SQL,
+                        topCustomers,
+                        RowMappers.ORDER_ANALYTICS);
+        List<MonthlyOrderStats> months =
+                query(
+                        connection,
+                        PostgresOrderRepository.GET_MONTHLY_STATS_SQL,
+                        null,
+                        RowMappers.MONTHLY_ORDER_STATS);
+        List<ProductSalesInfo> products =
+                query(
+                        connection,
+                        UserOrderRepositoryImpl.GET_TOP_SELLING_PRODUCTS_SQL,
+                        topProducts,
+                        RowMappers.PRODUCT_SALES_INFO);
+        return new Dashboard(customers, months, products);
+    }
+
+    /** Читает текущий результат выражения или, при {@code advance}, следующий за ним. */
+    private static <T> List<T> next(
+            PreparedStatement statement, ColumnMapper<T> mapper, boolean advance)
+            throws SQLException {
+        if (advance && !statement.getMoreResults()) {
+            throw new SQLException("Dashboard query returned fewer result sets than expected");
+        }
+        try (ResultSet resultSet = statement.getResultSet()) {
+            return readAll(resultSet, mapper);
+        }
+    }
+
+    private static <T> List<T> query(
+            Connection connection, String sql, Integer limit, ColumnMapper<T> mapper)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (limit != null) {
+                statement.setInt(1, limit);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return readAll(resultSet, mapper);
+            }
+        }
+    }
+
+    private static <T> List<T> readAll(ResultSet resultSet, ColumnMapper<T> mapper)
+            throws SQLException {
+        RowMapper<T> rowMapper = mapper.forColumns(resultSet.getMetaData());
+        List<T> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            rows.add(rowMapper.mapRow(resultSet));
+        }
+        return rows;
+    }
+
+    private static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+}
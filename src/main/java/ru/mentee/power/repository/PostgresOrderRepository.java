@@ -1,60 +1,146 @@
 /* @MENTEE_POWER (C)2025 */
 package ru.mentee.power.repository;
 
-import static java.sql.DriverManager.getConnection;
-
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import javax.sql.DataSource;
 import lombok.extern.slf4j.Slf4j;
-import ru.mentee.power.config.TestDatabaseConfig.TestApplicationConfig;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
 import ru.mentee.power.entity.MonthlyOrderStats;
 import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
 import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.repository.jdbc.JdbcPublisher;
+import ru.mentee.power.repository.jdbc.PartitionedQuery;
+import ru.mentee.power.repository.jdbc.RowMapper;
+import ru.mentee.power.repository.jdbc.StatementBinder;
 
 @Slf4j
 public class PostgresOrderRepository implements OrderRepository {
 
     private static final String GET_USER_ANALYTICS_SQL =
-            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, COALESCE(SUM(o.total), 0) AS"
-                + " total_spent, CASE WHEN COUNT(o.id) = 0 THEN 0 ELSE COALESCE(SUM(o.total), 0) /"
-                + " COUNT(o.id) END AS avg_order_value FROM USERS u LEFT JOIN ORDERS o ON u.id ="
-                + " o.user_id GROUP BY u.id ORDER BY total_spent DESC";
-
-    private static final String GET_TOP_CUSTOMERS_SQL =
-            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, COALESCE(SUM(o.total), 0) AS"
-                + " total_spent, CASE WHEN COUNT(o.id) = 0 THEN 0 ELSE COALESCE(SUM(o.total), 0) /"
-                + " COUNT(o.id) END AS avg_order_value FROM users u LEFT JOIN orders o ON u.id ="
-                + " o.user_id GROUP BY u.id ORDER BY total_spent DESC LIMIT ?";
-
-    private static final String GET_MONTHLY_STATS_SQL =
-            "SELECT EXTRACT(YEAR FROM o.created_at) AS year, EXTRACT(MONTH FROM o.created_at) AS"
-                + " month, COUNT(o.id) AS orders_count, COALESCE(SUM(o.total), 0) AS"
-                + " monthly_revenue, CASE WHEN COUNT(o.id) = 0 THEN 0 ELSE COALESCE(SUM(o.total),"
-                + " 0) / COUNT(o.id) END AS avg_order_value FROM orders o GROUP BY year, month"
-                + " ORDER BY year DESC, month DESC";
-
-    private final TestApplicationConfig testApplicationConfig;
-
-    public PostgresOrderRepository(TestApplicationConfig testApplicationConfig) {
-        this.testApplicationConfig = testApplicationConfig;
-        log.info("Initializing PostgresOrderRepository with config: {}", testApplicationConfig);
+            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, CAST(COALESCE(SUM(o.total), 0) *"
+                    + " 100 AS BIGINT) AS total_spent_cents FROM USERS u LEFT JOIN ORDERS o ON"
+                    + " u.id = o.user_id GROUP BY u.id ORDER BY total_spent_cents DESC";
+
+    // Условие на o.user_id дублирует диапазон явно: через LEFT JOIN планировщик его не выводит,
+    // и без него каждый диапазон читал бы все заказы.
+    private static final String GET_USER_ANALYTICS_RANGE_SQL =
+            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, CAST(COALESCE(SUM(o.total), 0) *"
+                    + " 100 AS BIGINT) AS total_spent_cents FROM users u LEFT JOIN orders o ON"
+                    + " u.id = o.user_id AND o.user_id >= ? AND o.user_id < ? WHERE u.id >= ? AND"
+                    + " u.id < ? GROUP BY u.id ORDER BY total_spent_cents DESC, u.id";
+
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM users";
+
+    private static final Comparator<OrderAnalytics> BY_TOTAL_SPENT_DESC =
+            Comparator.comparingLong(OrderAnalytics::getTotalSpentCents)
+                    .reversed()
+                    .thenComparingLong(OrderAnalytics::getUserId);
+
+    static final String GET_TOP_CUSTOMERS_SQL =
+            "SELECT u.id AS user_id, COUNT(o.id) AS orders_count, CAST(COALESCE(SUM(o.total), 0) *"
+                    + " 100 AS BIGINT) AS total_spent_cents FROM users u LEFT JOIN orders o ON"
+                    + " u.id = o.user_id GROUP BY u.id ORDER BY total_spent_cents DESC LIMIT ?";
+
+    // Сводка monthly_order_stats (см. MonthlyRollupJob) плюс ещё не учтённые в ней заказы после
+    // водяного знака: стоимость пропорциональна числу месяцев и размеру хвоста, а не всей таблице.
+    static final String GET_MONTHLY_STATS_SQL =
+            "SELECT year, month, SUM(orders_count) AS orders_count, CAST(SUM(monthly_revenue) *"
+                + " 100 AS BIGINT) AS monthly_revenue_cents FROM (SELECT s.year, s.month,"
+                + " s.orders_count, s.monthly_revenue FROM monthly_order_stats s UNION ALL SELECT"
+                + " CAST(EXTRACT(YEAR FROM o.created_at) AS INTEGER), CAST(EXTRACT(MONTH FROM"
+                + " o.created_at) AS INTEGER), COUNT(o.id), SUM(o.total) FROM orders o WHERE"
+                + " (o.created_at, o.id) > (COALESCE((SELECT w.last_created_at FROM"
+                + " rollup_watermarks w WHERE w.name = 'monthly_order_stats'), TIMESTAMP"
+                + " '1970-01-01 00:00:00'), COALESCE((SELECT w.last_id FROM rollup_watermarks w"
+                + " WHERE w.name = 'monthly_order_stats'), 0)) GROUP BY CAST(EXTRACT(YEAR FROM"
+                + " o.created_at) AS INTEGER), CAST(EXTRACT(MONTH FROM o.created_at) AS INTEGER))"
+                + " stats GROUP BY year, month ORDER BY year DESC, month DESC";
+
+    // Диапазон по голому created_at, без функций над столбцом, — чтобы план шёл по
+    // idx_orders_created_at_id. Поле date_trunc подставляется из TimeGranularity, а не от клиента.
+    private static final String GET_ORDER_STATS_SQL_TEMPLATE =
+            "SELECT DATE_TRUNC('%1$s', o.created_at) AS bucket_start, COUNT(o.id) AS orders_count,"
+                    + " CAST(SUM(o.total) * 100 AS BIGINT) AS revenue_cents FROM orders o WHERE"
+                    + " o.created_at >= ? AND o.created_at < ? GROUP BY DATE_TRUNC('%1$s',"
+                    + " o.created_at) ORDER BY bucket_start";
+
+    private static final Map<TimeGranularity, String> GET_ORDER_STATS_SQL =
+            new EnumMap<>(TimeGranularity.class);
+
+    static {
+        for (TimeGranularity granularity : TimeGranularity.values()) {
+            GET_ORDER_STATS_SQL.put(
+                    granularity,
+                    String.format(GET_ORDER_STATS_SQL_TEMPLATE, granularity.sqlField()));
+        }
+    }
+
+    private static final int PUBLISHER_FETCH_SIZE = 500;
+    private static final int BATCH_FETCH_SIZE = 10_000;
+
+    private final DataSource dataSource;
+    private final int analyticsPartitions;
+
+    public PostgresOrderRepository(DataSource dataSource) {
+        this(dataSource, 1);
+    }
+
+    /**
+     * @param analyticsPartitions на сколько диапазонов id пользователей делить {@link
+     *     #getUserAnalytics()}; при значении больше 1 диапазоны выполняются параллельно через
+     *     {@link PartitionedQuery}
+     */
+    public PostgresOrderRepository(DataSource dataSource, int analyticsPartitions) {
+        if (analyticsPartitions <= 0) {
+            throw new IllegalArgumentException("analyticsPartitions must be positive");
+        }
+        this.dataSource = dataSource;
+        this.analyticsPartitions = analyticsPartitions;
+        log.info("Initializing PostgresOrderRepository with data source: {}", dataSource);
     }
 
     @Override
     public List<OrderAnalytics> getUserAnalytics() throws DataAccessException {
+        if (analyticsPartitions > 1) {
+            log.debug("Starting to fetch user analytics in {} partitions", analyticsPartitions);
+            List<OrderAnalytics> analytics =
+                    new PartitionedQuery<>(
+                                    dataSource,
+                                    USER_ID_BOUNDS_SQL,
+                                    GET_USER_ANALYTICS_RANGE_SQL,
+                                    PostgresOrderRepository::bindUserIdRange,
+                                    RowMappers.ORDER_ANALYTICS,
+                                    BY_TOTAL_SPENT_DESC)
+                            .execute(analyticsPartitions);
+            log.info("Successfully fetched user analytics, found {} records", analytics.size());
+            return analytics;
+        }
         log.debug("Starting to fetch user analytics");
         try (Connection connection = getConnection();
                 PreparedStatement statement = connection.prepareStatement(GET_USER_ANALYTICS_SQL);
                 ResultSet resultSet = statement.executeQuery()) {
 
+            RowMapper<OrderAnalytics> mapper =
+                    RowMappers.ORDER_ANALYTICS.forColumns(resultSet.getMetaData());
             List<OrderAnalytics> analytics = new ArrayList<>();
             while (resultSet.next()) {
-                analytics.add(mapToOrderAnalytics(resultSet));
+                analytics.add(mapper.mapRow(resultSet));
             }
             log.info("Successfully fetched user analytics, found {} records", analytics.size());
             return analytics;
@@ -64,6 +150,29 @@ public class PostgresOrderRepository implements OrderRepository {
         }
     }
 
+    @Override
+    public Flow.Publisher<OrderAnalytics> publishUserAnalytics() {
+        return new JdbcPublisher<>(
+                dataSource,
+                GET_USER_ANALYTICS_SQL,
+                StatementBinder.NONE,
+                RowMappers.ORDER_ANALYTICS,
+                PUBLISHER_FETCH_SIZE);
+    }
+
+    /** Всегда одним запросом: разбиение на диапазоны не ускоряет последовательное чтение. */
+    @Override
+    public OrderAnalyticsBatch getUserAnalyticsBatch() throws DataAccessException {
+        log.debug("Starting to fetch user analytics batch");
+        OrderAnalyticsBatch batch =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                this::loadUserAnalyticsBatch);
+        log.info("Successfully fetched user analytics batch, found {} records", batch.size());
+        return batch;
+    }
+
     @Override
     public List<OrderAnalytics> getTopCustomers(int limit) throws DataAccessException {
         log.debug("Starting to fetch top {} customers", limit);
@@ -72,9 +181,11 @@ public class PostgresOrderRepository implements OrderRepository {
 
             statement.setInt(1, limit);
             try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<OrderAnalytics> mapper =
+                        RowMappers.ORDER_ANALYTICS.forColumns(resultSet.getMetaData());
                 List<OrderAnalytics> topCustomers = new ArrayList<>();
                 while (resultSet.next()) {
-                    topCustomers.add(mapToOrderAnalytics(resultSet));
+                    topCustomers.add(mapper.mapRow(resultSet));
                 }
                 log.info(
                         "Successfully fetched top {} customers, found {} records",
@@ -95,9 +206,11 @@ public class PostgresOrderRepository implements OrderRepository {
                 PreparedStatement statement = connection.prepareStatement(GET_MONTHLY_STATS_SQL);
                 ResultSet resultSet = statement.executeQuery()) {
 
+            RowMapper<MonthlyOrderStats> mapper =
+                    RowMappers.MONTHLY_ORDER_STATS.forColumns(resultSet.getMetaData());
             List<MonthlyOrderStats> stats = new ArrayList<>();
             while (resultSet.next()) {
-                stats.add(mapToMonthlyOrderStats(resultSet));
+                stats.add(mapper.mapRow(resultSet));
             }
             log.info("Successfully fetched monthly order stats, found {} records", stats.size());
             return stats;
@@ -107,28 +220,114 @@ public class PostgresOrderRepository implements OrderRepository {
         }
     }
 
+    @Override
+    public List<OrderStatsBucket> getOrderStats(
+            LocalDateTime from, LocalDateTime to, TimeGranularity granularity)
+            throws DataAccessException {
+        if (from == null || to == null || granularity == null) {
+            throw new DataAccessException(
+                    "Range bounds and granularity must not be null: from="
+                            + from
+                            + ", to="
+                            + to
+                            + ", granularity="
+                            + granularity);
+        }
+        if (!from.isBefore(to)) {
+            throw new DataAccessException("Empty range: [" + from + ", " + to + ")");
+        }
+        log.debug("Starting to fetch {} order stats for [{}, {})", granularity, from, to);
+        try (Connection connection = getConnection();
+                PreparedStatement statement =
+                        connection.prepareStatement(GET_ORDER_STATS_SQL.get(granularity))) {
+
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            Map<LocalDateTime, OrderStatsBucket> nonEmpty = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<OrderStatsBucket> mapper =
+                        RowMappers.ORDER_STATS_BUCKET.forColumns(resultSet.getMetaData());
+                while (resultSet.next()) {
+                    OrderStatsBucket bucket = mapper.mapRow(resultSet);
+                    nonEmpty.put(bucket.getBucketStart(), bucket);
+                }
+            }
+
+            List<OrderStatsBucket> buckets = new ArrayList<>();
+            for (LocalDateTime start = granularity.truncate(from);
+                    start.isBefore(to);
+                    start = granularity.next(start)) {
+                OrderStatsBucket bucket = nonEmpty.get(start);
+                buckets.add(
+                        bucket != null
+                                ? bucket
+                                : new OrderStatsBucket(start, 0, 0));
+            }
+            log.info(
+                    "Successfully fetched {} order stats, {} buckets, {} with orders",
+                    granularity,
+                    buckets.size(),
+                    nonEmpty.size());
+            return buckets;
+        } catch (SQLException e) {
+            log.error("Failed to get {} order stats for [{}, {})", granularity, from, to, e);
+            throw new DataAccessException("Failed to get order stats", e);
+        }
+    }
+
+    /**
+     * Сверяет столбцы всех запросов репозитория с их мапперами без выполнения запросов; имеет
+     * смысл вызывать при старте приложения.
+     *
+     * @throws DataAccessException если какой-либо запрос не совпадает со своим маппером
+     */
+    public void verifyQueryColumns() throws DataAccessException {
+        try (Connection connection = getConnection()) {
+            RowMappers.ORDER_ANALYTICS.verify(connection, GET_USER_ANALYTICS_SQL);
+            RowMappers.ORDER_ANALYTICS.verify(connection, GET_USER_ANALYTICS_RANGE_SQL);
+            RowMappers.ORDER_ANALYTICS.verify(connection, GET_TOP_CUSTOMERS_SQL);
+            RowMappers.MONTHLY_ORDER_STATS.verify(connection, GET_MONTHLY_STATS_SQL);
+            for (String sql : GET_ORDER_STATS_SQL.values()) {
+                RowMappers.ORDER_STATS_BUCKET.verify(connection, sql);
+            }
+        } catch (SQLException e) {
+            log.error("Order query columns do not match their mappers", e);
+            throw new DataAccessException("Order query columns do not match their mappers", e);
+        }
+    }
+
     private Connection getConnection() throws SQLException {
         log.debug("Getting database connection");
-        return DriverManager.getConnection(
-                testApplicationConfig.getUrl(),
-                testApplicationConfig.getUsername(),
-                testApplicationConfig.getPassword());
+        return UnitOfWork.getConnection(dataSource);
     }
 
-    private OrderAnalytics mapToOrderAnalytics(ResultSet rs) throws SQLException {
-        return new OrderAnalytics(
-                rs.getLong("user_id"),
-                rs.getInt("orders_count"),
-                rs.getBigDecimal("total_spent"),
-                rs.getBigDecimal("avg_order_value"));
+    private OrderAnalyticsBatch loadUserAnalyticsBatch() {
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(GET_USER_ANALYTICS_SQL)) {
+            // курсор PostgreSQL читает порциями только вне autocommit, см. UnitOfWork выше
+            statement.setFetchSize(BATCH_FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int[] columns = RowMappers.ORDER_ANALYTICS.indicesOf(resultSet.getMetaData());
+                OrderAnalyticsBatch.Builder batch = OrderAnalyticsBatch.builder(BATCH_FETCH_SIZE);
+                while (resultSet.next()) {
+                    batch.append(
+                            resultSet.getLong(columns[0]),
+                            resultSet.getInt(columns[1]),
+                            resultSet.getLong(columns[2]));
+                }
+                return batch.build();
+            }
+        } catch (SQLException e) {
+            log.error("Failed to get user analytics batch", e);
+            throw new DataAccessException("Failed to get user analytics batch", e);
+        }
     }
 
-    private MonthlyOrderStats mapToMonthlyOrderStats(ResultSet rs) throws SQLException {
-        return new MonthlyOrderStats(
-                rs.getInt("year"),
-                rs.getInt("month"),
-                rs.getInt("orders_count"),
-                rs.getBigDecimal("monthly_revenue"),
-                rs.getBigDecimal("avg_order_value"));
+    private static void bindUserIdRange(PreparedStatement statement, long from, long to)
+            throws SQLException {
+        statement.setLong(1, from);
+        statement.setLong(2, to);
+        statement.setLong(3, from);
+        statement.setLong(4, to);
     }
 }
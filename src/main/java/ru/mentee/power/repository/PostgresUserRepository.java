@@ -1,20 +1,27 @@
 /* @MENTEE_POWER (C)2025 */
 package ru.mentee.power.repository;
 
+import java.sql.Array;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import ru.mentee.power.config.DatabaseConfig;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import ru.mentee.power.connection.UnitOfWork;
 import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Page;
 import ru.mentee.power.model.User;
+import ru.mentee.power.repository.jdbc.JdbcStreams;
+import ru.mentee.power.repository.jdbc.RowMapper;
+import ru.mentee.power.repository.jdbc.StatementBinder;
 
 public class PostgresUserRepository implements UserRepository {
 
@@ -24,18 +31,62 @@ public class PostgresUserRepository implements UserRepository {
             "SELECT id, name, email, created_at FROM users WHERE id = ?";
     private static final String FIND_BY_EMAIL_QUERY =
             "SELECT id, name, email, created_at FROM users WHERE email = ?";
+    private static final String FIND_ALL_BY_IDS_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE id = ANY(?)";
+    private static final String FIND_ALL_BY_EMAILS_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE email = ANY(?)";
     private static final String FIND_BY_REG_DATE_QUERY =
             "SELECT id, name, email, created_at FROM users WHERE created_at >= ? ORDER BY"
                     + " created_at DESC";
     private static final String FIND_BY_NAME_PART_QUERY =
             "SELECT id, name, email, created_at FROM users WHERE name ILIKE ? ORDER BY created_at"
                     + " DESC";
+    private static final String FIND_ALL_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users ORDER BY created_at DESC, id DESC"
+                    + " LIMIT ?";
+    private static final String FIND_ALL_NEXT_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE (created_at, id) < (?, ?)"
+                    + " ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String FIND_BY_REG_DATE_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE created_at >= ? ORDER BY"
+                    + " created_at DESC, id DESC LIMIT ?";
+    private static final String FIND_BY_REG_DATE_NEXT_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE created_at >= ? AND"
+                    + " (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String FIND_BY_NAME_PART_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE name ILIKE ? ORDER BY created_at"
+                    + " DESC, id DESC LIMIT ?";
+    private static final String FIND_BY_NAME_PART_NEXT_PAGE_QUERY =
+            "SELECT id, name, email, created_at FROM users WHERE name ILIKE ? AND (created_at,"
+                    + " id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
     private static final String COUNT_QUERY = "SELECT COUNT(*) FROM users";
+    private static final List<String> USER_QUERIES =
+            List.of(
+                    FIND_ALL_QUERY,
+                    FIND_BY_ID_QUERY,
+                    FIND_BY_EMAIL_QUERY,
+                    FIND_ALL_BY_IDS_QUERY,
+                    FIND_ALL_BY_EMAILS_QUERY,
+                    FIND_BY_REG_DATE_QUERY,
+                    FIND_BY_NAME_PART_QUERY,
+                    FIND_ALL_PAGE_QUERY,
+                    FIND_ALL_NEXT_PAGE_QUERY,
+                    FIND_BY_REG_DATE_PAGE_QUERY,
+                    FIND_BY_REG_DATE_NEXT_PAGE_QUERY,
+                    FIND_BY_NAME_PART_PAGE_QUERY,
+                    FIND_BY_NAME_PART_NEXT_PAGE_QUERY);
+    private static final int DEFAULT_FETCH_SIZE = 500;
 
-    private final DatabaseConfig databaseConfig;
+    private final DataSource dataSource;
+    private final int fetchSize;
 
-    public PostgresUserRepository(DatabaseConfig databaseConfig) { // Изменено на интерфейс
-        this.databaseConfig = databaseConfig;
+    public PostgresUserRepository(DataSource dataSource) {
+        this(dataSource, DEFAULT_FETCH_SIZE);
+    }
+
+    public PostgresUserRepository(DataSource dataSource, int fetchSize) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -43,6 +94,23 @@ public class PostgresUserRepository implements UserRepository {
         return executeQuery(FIND_ALL_QUERY);
     }
 
+    @Override
+    public Page<User> findAll(String pageToken, int pageSize) throws DataAccessException {
+        return executePageQuery(
+                FIND_ALL_PAGE_QUERY,
+                FIND_ALL_NEXT_PAGE_QUERY,
+                StatementBinder.NONE,
+                0,
+                pageToken,
+                pageSize);
+    }
+
+    @Override
+    public Stream<User> streamAll() throws DataAccessException {
+        return JdbcStreams.stream(
+                dataSource, FIND_ALL_QUERY, StatementBinder.NONE, RowMappers.USER, fetchSize);
+    }
+
     @Override
     public Optional<User> findById(Long id) throws DataAccessException {
         if (id == null) {
@@ -52,7 +120,9 @@ public class PostgresUserRepository implements UserRepository {
                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             statement.setLong(1, id);
             try (ResultSet resultSet = statement.executeQuery()) {
-                return resultSet.next() ? Optional.of(mapRow(resultSet)) : Optional.empty();
+                return resultSet.next()
+                        ? Optional.of(RowMappers.USER.mapRow(resultSet))
+                        : Optional.empty();
             }
         } catch (SQLException exception) {
             throw new DataAccessException("Ошибка нахождения по ID: " + id, exception);
@@ -68,7 +138,9 @@ public class PostgresUserRepository implements UserRepository {
                 PreparedStatement statement = connection.prepareStatement(FIND_BY_EMAIL_QUERY)) {
             statement.setString(1, email);
             try (ResultSet resultSet = statement.executeQuery()) {
-                return resultSet.next() ? Optional.of(mapRow(resultSet)) : Optional.empty();
+                return resultSet.next()
+                        ? Optional.of(RowMappers.USER.mapRow(resultSet))
+                        : Optional.empty();
             }
         } catch (SQLException exception) {
             throw new DataAccessException(
@@ -76,6 +148,22 @@ public class PostgresUserRepository implements UserRepository {
         }
     }
 
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) throws DataAccessException {
+        if (ids == null) {
+            throw new DataAccessException("Ошибка нахождения по списку ID: null");
+        }
+        return executeArrayQuery(FIND_ALL_BY_IDS_QUERY, "bigint", ids);
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) throws DataAccessException {
+        if (emails == null) {
+            throw new DataAccessException("Ошибка нахождения пользователей по списку email: null");
+        }
+        return executeArrayQuery(FIND_ALL_BY_EMAILS_QUERY, "varchar", emails);
+    }
+
     @Override
     public List<User> findByRegistrationDateAfter(LocalDate registrationDate)
             throws DataAccessException {
@@ -92,6 +180,40 @@ public class PostgresUserRepository implements UserRepository {
         }
     }
 
+    @Override
+    public Page<User> findByRegistrationDateAfter(
+            LocalDate registrationDate, String pageToken, int pageSize)
+            throws DataAccessException {
+        if (registrationDate == null) {
+            throw new DataAccessException("Ошибка нахождения пользователей после даты: null");
+        }
+        return executePageQuery(
+                FIND_BY_REG_DATE_PAGE_QUERY,
+                FIND_BY_REG_DATE_NEXT_PAGE_QUERY,
+                statement ->
+                        statement.setTimestamp(
+                                1, Timestamp.valueOf(registrationDate.atStartOfDay())),
+                1,
+                pageToken,
+                pageSize);
+    }
+
+    @Override
+    public Stream<User> streamByRegistrationDateAfter(LocalDate registrationDate)
+            throws DataAccessException {
+        if (registrationDate == null) {
+            throw new DataAccessException("Ошибка нахождения пользователей после даты: null");
+        }
+        return JdbcStreams.stream(
+                dataSource,
+                FIND_BY_REG_DATE_QUERY,
+                statement ->
+                        statement.setTimestamp(
+                                1, Timestamp.valueOf(registrationDate.atStartOfDay())),
+                RowMappers.USER,
+                fetchSize);
+    }
+
     @Override
     public List<User> findByNameContaining(String namePart) throws DataAccessException {
         if (namePart == null) {
@@ -108,34 +230,122 @@ public class PostgresUserRepository implements UserRepository {
         }
     }
 
+    @Override
+    public Page<User> findByNameContaining(String namePart, String pageToken, int pageSize)
+            throws DataAccessException {
+        if (namePart == null) {
+            throw new DataAccessException("Ошибка нахождения пользователей по части имени: null");
+        }
+        return executePageQuery(
+                FIND_BY_NAME_PART_PAGE_QUERY,
+                FIND_BY_NAME_PART_NEXT_PAGE_QUERY,
+                statement -> statement.setString(1, "%" + namePart + "%"),
+                1,
+                pageToken,
+                pageSize);
+    }
+
     @Override
     public long count() throws DataAccessException {
         try (Connection connection = getConnection();
-                Statement statement = connection.createStatement();
-                ResultSet resultSet = statement.executeQuery(COUNT_QUERY)) {
+                PreparedStatement statement = connection.prepareStatement(COUNT_QUERY);
+                ResultSet resultSet = statement.executeQuery()) {
             return resultSet.next() ? resultSet.getLong(1) : 0;
         } catch (SQLException exception) {
             throw new DataAccessException("Ошибка подсчёта пользователей", exception);
         }
     }
 
+    /**
+     * Сверяет столбцы всех запросов пользователей с {@link User} без выполнения запросов.
+     *
+     * @throws DataAccessException если какой-либо запрос не совпадает с маппером
+     */
+    public void verifyQueryColumns() throws DataAccessException {
+        try (Connection connection = getConnection()) {
+            for (String query : USER_QUERIES) {
+                RowMappers.USER.verify(connection, query);
+            }
+        } catch (SQLException exception) {
+            throw new DataAccessException(
+                    "Столбцы запросов пользователей не совпадают с маппером", exception);
+        }
+    }
+
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                databaseConfig.getUrl(),
-                databaseConfig.getUsername(),
-                databaseConfig.getPassword());
+        return UnitOfWork.getConnection(dataSource);
     }
 
     private List<User> executeQuery(String query) throws DataAccessException {
         try (Connection connection = getConnection();
-                Statement statement = connection.createStatement();
-                ResultSet resultSet = statement.executeQuery(query)) {
+                PreparedStatement statement = connection.prepareStatement(query);
+                ResultSet resultSet = statement.executeQuery()) {
             return collectResults(resultSet);
         } catch (SQLException ex) {
             throw new DataAccessException("Ошибка исполняемой очереди: " + query, ex);
         }
     }
 
+    private List<User> executeArrayQuery(String query, String elementType, Collection<?> keys)
+            throws DataAccessException {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Object[] distinctKeys = new LinkedHashSet<>(keys).toArray();
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(query)) {
+            Array array = connection.createArrayOf(elementType, distinctKeys);
+            try {
+                statement.setArray(1, array);
+                return executeStatement(statement);
+            } finally {
+                array.free();
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(
+                    "Ошибка пакетного запроса по " + distinctKeys.length + " ключам", ex);
+        }
+    }
+
+    private Page<User> executePageQuery(
+            String firstPageQuery,
+            String nextPageQuery,
+            StatementBinder filter,
+            int filterParameterCount,
+            String pageToken,
+            int pageSize)
+            throws DataAccessException {
+        if (pageSize <= 0 || pageSize > KeysetPageToken.MAX_PAGE_SIZE) {
+            throw new DataAccessException(
+                    "Размер страницы должен быть от 1 до "
+                            + KeysetPageToken.MAX_PAGE_SIZE
+                            + ": "
+                            + pageSize);
+        }
+        KeysetPageToken after = pageToken == null ? null : KeysetPageToken.decode(pageToken);
+        String query = after == null ? firstPageQuery : nextPageQuery;
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(query)) {
+            filter.bind(statement);
+            int index = filterParameterCount + 1;
+            if (after != null) {
+                statement.setTimestamp(index++, Timestamp.valueOf(after.getCreatedAt()));
+                statement.setLong(index++, after.getId());
+            }
+            statement.setInt(index, pageSize + 1);
+            List<User> users = executeStatement(statement);
+            if (users.size() <= pageSize) {
+                return new Page<>(users, null);
+            }
+            List<User> items = new ArrayList<>(users.subList(0, pageSize));
+            User last = items.get(pageSize - 1);
+            return new Page<>(
+                    items, KeysetPageToken.after(last.getCreatedAt(), last.getId()).encode());
+        } catch (SQLException ex) {
+            throw new DataAccessException("Ошибка постраничного запроса: " + query, ex);
+        }
+    }
+
     private List<User> executeStatement(PreparedStatement stmt) throws SQLException {
         try (ResultSet rs = stmt.executeQuery()) {
             return collectResults(rs);
@@ -143,19 +353,11 @@ public class PostgresUserRepository implements UserRepository {
     }
 
     private List<User> collectResults(ResultSet rs) throws SQLException {
+        RowMapper<User> mapper = RowMappers.USER.forColumns(rs.getMetaData());
         List<User> users = new ArrayList<>();
         while (rs.next()) {
-            users.add(mapRow(rs));
+            users.add(mapper.mapRow(rs));
         }
         return users;
     }
-
-    private User mapRow(ResultSet rs) throws SQLException {
-        return User.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
-                .email(rs.getString("email"))
-                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
-                .build();
-    }
 }
@@ -0,0 +1,163 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.model.OrderItemDetails;
+import ru.mentee.power.model.OrderWithItems;
+import ru.mentee.power.model.ProductSalesInfo;
+import ru.mentee.power.model.User;
+import ru.mentee.power.model.UserOrderCount;
+import ru.mentee.power.model.UserOrderSummary;
+import ru.mentee.power.repository.jdbc.ColumnMapper;
+
+/**
+ * Мапперы строк для моделей репозиториев. Порядок столбцов в списке совпадает с порядком
+ * индексов в коде чтения; соответствие запросам проверяют {@code verifyQueryColumns()}
+ * репозиториев.
+ */
+final class RowMappers {
+
+    static final ColumnMapper<OrderAnalytics> ORDER_ANALYTICS =
+            ColumnMapper.of(
+                    OrderAnalytics.class,
+                    List.of("user_id", "orders_count", "total_spent_cents"),
+                    (rs, c) ->
+                            new OrderAnalytics(
+                                    rs.getLong(c[0]), rs.getInt(c[1]), rs.getLong(c[2])));
+
+    static final ColumnMapper<MonthlyOrderStats> MONTHLY_ORDER_STATS =
+            ColumnMapper.of(
+                    MonthlyOrderStats.class,
+                    List.of("year", "month", "orders_count", "monthly_revenue_cents"),
+                    (rs, c) ->
+                            new MonthlyOrderStats(
+                                    rs.getInt(c[0]),
+                                    rs.getInt(c[1]),
+                                    rs.getInt(c[2]),
+                                    rs.getLong(c[3])));
+
+    static final ColumnMapper<OrderStatsBucket> ORDER_STATS_BUCKET =
+            ColumnMapper.of(
+                    OrderStatsBucket.class,
+                    List.of("bucket_start", "orders_count", "revenue_cents"),
+                    (rs, c) ->
+                            new OrderStatsBucket(
+                                    rs.getTimestamp(c[0]).toLocalDateTime(),
+                                    rs.getInt(c[1]),
+                                    rs.getLong(c[2])));
+
+    static final ColumnMapper<UserOrderSummary> USER_ORDER_SUMMARY =
+            ColumnMapper.of(
+                    UserOrderSummary.class,
+                    List.of("user_id", "user_name", "email", "orders_count", "total_spent_cents"),
+                    (rs, c) ->
+                            new UserOrderSummary(
+                                    rs.getLong(c[0]),
+                                    rs.getString(c[1]),
+                                    rs.getString(c[2]),
+                                    rs.getInt(c[3]),
+                                    rs.getLong(c[4])));
+
+    static final ColumnMapper<UserOrderCount> USER_ORDER_COUNT =
+            ColumnMapper.of(
+                    UserOrderCount.class,
+                    List.of("id", "name", "email", "order_count", "total_spent_cents"),
+                    (rs, c) ->
+                            new UserOrderCount(
+                                    rs.getLong(c[0]),
+                                    rs.getString(c[1]),
+                                    rs.getString(c[2]),
+                                    rs.getInt(c[3]),
+                                    rs.getLong(c[4])));
+
+    static final ColumnMapper<ProductSalesInfo> PRODUCT_SALES_INFO =
+            ColumnMapper.of(
+                    ProductSalesInfo.class,
+                    List.of("id", "name", "category", "sales_count", "total_quantity"),
+                    (rs, c) ->
+                            new ProductSalesInfo(
+                                    rs.getLong(c[0]),
+                                    rs.getString(c[1]),
+                                    rs.getString(c[2]),
+                                    rs.getInt(c[3]),
+                                    rs.getInt(c[4])));
+
+    static final ColumnMapper<User> USER =
+            ColumnMapper.of(
+                    User.class,
+                    List.of("id", "name", "email", "created_at"),
+                    (rs, c) ->
+                            User.builder()
+                                    .id(rs.getLong(c[0]))
+                                    .name(rs.getString(c[1]))
+                                    .email(rs.getString(c[2]))
+                                    .createdAt(rs.getTimestamp(c[3]).toLocalDateTime())
+                                    .build());
+
+    /**
+     * Строка плоского соединения заказа с одной позицией. Сам маппер даёт заказ с не более чем
+     * одной позицией; заказ целиком собирают из соседних строк через {@link #orderWithItems} и
+     * {@link #orderItem}.
+     */
+    static final ColumnMapper<OrderWithItems> ORDER_WITH_ITEM =
+            ColumnMapper.of(
+                    OrderWithItems.class,
+                    List.of(
+                            "order_id",
+                            "user_id",
+                            "total_cents",
+                            "status",
+                            "created_at",
+                            "product_id",
+                            "product_name",
+                            "category",
+                            "quantity",
+                            "price_cents"),
+                    (rs, c) -> {
+                        List<OrderItemDetails> items = new ArrayList<>(1);
+                        OrderItemDetails item = orderItem(rs, c);
+                        if (item != null) {
+                            items.add(item);
+                        }
+                        return orderWithItems(rs, c, items);
+                    });
+
+    private RowMappers() {}
+
+    /** Заказ из столбцов {@link #ORDER_WITH_ITEM}; позиции добавляются в {@code items} позже. */
+    static OrderWithItems orderWithItems(ResultSet rs, int[] c, List<OrderItemDetails> items)
+            throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(c[4]);
+        return new OrderWithItems(
+                rs.getLong(c[0]),
+                rs.getLong(c[1]),
+                rs.getLong(c[2]),
+                rs.getString(c[3]),
+                createdAt == null ? null : createdAt.toLocalDateTime(),
+                items);
+    }
+
+    /**
+     * Позиция из столбцов {@link #ORDER_WITH_ITEM} или {@code null}, если у заказа нет позиций и
+     * строку дало внешнее соединение.
+     */
+    static OrderItemDetails orderItem(ResultSet rs, int[] c) throws SQLException {
+        long productId = rs.getLong(c[5]);
+        if (rs.wasNull()) {
+            return null;
+        }
+        return new OrderItemDetails(
+                productId,
+                rs.getString(c[6]),
+                rs.getString(c[7]),
+                rs.getInt(c[8]),
+                rs.getLong(c[9]));
+    }
+}
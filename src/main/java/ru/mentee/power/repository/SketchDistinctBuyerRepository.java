@@ -0,0 +1,96 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.analytics.BuyerDimension;
+import ru.mentee.power.analytics.DistinctBuyerSketches;
+import ru.mentee.power.analytics.HyperLogLog;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.DistinctCountEstimate;
+
+/**
+ * {@link DistinctBuyerRepository} по скетчам из таблицы {@code buyer_sketches}, сохранённым {@link
+ * DistinctBuyerSketches#save(DataSource)}. Диапазон месяцев читает по одному скетчу на месяц и
+ * сливает их в памяти. Оценки отстают от заказов до следующего сохранения скетчей.
+ */
+@Slf4j
+public class SketchDistinctBuyerRepository implements DistinctBuyerRepository {
+
+    // Ключи месяцев в формате YYYY-MM упорядочены как строки, поэтому BETWEEN задаёт диапазон
+    private static final String GET_MONTH_SKETCHES_SQL =
+            "SELECT sketch FROM buyer_sketches WHERE dimension = ? AND bucket BETWEEN ? AND ?";
+
+    private static final String GET_SKETCH_SQL =
+            "SELECT sketch FROM buyer_sketches WHERE dimension = ? AND bucket = ?";
+
+    private final DataSource dataSource;
+
+    public SketchDistinctBuyerRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public DistinctCountEstimate countBuyers(YearMonth from, YearMonth to)
+            throws DataAccessException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        log.debug("Estimating distinct buyers from {} to {}", from, to);
+        return estimate(
+                GET_MONTH_SKETCHES_SQL,
+                BuyerDimension.MONTH.name(),
+                from.toString(),
+                to.toString());
+    }
+
+    @Override
+    public DistinctCountEstimate countProductBuyers(long productId) throws DataAccessException {
+        log.debug("Estimating distinct buyers of product {}", productId);
+        return estimate(GET_SKETCH_SQL, BuyerDimension.PRODUCT.name(), String.valueOf(productId));
+    }
+
+    @Override
+    public DistinctCountEstimate countCategoryBuyers(String category) throws DataAccessException {
+        log.debug("Estimating distinct buyers in category {}", category);
+        return estimate(GET_SKETCH_SQL, BuyerDimension.CATEGORY.name(), category);
+    }
+
+    private DistinctCountEstimate estimate(String sql, String... parameters) {
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            HyperLogLog merged = null;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    HyperLogLog sketch = HyperLogLog.fromBytes(resultSet.getBytes("sketch"));
+                    if (merged == null) {
+                        merged = sketch;
+                    } else {
+                        merged.merge(sketch);
+                    }
+                }
+            }
+            return merged == null
+                    ? new DistinctCountEstimate(0, 0)
+                    : new DistinctCountEstimate(merged.estimate(), merged.relativeError());
+        } catch (SQLException e) {
+            log.error("Failed to estimate distinct buyers for {}", List.of(parameters), e);
+            throw new DataAccessException("Failed to estimate distinct buyers", e);
+        }
+    }
+
+    private Connection getConnection() throws SQLException {
+        return UnitOfWork.getConnection(dataSource);
+    }
+}
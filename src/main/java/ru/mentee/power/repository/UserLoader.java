@@ -0,0 +1,62 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.User;
+
+/**
+ * Объединяет одиночные {@code findById}/{@code findByEmail} из конкурентных обработчиков в пакетные
+ * запросы {@link UserRepository#findAllByIds} и {@link UserRepository#findAllByEmails}.
+ */
+public class UserLoader {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    private final BatchingLoader<Long, User> byId;
+    private final BatchingLoader<String, User> byEmail;
+
+    public UserLoader(UserRepository userRepository) {
+        this(userRepository, DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public UserLoader(UserRepository userRepository, Duration window, int maxBatchSize) {
+        this.byId =
+                new BatchingLoader<>(
+                        ids -> index(userRepository.findAllByIds(ids), User::getId),
+                        window,
+                        maxBatchSize);
+        this.byEmail =
+                new BatchingLoader<>(
+                        emails -> index(userRepository.findAllByEmails(emails), User::getEmail),
+                        window,
+                        maxBatchSize);
+    }
+
+    public CompletableFuture<Optional<User>> loadById(Long id) {
+        if (id == null) {
+            return CompletableFuture.failedFuture(
+                    new DataAccessException("Ошибка нахождения по ID: null"));
+        }
+        return byId.load(id);
+    }
+
+    public CompletableFuture<Optional<User>> loadByEmail(String email) {
+        if (email == null) {
+            return CompletableFuture.failedFuture(
+                    new DataAccessException("Ошибка нахождения пользователя по email: null"));
+        }
+        return byEmail.load(email);
+    }
+
+    private static <K> Map<K, User> index(List<User> users, Function<User, K> keyExtractor) {
+        return users.stream().collect(Collectors.toMap(keyExtractor, Function.identity()));
+    }
+}
@@ -2,7 +2,10 @@
 package ru.mentee.power.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
 import ru.mentee.power.exception.DataAccessException;
 import ru.mentee.power.model.*;
 
@@ -30,6 +33,23 @@ public interface UserOrderRepository {
      */
     List<UserOrderCount> getAllUsersWithOrderCount() throws DataAccessException;
 
+    /**
+     * Реактивный вариант {@link #getAllUsersWithOrderCount()} с учётом запроса подписчика.
+     * Соединение освобождается при завершении, ошибке или отмене подписки.
+     *
+     * @return публикатор пользователей с количеством заказов
+     */
+    Flow.Publisher<UserOrderCount> publishAllUsersWithOrderCount();
+
+    /**
+     * Колоночный вариант {@link #getAllUsersWithOrderCount()}: строки читаются одним
+     * проходом курсора в параллельные массивы без объекта {@link UserOrderCount} на строку.
+     *
+     * @return все пользователи с количеством и суммой заказов
+     * @throws DataAccessException если произошла ошибка при работе с БД
+     */
+    UserOrderCountBatch getAllUsersWithOrderCountBatch() throws DataAccessException;
+
     /**
      * Найти топ продаваемые товары с информацией о количестве заказов.
      * Использует JOIN между products, order_items и orders.
@@ -39,4 +59,32 @@ public interface UserOrderRepository {
      * @throws DataAccessException если произошла ошибка при работе с БД
      */
     List<ProductSalesInfo> getTopSellingProducts(int limit) throws DataAccessException;
+
+    /**
+     * Страница заказов пользователя, новые первыми, с позициями и товарами. Заказы страницы,
+     * их позиции и товары читаются одним запросом; страницы выбираются по условию {@code
+     * (created_at, id) < (?, ?)}. Заказы без {@code created_at} в историю не входят: их место
+     * в порядке страниц не определено.
+     *
+     * @param userId id пользователя
+     * @param pageToken токен из предыдущей страницы или {@code null} для первой страницы
+     * @param pageSize число заказов на странице, от 1 до 1000
+     * @return страница заказов с позициями
+     * @throws DataAccessException при ошибках доступа к БД или некорректном токене
+     */
+    Page<OrderWithItems> findOrderHistory(long userId, String pageToken, int pageSize)
+            throws DataAccessException;
+
+    /**
+     * Последние заказы с позициями сразу для многих пользователей одним запросом — пакетный
+     * вариант {@link #findOrderHistory} вместо запроса на каждого пользователя.
+     *
+     * @param userIds id пользователей
+     * @param ordersPerUser сколько последних заказов вернуть на пользователя
+     * @return заказы по id пользователя, новые первыми; у каждого запрошенного id есть запись,
+     *     возможно с пустым списком
+     * @throws DataAccessException если произошла ошибка при работе с БД
+     */
+    Map<Long, List<OrderWithItems>> findOrderHistories(Collection<Long> userIds, int ordersPerUser)
+            throws DataAccessException;
 }
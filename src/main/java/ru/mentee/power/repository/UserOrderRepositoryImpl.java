@@ -2,23 +2,39 @@
 package ru.mentee.power.repository;
 
 import java.math.BigDecimal;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
 import javax.sql.DataSource;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
 import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.OrderItemDetails;
+import ru.mentee.power.model.OrderWithItems;
+import ru.mentee.power.model.Page;
 import ru.mentee.power.model.ProductSalesInfo;
 import ru.mentee.power.model.UserOrderCount;
+import ru.mentee.power.model.UserOrderCountBatch;
 import ru.mentee.power.model.UserOrderSummary;
+import ru.mentee.power.repository.jdbc.JdbcPublisher;
+import ru.mentee.power.repository.jdbc.PartitionedQuery;
+import ru.mentee.power.repository.jdbc.RowMapper;
+import ru.mentee.power.repository.jdbc.StatementBinder;
 
-@AllArgsConstructor
 @Slf4j
 public class UserOrderRepositoryImpl implements UserOrderRepository {
 
@@ -31,12 +47,12 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
               u.name as user_name,
               u.email,
               COUNT(o.id) as orders_count,
-              SUM(o.total) as total_spent
+              CAST(SUM(o.total) * 100 AS BIGINT) as total_spent_cents
           FROM users u
           INNER JOIN orders o ON u.id = o.user_id
           GROUP BY u.id, u.name, u.email
           HAVING SUM(o.total) > ?
-          ORDER BY total_spent DESC
+          ORDER BY total_spent_cents DESC
           """;
 
     private static final String GET_ALL_USERS_WITH_ORDER_COUNT_SQL =
@@ -46,19 +62,41 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
                         u.name,
                         u.email,
                         COUNT(o.id) AS order_count,
-                        COALESCE(SUM(o.total), 0) AS total_spent
+                        CAST(COALESCE(SUM(o.total), 0) * 100 AS BIGINT) AS total_spent_cents
                     FROM users u
                     LEFT JOIN orders o ON u.id = o.user_id
                     GROUP BY u.id, u.name, u.email
                     ORDER BY order_count DESC
       """;
 
-    private static final String GET_TOP_SELLING_PRODUCTS_SQL =
+    private static final String GET_ALL_USERS_WITH_ORDER_COUNT_RANGE_SQL =
+            """
+                SELECT
+                        u.id,
+                        u.name,
+                        u.email,
+                        COUNT(o.id) AS order_count,
+                        CAST(COALESCE(SUM(o.total), 0) * 100 AS BIGINT) AS total_spent_cents
+                    FROM users u
+                    LEFT JOIN orders o ON u.id = o.user_id
+                        AND o.user_id >= ? AND o.user_id < ?
+                    WHERE u.id >= ? AND u.id < ?
+                    GROUP BY u.id, u.name, u.email
+                    ORDER BY order_count DESC, u.id
+      """;
+
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM users";
+
+    private static final Comparator<UserOrderCount> BY_ORDER_COUNT_DESC =
+            Comparator.comparingInt(UserOrderCount::getOrdersCount)
+                    .reversed()
+                    .thenComparing(UserOrderCount::getUserId);
+
+    static final String GET_TOP_SELLING_PRODUCTS_SQL =
             """
     SELECT
         p.id,
         p.name,
-        p.price,
         p.category,
         COUNT(oi.id) AS sales_count,
         SUM(oi.quantity) AS total_quantity
@@ -70,14 +108,101 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
     LIMIT ?
     """;
 
+    private static final String ORDER_HISTORY_COLUMNS =
+            """
+    SELECT
+        o.id AS order_id,
+        o.user_id,
+        o.total_cents,
+        o.status,
+        o.created_at,
+        oi.product_id,
+        p.name AS product_name,
+        p.category,
+        oi.quantity,
+        CAST(oi.price * 100 AS BIGINT) AS price_cents
+    """;
+
+    private static final String ORDER_HISTORY_ITEMS_JOIN =
+            """
+    LEFT JOIN order_items oi ON oi.order_id = o.id
+    LEFT JOIN products p ON p.id = oi.product_id
+    """;
+
+    private static final String FIND_ORDER_HISTORY_SQL =
+            ORDER_HISTORY_COLUMNS
+                    + """
+    FROM (
+        SELECT id, user_id, CAST(total * 100 AS BIGINT) AS total_cents, status, created_at
+        FROM orders
+        WHERE user_id = ? AND created_at IS NOT NULL
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
+    ) o
+    """
+                    + ORDER_HISTORY_ITEMS_JOIN
+                    + "ORDER BY o.created_at DESC, o.id DESC, oi.id";
+
+    private static final String FIND_ORDER_HISTORY_NEXT_PAGE_SQL =
+            ORDER_HISTORY_COLUMNS
+                    + """
+    FROM (
+        SELECT id, user_id, CAST(total * 100 AS BIGINT) AS total_cents, status, created_at
+        FROM orders
+        WHERE user_id = ? AND (created_at, id) < (?, ?)
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
+    ) o
+    """
+                    + ORDER_HISTORY_ITEMS_JOIN
+                    + "ORDER BY o.created_at DESC, o.id DESC, oi.id";
+
+    // LATERAL читает по индексу (user_id, created_at, id) только первые строки каждого
+    // пользователя, а не нумерует все его заказы
+    private static final String FIND_ORDER_HISTORIES_SQL =
+            ORDER_HISTORY_COLUMNS
+                    + """
+    FROM users u
+    CROSS JOIN LATERAL (
+        SELECT id, user_id, CAST(total * 100 AS BIGINT) AS total_cents, status, created_at
+        FROM orders
+        WHERE user_id = u.id AND created_at IS NOT NULL
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
+    ) o
+    """
+                    + ORDER_HISTORY_ITEMS_JOIN
+                    + "WHERE u.id = ANY(?)\n"
+                    + "ORDER BY o.user_id, o.created_at DESC, o.id DESC, oi.id";
+
+    private static final int PUBLISHER_FETCH_SIZE = 500;
+    private static final int BATCH_FETCH_SIZE = 10_000;
+
     private final DataSource dataSource;
+    private final int analyticsPartitions;
+
+    public UserOrderRepositoryImpl(DataSource dataSource) {
+        this(dataSource, 1);
+    }
+
+    /**
+     * @param analyticsPartitions на сколько диапазонов id пользователей делить {@link
+     *     #getAllUsersWithOrderCount()}; диапазоны выполняются параллельно в общем снимке данных
+     */
+    public UserOrderRepositoryImpl(DataSource dataSource, int analyticsPartitions) {
+        if (analyticsPartitions <= 0) {
+            throw new IllegalArgumentException("analyticsPartitions must be positive");
+        }
+        this.dataSource = dataSource;
+        this.analyticsPartitions = analyticsPartitions;
+    }
 
     @Override
     public List<UserOrderSummary> findUsersWithTotalAbove(BigDecimal minTotal)
             throws DataAccessException {
         logger.info("Finding users with total orders above {}", minTotal);
 
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement =
                         connection.prepareStatement(FIND_USERS_WITH_TOTAL_ABOVE_SQL)) {
 
@@ -87,9 +212,11 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
             logger.debug("With parameter: minTotal = {}", minTotal);
 
             try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<UserOrderSummary> mapper =
+                        RowMappers.USER_ORDER_SUMMARY.forColumns(resultSet.getMetaData());
                 List<UserOrderSummary> result = new ArrayList<>();
                 while (resultSet.next()) {
-                    result.add(mapToUserOrderSummary(resultSet));
+                    result.add(mapper.mapRow(resultSet));
                 }
                 logger.debug("Found {} users with total orders above {}", result.size(), minTotal);
                 return result;
@@ -103,17 +230,35 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
     @Override
     public List<UserOrderCount> getAllUsersWithOrderCount() throws DataAccessException {
         logger.info("Getting all users with their order counts");
+        if (analyticsPartitions > 1) {
+            List<UserOrderCount> result =
+                    new PartitionedQuery<>(
+                                    dataSource,
+                                    USER_ID_BOUNDS_SQL,
+                                    GET_ALL_USERS_WITH_ORDER_COUNT_RANGE_SQL,
+                                    UserOrderRepositoryImpl::bindUserIdRange,
+                                    RowMappers.USER_ORDER_COUNT,
+                                    BY_ORDER_COUNT_DESC)
+                            .execute(analyticsPartitions);
+            logger.debug(
+                    "Found {} users with order counts in {} partitions",
+                    result.size(),
+                    analyticsPartitions);
+            return result;
+        }
 
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = getConnection();
                 PreparedStatement statement =
                         connection.prepareStatement(GET_ALL_USERS_WITH_ORDER_COUNT_SQL)) {
 
             logger.debug("Executing SQL query: {}", GET_ALL_USERS_WITH_ORDER_COUNT_SQL);
 
             try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<UserOrderCount> mapper =
+                        RowMappers.USER_ORDER_COUNT.forColumns(resultSet.getMetaData());
                 List<UserOrderCount> result = new ArrayList<>();
                 while (resultSet.next()) {
-                    result.add(mapToUserOrderCount(resultSet));
+                    result.add(mapper.mapRow(resultSet));
                 }
                 logger.debug("Found {} users with order counts", result.size());
                 return result;
@@ -124,6 +269,28 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
         }
     }
 
+    @Override
+    public Flow.Publisher<UserOrderCount> publishAllUsersWithOrderCount() {
+        return new JdbcPublisher<>(
+                dataSource,
+                GET_ALL_USERS_WITH_ORDER_COUNT_SQL,
+                StatementBinder.NONE,
+                RowMappers.USER_ORDER_COUNT,
+                PUBLISHER_FETCH_SIZE);
+    }
+
+    @Override
+    public UserOrderCountBatch getAllUsersWithOrderCountBatch() throws DataAccessException {
+        logger.info("Getting all users with their order counts as a batch");
+        UserOrderCountBatch batch =
+                new UnitOfWork(dataSource)
+                        .execute(
+                                TransactionOptions.readOnlySnapshot(),
+                                this::loadUsersWithOrderCountBatch);
+        logger.debug("Found {} users with order counts", batch.size());
+        return batch;
+    }
+
     @Override
     public List<ProductSalesInfo> getTopSellingProducts(int limit) throws DataAccessException {
         logger.info("Getting top {} selling products", limit);
@@ -132,16 +299,18 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
             throw new DataAccessException("Limit cannot be negative");
         }
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = getConnection();
                 PreparedStatement stmt = conn.prepareStatement(GET_TOP_SELLING_PRODUCTS_SQL)) {
 
             stmt.setInt(1, limit);
             logger.debug("Executing query: {} with limit: {}", GET_TOP_SELLING_PRODUCTS_SQL, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<ProductSalesInfo> mapper =
+                        RowMappers.PRODUCT_SALES_INFO.forColumns(rs.getMetaData());
                 List<ProductSalesInfo> result = new ArrayList<>();
                 while (rs.next()) {
-                    result.add(mapToProductSalesInfo(rs));
+                    result.add(mapper.mapRow(rs));
                 }
                 logger.debug("Found {} top selling products", result.size());
                 return result;
@@ -152,40 +321,175 @@ public class UserOrderRepositoryImpl implements UserOrderRepository {
         }
     }
 
-    private UserOrderSummary mapToUserOrderSummary(ResultSet rs) throws SQLException {
-        try {
-            return new UserOrderSummary(
-                    rs.getLong("user_id"),
-                    rs.getString("user_name"),
-                    rs.getString("email"),
-                    rs.getInt("orders_count"),
-                    rs.getBigDecimal("total_spent"));
+    @Override
+    public Page<OrderWithItems> findOrderHistory(long userId, String pageToken, int pageSize)
+            throws DataAccessException {
+        logger.info("Finding order history of user {} with page size {}", userId, pageSize);
+
+        if (pageSize <= 0 || pageSize > KeysetPageToken.MAX_PAGE_SIZE) {
+            throw new DataAccessException(
+                    "Page size must be between 1 and "
+                            + KeysetPageToken.MAX_PAGE_SIZE
+                            + ": "
+                            + pageSize);
+        }
+        KeysetPageToken after = pageToken == null ? null : KeysetPageToken.decode(pageToken);
+        String query = after == null ? FIND_ORDER_HISTORY_SQL : FIND_ORDER_HISTORY_NEXT_PAGE_SQL;
+
+        try (Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(query)) {
+            int index = 1;
+            statement.setLong(index++, userId);
+            if (after != null) {
+                statement.setTimestamp(index++, Timestamp.valueOf(after.getCreatedAt()));
+                statement.setLong(index++, after.getId());
+            }
+            statement.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                List<OrderWithItems> orders = collectOrders(rs);
+                logger.debug("Found {} orders of user {}", orders.size(), userId);
+                if (orders.size() <= pageSize) {
+                    return new Page<>(orders, null);
+                }
+                List<OrderWithItems> items = new ArrayList<>(orders.subList(0, pageSize));
+                OrderWithItems last = items.get(pageSize - 1);
+                return new Page<>(
+                        items,
+                        KeysetPageToken.after(last.getCreatedAt(), last.getOrderId()).encode());
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding order history of user " + userId, e);
+            throw new DataAccessException("Error finding order history of user " + userId, e);
+        }
+    }
+
+    @Override
+    public Map<Long, List<OrderWithItems>> findOrderHistories(
+            Collection<Long> userIds, int ordersPerUser) throws DataAccessException {
+        if (userIds == null) {
+            throw new DataAccessException("User ids cannot be null");
+        }
+        if (ordersPerUser <= 0) {
+            throw new DataAccessException("Orders per user must be positive: " + ordersPerUser);
+        }
+        logger.info(
+                "Finding last {} orders of {} users with their items",
+                ordersPerUser,
+                userIds.size());
+
+        Map<Long, List<OrderWithItems>> result = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            result.put(userId, new ArrayList<>());
+        }
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        try (Connection connection = getConnection();
+                PreparedStatement statement =
+                        connection.prepareStatement(FIND_ORDER_HISTORIES_SQL)) {
+            Array array =
+                    connection.createArrayOf("bigint", new LinkedHashSet<>(userIds).toArray());
+            try {
+                statement.setInt(1, ordersPerUser);
+                statement.setArray(2, array);
+                try (ResultSet rs = statement.executeQuery()) {
+                    for (OrderWithItems order : collectOrders(rs)) {
+                        result.get(order.getUserId()).add(order);
+                    }
+                }
+            } finally {
+                array.free();
+            }
+            logger.debug("Found order histories of {} users", result.size());
+            return result;
         } catch (SQLException e) {
-            logger.error("Error mapping ResultSet to UserOrderSummary", e);
-            throw e;
+            logger.error("Error finding order histories of " + userIds.size() + " users", e);
+            throw new DataAccessException(
+                    "Error finding order histories of " + userIds.size() + " users", e);
         }
     }
 
-    private UserOrderCount mapToUserOrderCount(ResultSet rs) throws SQLException {
-        try {
-            return new UserOrderCount(
-                    rs.getLong("id"),
-                    rs.getString("name"),
-                    rs.getString("email"),
-                    rs.getInt("order_count"),
-                    rs.getBigDecimal("total_spent"));
+    /**
+     * Сверяет столбцы всех запросов репозитория с их мапперами без выполнения запросов.
+     *
+     * @throws DataAccessException если какой-либо запрос не совпадает со своим маппером
+     */
+    public void verifyQueryColumns() throws DataAccessException {
+        try (Connection connection = getConnection()) {
+            RowMappers.USER_ORDER_SUMMARY.verify(connection, FIND_USERS_WITH_TOTAL_ABOVE_SQL);
+            RowMappers.USER_ORDER_COUNT.verify(connection, GET_ALL_USERS_WITH_ORDER_COUNT_SQL);
+            RowMappers.USER_ORDER_COUNT.verify(
+                    connection, GET_ALL_USERS_WITH_ORDER_COUNT_RANGE_SQL);
+            RowMappers.PRODUCT_SALES_INFO.verify(connection, GET_TOP_SELLING_PRODUCTS_SQL);
+            RowMappers.ORDER_WITH_ITEM.verify(connection, FIND_ORDER_HISTORY_SQL);
+            RowMappers.ORDER_WITH_ITEM.verify(connection, FIND_ORDER_HISTORY_NEXT_PAGE_SQL);
+            RowMappers.ORDER_WITH_ITEM.verify(connection, FIND_ORDER_HISTORIES_SQL);
         } catch (SQLException e) {
-            logger.error("Error mapping ResultSet to UserOrderCount", e);
-            throw new DataAccessException("Failed to map user order count data", e);
+            logger.error("User order query columns do not match their mappers", e);
+            throw new DataAccessException(
+                    "User order query columns do not match their mappers", e);
         }
     }
 
-    private ProductSalesInfo mapToProductSalesInfo(ResultSet rs) throws SQLException {
-        return new ProductSalesInfo(
-                rs.getLong("product_id"),
-                rs.getString("product_name"),
-                rs.getString("category"),
-                rs.getInt("total_orders_count"),
-                rs.getInt("total_quantity_sold"));
+    private UserOrderCountBatch loadUsersWithOrderCountBatch() {
+        try (Connection connection = getConnection();
+                PreparedStatement statement =
+                        connection.prepareStatement(GET_ALL_USERS_WITH_ORDER_COUNT_SQL)) {
+            statement.setFetchSize(BATCH_FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                int[] columns = RowMappers.USER_ORDER_COUNT.indicesOf(rs.getMetaData());
+                UserOrderCountBatch.Builder batch = UserOrderCountBatch.builder(BATCH_FETCH_SIZE);
+                while (rs.next()) {
+                    batch.append(
+                            rs.getLong(columns[0]),
+                            rs.getString(columns[1]),
+                            rs.getString(columns[2]),
+                            rs.getInt(columns[3]),
+                            rs.getLong(columns[4]));
+                }
+                return batch.build();
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting users with order counts as a batch", e);
+            throw new DataAccessException("Error getting users with order counts", e);
+        }
+    }
+
+    /**
+     * Собирает заказы за один проход по строкам, упорядоченным так, что строки одного заказа
+     * идут подряд: новый заказ начинается со сменой {@code order_id}.
+     */
+    private static List<OrderWithItems> collectOrders(ResultSet rs) throws SQLException {
+        int[] columns = RowMappers.ORDER_WITH_ITEM.indicesOf(rs.getMetaData());
+        List<OrderWithItems> orders = new ArrayList<>();
+        List<OrderItemDetails> items = null;
+        long currentOrderId = 0;
+        while (rs.next()) {
+            long orderId = rs.getLong(columns[0]);
+            if (items == null || orderId != currentOrderId) {
+                items = new ArrayList<>();
+                orders.add(RowMappers.orderWithItems(rs, columns, items));
+                currentOrderId = orderId;
+            }
+            OrderItemDetails item = RowMappers.orderItem(rs, columns);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return orders;
+    }
+
+    private Connection getConnection() throws SQLException {
+        return UnitOfWork.getConnection(dataSource);
+    }
+
+    private static void bindUserIdRange(PreparedStatement statement, long from, long to)
+            throws SQLException {
+        statement.setLong(1, from);
+        statement.setLong(2, to);
+        statement.setLong(3, from);
+        statement.setLong(4, to);
     }
 }
@@ -2,9 +2,12 @@
 package ru.mentee.power.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Page;
 import ru.mentee.power.model.User;
 
 /**
@@ -21,6 +24,27 @@ public interface UserRepository {
      */
     List<User> findAll() throws DataAccessException;
 
+    /**
+     * Возвращает страницу пользователей, отсортированных по дате создания (DESC). Страницы
+     * выбираются по условию {@code (created_at, id) < (?, ?)}, поэтому дальние страницы стоят
+     * столько же, сколько первая.
+     *
+     * @param pageToken токен из предыдущей страницы или {@code null} для первой страницы
+     * @param pageSize размер страницы, от 1 до 1000
+     * @return страница пользователей
+     * @throws DataAccessException при ошибках доступа к БД или некорректном токене
+     */
+    Page<User> findAll(String pageToken, int pageSize) throws DataAccessException;
+
+    /**
+     * Лениво читает всех пользователей, отсортированных по дате создания (DESC), через серверный
+     * курсор. Соединение удерживается до закрытия потока, поэтому поток нужно закрывать.
+     *
+     * @return поток пользователей
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    Stream<User> streamAll() throws DataAccessException;
+
     /**
      * Находит пользователя по ID.
      *
@@ -39,6 +63,26 @@ public interface UserRepository {
      */
     Optional<User> findByEmail(String email) throws DataAccessException;
 
+    /**
+     * Находит пользователей по набору ID одним запросом {@code WHERE id = ANY(?)}. Порядок
+     * результата не гарантируется, отсутствующие ID пропускаются.
+     *
+     * @param ids идентификаторы пользователей
+     * @return найденные пользователи
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    List<User> findAllByIds(Collection<Long> ids) throws DataAccessException;
+
+    /**
+     * Находит пользователей по набору email одним запросом {@code WHERE email = ANY(?)}. Порядок
+     * результата не гарантируется, отсутствующие email пропускаются.
+     *
+     * @param emails email пользователей
+     * @return найденные пользователи
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    List<User> findAllByEmails(Collection<String> emails) throws DataAccessException;
+
     /**
      * Находит пользователей, зарегистрированных после указанной даты.
      *
@@ -48,6 +92,30 @@ public interface UserRepository {
      */
     List<User> findByRegistrationDateAfter(LocalDate registrationDate) throws DataAccessException;
 
+    /**
+     * Возвращает страницу пользователей, зарегистрированных после указанной даты.
+     *
+     * @param registrationDate дата регистрации для фильтрации
+     * @param pageToken токен из предыдущей страницы или {@code null} для первой страницы
+     * @param pageSize размер страницы, от 1 до 1000
+     * @return страница пользователей
+     * @throws DataAccessException при ошибках доступа к БД или некорректном токене
+     */
+    Page<User> findByRegistrationDateAfter(
+            LocalDate registrationDate, String pageToken, int pageSize)
+            throws DataAccessException;
+
+    /**
+     * Лениво читает пользователей, зарегистрированных после указанной даты, через серверный курсор.
+     * Поток нужно закрывать.
+     *
+     * @param registrationDate дата регистрации для фильтрации
+     * @return поток пользователей
+     * @throws DataAccessException при ошибках доступа к БД
+     */
+    Stream<User> streamByRegistrationDateAfter(LocalDate registrationDate)
+            throws DataAccessException;
+
     /**
      * Находит пользователей, в имени которых содержится указанная подстрока.
      *
@@ -57,6 +125,18 @@ public interface UserRepository {
      */
     List<User> findByNameContaining(String namePart) throws DataAccessException;
 
+    /**
+     * Возвращает страницу пользователей, в имени которых содержится указанная подстрока.
+     *
+     * @param namePart часть имени для поиска
+     * @param pageToken токен из предыдущей страницы или {@code null} для первой страницы
+     * @param pageSize размер страницы, от 1 до 1000
+     * @return страница пользователей
+     * @throws DataAccessException при ошибках доступа к БД или некорректном токене
+     */
+    Page<User> findByNameContaining(String namePart, String pageToken, int pageSize)
+            throws DataAccessException;
+
     /**
      * Подсчитывает общее количество пользователей в системе.
      *
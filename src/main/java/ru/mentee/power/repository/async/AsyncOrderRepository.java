@@ -0,0 +1,45 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
+import ru.mentee.power.repository.OrderRepository;
+
+/** Асинхронный фасад {@link OrderRepository} поверх {@link VirtualThreadExecutor}. */
+public class AsyncOrderRepository {
+
+    private final OrderRepository delegate;
+    private final VirtualThreadExecutor executor;
+
+    public AsyncOrderRepository(OrderRepository delegate, VirtualThreadExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<List<OrderAnalytics>> getUserAnalytics() {
+        return executor.submit(delegate::getUserAnalytics);
+    }
+
+    public CompletableFuture<OrderAnalyticsBatch> getUserAnalyticsBatch() {
+        return executor.submit(delegate::getUserAnalyticsBatch);
+    }
+
+    public CompletableFuture<List<OrderAnalytics>> getTopCustomers(int limit) {
+        return executor.submit(() -> delegate.getTopCustomers(limit));
+    }
+
+    public CompletableFuture<List<MonthlyOrderStats>> getMonthlyOrderStats() {
+        return executor.submit(delegate::getMonthlyOrderStats);
+    }
+
+    public CompletableFuture<List<OrderStatsBucket>> getOrderStats(
+            LocalDateTime from, LocalDateTime to, TimeGranularity granularity) {
+        return executor.submit(() -> delegate.getOrderStats(from, to, granularity));
+    }
+}
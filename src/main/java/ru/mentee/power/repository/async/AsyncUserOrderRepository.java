@@ -0,0 +1,53 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import ru.mentee.power.model.OrderWithItems;
+import ru.mentee.power.model.Page;
+import ru.mentee.power.model.ProductSalesInfo;
+import ru.mentee.power.model.UserOrderCount;
+import ru.mentee.power.model.UserOrderCountBatch;
+import ru.mentee.power.model.UserOrderSummary;
+import ru.mentee.power.repository.UserOrderRepository;
+
+/** Асинхронный фасад {@link UserOrderRepository} поверх {@link VirtualThreadExecutor}. */
+public class AsyncUserOrderRepository {
+
+    private final UserOrderRepository delegate;
+    private final VirtualThreadExecutor executor;
+
+    public AsyncUserOrderRepository(UserOrderRepository delegate, VirtualThreadExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<List<UserOrderSummary>> findUsersWithTotalAbove(BigDecimal minTotal) {
+        return executor.submit(() -> delegate.findUsersWithTotalAbove(minTotal));
+    }
+
+    public CompletableFuture<List<UserOrderCount>> getAllUsersWithOrderCount() {
+        return executor.submit(delegate::getAllUsersWithOrderCount);
+    }
+
+    public CompletableFuture<UserOrderCountBatch> getAllUsersWithOrderCountBatch() {
+        return executor.submit(delegate::getAllUsersWithOrderCountBatch);
+    }
+
+    public CompletableFuture<List<ProductSalesInfo>> getTopSellingProducts(int limit) {
+        return executor.submit(() -> delegate.getTopSellingProducts(limit));
+    }
+
+    public CompletableFuture<Page<OrderWithItems>> findOrderHistory(
+            long userId, String pageToken, int pageSize) {
+        return executor.submit(() -> delegate.findOrderHistory(userId, pageToken, pageSize));
+    }
+
+    public CompletableFuture<Map<Long, List<OrderWithItems>>> findOrderHistories(
+            Collection<Long> userIds, int ordersPerUser) {
+        return executor.submit(() -> delegate.findOrderHistories(userIds, ordersPerUser));
+    }
+}
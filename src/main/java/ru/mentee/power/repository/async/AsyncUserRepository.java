@@ -0,0 +1,74 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import ru.mentee.power.model.Page;
+import ru.mentee.power.model.User;
+import ru.mentee.power.repository.UserRepository;
+
+/**
+ * Асинхронный фасад {@link UserRepository}: каждый вызов выполняется в виртуальном потоке
+ * {@link VirtualThreadExecutor}. Потоковые методы ({@code stream*}) не представлены — они держат
+ * соединение до закрытия потока и должны вызываться синхронно.
+ */
+public class AsyncUserRepository {
+
+    private final UserRepository delegate;
+    private final VirtualThreadExecutor executor;
+
+    public AsyncUserRepository(UserRepository delegate, VirtualThreadExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<List<User>> findAll() {
+        return executor.submit(delegate::findAll);
+    }
+
+    public CompletableFuture<Page<User>> findAll(String pageToken, int pageSize) {
+        return executor.submit(() -> delegate.findAll(pageToken, pageSize));
+    }
+
+    public CompletableFuture<Optional<User>> findById(Long id) {
+        return executor.submit(() -> delegate.findById(id));
+    }
+
+    public CompletableFuture<Optional<User>> findByEmail(String email) {
+        return executor.submit(() -> delegate.findByEmail(email));
+    }
+
+    public CompletableFuture<List<User>> findAllByIds(Collection<Long> ids) {
+        return executor.submit(() -> delegate.findAllByIds(ids));
+    }
+
+    public CompletableFuture<List<User>> findAllByEmails(Collection<String> emails) {
+        return executor.submit(() -> delegate.findAllByEmails(emails));
+    }
+
+    public CompletableFuture<List<User>> findByRegistrationDateAfter(LocalDate registrationDate) {
+        return executor.submit(() -> delegate.findByRegistrationDateAfter(registrationDate));
+    }
+
+    public CompletableFuture<Page<User>> findByRegistrationDateAfter(
+            LocalDate registrationDate, String pageToken, int pageSize) {
+        return executor.submit(
+                () -> delegate.findByRegistrationDateAfter(registrationDate, pageToken, pageSize));
+    }
+
+    public CompletableFuture<List<User>> findByNameContaining(String namePart) {
+        return executor.submit(() -> delegate.findByNameContaining(namePart));
+    }
+
+    public CompletableFuture<Page<User>> findByNameContaining(
+            String namePart, String pageToken, int pageSize) {
+        return executor.submit(() -> delegate.findByNameContaining(namePart, pageToken, pageSize));
+    }
+
+    public CompletableFuture<Long> count() {
+        return executor.submit(delegate::count);
+    }
+}
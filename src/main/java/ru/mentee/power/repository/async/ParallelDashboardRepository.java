@@ -0,0 +1,89 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import ru.mentee.power.entity.Dashboard;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.ProductSalesInfo;
+import ru.mentee.power.repository.DashboardRepository;
+import ru.mentee.power.repository.OrderRepository;
+import ru.mentee.power.repository.UserOrderRepository;
+
+/**
+ * {@link DashboardRepository}, запускающий три отчёта одновременно через {@link
+ * VirtualThreadExecutor}, каждый на своём соединении. Время страницы — самый медленный из
+ * запросов, но она занимает до трёх соединений пула. Работает поверх любых реализаций
+ * репозиториев, в том числе кэширующих декораторов; отчёты читают разные снимки данных.
+ *
+ * <p>Первая ошибка отменяет остальные отчёты: ещё не начавшиеся не берут соединение, а
+ * выполняющиеся получают прерывание, и наружу выходит именно эта ошибка.
+ */
+public class ParallelDashboardRepository implements DashboardRepository {
+
+    private final AsyncOrderRepository orders;
+    private final AsyncUserOrderRepository userOrders;
+
+    public ParallelDashboardRepository(
+            OrderRepository orders,
+            UserOrderRepository userOrders,
+            VirtualThreadExecutor executor) {
+        this.orders = new AsyncOrderRepository(orders, executor);
+        this.userOrders = new AsyncUserOrderRepository(userOrders, executor);
+    }
+
+    @Override
+    public Dashboard getDashboard(int topCustomersLimit, int topProductsLimit)
+            throws DataAccessException {
+        if (topCustomersLimit < 0 || topProductsLimit < 0) {
+            throw new DataAccessException("Limit cannot be negative");
+        }
+        CompletableFuture<List<OrderAnalytics>> customers =
+                orders.getTopCustomers(topCustomersLimit);
+        CompletableFuture<List<MonthlyOrderStats>> months = orders.getMonthlyOrderStats();
+        CompletableFuture<List<ProductSalesInfo>> products =
+                userOrders.getTopSellingProducts(topProductsLimit);
+        List<CompletableFuture<?>> reports = List.of(customers, months, products);
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        // Ждём стадий после обработчика: иначе allOf может завершиться до записи ошибки
+        CompletableFuture<?>[] handled =
+                reports.stream()
+                        .map(
+                                report ->
+                                        report.whenComplete(
+                                                (value, error) ->
+                                                        cancelOnFirstFailure(
+                                                                error, firstFailure, reports)))
+                        .toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(handled).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = firstFailure.get();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+        return new Dashboard(customers.join(), months.join(), products.join());
+    }
+
+    private static void cancelOnFirstFailure(
+            Throwable error,
+            AtomicReference<Throwable> firstFailure,
+            List<CompletableFuture<?>> reports) {
+        if (error != null && firstFailure.compareAndSet(null, error)) {
+            reports.forEach(report -> report.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+/**
+ * Выполняет блокирующие вызовы репозиториев в виртуальных потоках — по потоку на задачу.
+ *
+ * <p>Виртуальных потоков может быть сколько угодно, но соединений в пуле ограниченное число,
+ * поэтому одновременно к БД обращаются не более {@code maxConcurrency} задач; остальные ждут на
+ * семафоре, не занимая потоков ОС. Отмена future прерывает ожидание семафора или выполняющийся
+ * вызов. {@link Deadline} вызывающего потока переносится в задачу и ограничивает в том числе
+ * ожидание семафора.
+ */
+public class VirtualThreadExecutor implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public VirtualThreadExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /** Ограничивает параллелизм размером пула, чтобы задачи не ждали соединение внутри пула. */
+    public static VirtualThreadExecutor forPool(PooledDataSource dataSource) {
+        return new VirtualThreadExecutor(dataSource.getPoolConfig().getMaximumPoolSize());
+    }
+
+    /**
+     * Запускает задачу. Исключения задачи (в том числе {@link
+     * ru.mentee.power.exception.DataAccessException}) завершают future как есть, без обёрток.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Deadline deadline = Deadline.current().orElse(null);
+        Future<?> running = executor.submit(() -> run(task, deadline, result));
+        result.whenComplete(
+                (value, error) -> {
+                    if (result.isCancelled()) {
+                        running.cancel(true);
+                    }
+                });
+        return result;
+    }
+
+    private <T> void run(Supplier<T> task, Deadline deadline, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            if (deadline == null) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(
+                    Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS)) {
+                result.completeExceptionally(
+                        new QueryTimeoutException("Deadline exceeded while waiting to start"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            result.completeExceptionally(new CancellationException("Cancelled before start"));
+            return;
+        }
+        try {
+            if (!result.isDone()) {
+                result.complete(deadline == null ? task.get() : deadline.run(task::get));
+            }
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,135 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Маппер строк, читающий столбцы по индексу.
+ *
+ * <p>Столбцы объявляются один раз рядом с кодом чтения; {@link #forColumns} находит их индексы
+ * по {@link ResultSetMetaData} один раз на результат, после чего каждая строка читается
+ * позиционными геттерами без поиска столбца по имени. Имена сравниваются без учёта регистра: H2
+ * возвращает метки в верхнем регистре, PostgreSQL — в нижнем.
+ *
+ * <p>{@link #verify} сверяет столбцы запроса с объявленными без его выполнения — по метаданным
+ * подготовленного выражения — и падает как на отсутствующих, так и на лишних столбцах.
+ */
+public final class ColumnMapper<T> implements RowMapper<T> {
+
+    private final String target;
+    private final List<String> columns;
+    private final Reader<T> reader;
+
+    private ColumnMapper(String target, List<String> columns, Reader<T> reader) {
+        this.target = target;
+        this.columns = columns;
+        this.reader = reader;
+    }
+
+    /**
+     * @param columns метки столбцов; {@code columns[i]} из {@link Reader#read} — индекс {@code
+     *     columns.get(i)} в результате
+     */
+    public static <T> ColumnMapper<T> of(Class<T> type, List<String> columns, Reader<T> reader) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("columns must not be empty");
+        }
+        List<String> labels = columns.stream().map(c -> c.toLowerCase(Locale.ROOT)).toList();
+        return new ColumnMapper<>(type.getSimpleName(), labels, reader);
+    }
+
+    /** Читает текущую строку по индексам объявленных столбцов. */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(ResultSet resultSet, int[] columns) throws SQLException;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /** Разовое чтение без привязки; для циклов по строкам используйте {@link #forColumns}. */
+    @Override
+    public T mapRow(ResultSet resultSet) throws SQLException {
+        return forColumns(resultSet.getMetaData()).mapRow(resultSet);
+    }
+
+    @Override
+    public RowMapper<T> forColumns(ResultSetMetaData metaData) throws SQLException {
+        int[] indices = indicesOf(metaData);
+        return resultSet -> reader.read(resultSet, indices);
+    }
+
+    /**
+     * Индексы объявленных столбцов в результате, в порядке {@link #getColumns()}; для чтения
+     * строк в обход объектов, например в колоночные пакеты.
+     *
+     * @throws SQLException если какого-либо столбца нет
+     */
+    public int[] indicesOf(ResultSetMetaData metaData) throws SQLException {
+        int[] indices = new int[columns.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = indexOf(metaData, columns.get(i));
+            if (indices[i] == 0) {
+                throw new SQLException(
+                        "Result set has no column '" + columns.get(i) + "' for " + target);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Проверяет, что запрос возвращает ровно объявленные столбцы. Драйверы, не умеющие описать
+     * результат без выполнения, пропускаются.
+     *
+     * @throws SQLException если столбцы не совпадают
+     */
+    public void verify(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            ResultSetMetaData metaData = statement.getMetaData();
+            if (metaData == null) {
+                return;
+            }
+            List<String> missing = new ArrayList<>();
+            for (String column : columns) {
+                if (indexOf(metaData, column) == 0) {
+                    missing.add(column);
+                }
+            }
+            List<String> unexpected = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String label = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+                if (!columns.contains(label)) {
+                    unexpected.add(label);
+                }
+            }
+            if (!missing.isEmpty() || !unexpected.isEmpty()) {
+                throw new SQLException(
+                        "Query columns do not match "
+                                + target
+                                + ": missing "
+                                + missing
+                                + ", unexpected "
+                                + unexpected
+                                + " in "
+                                + sql);
+            }
+        }
+    }
+
+    private static int indexOf(ResultSetMetaData metaData, String column) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
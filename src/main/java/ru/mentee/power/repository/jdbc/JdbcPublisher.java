@@ -0,0 +1,176 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link Flow.Publisher} поверх серверного курсора {@link JdbcStreams}: строки читаются из курсора
+ * только по запросу подписчика ({@link Flow.Subscription#request(long)}), поэтому медленный
+ * потребитель не приводит к накоплению результата в памяти — в буфере драйвера не больше
+ * {@code fetchSize} строк.
+ *
+ * <p>Публикатор «холодный»: каждая подписка открывает собственный курсор на отдельном соединении
+ * при первом запросе данных. Соединение освобождается при завершении, ошибке или отмене подписки.
+ * Сигналы подписчику доставляются последовательно из виртуальных потоков.
+ *
+ * @param <T> тип элемента
+ */
+@Slf4j
+public final class JdbcPublisher<T> implements Flow.Publisher<T> {
+
+    private final DataSource dataSource;
+    private final String sql;
+    private final StatementBinder binder;
+    private final RowMapper<T> mapper;
+    private final int fetchSize;
+
+    public JdbcPublisher(
+            DataSource dataSource,
+            String sql,
+            StatementBinder binder,
+            RowMapper<T> mapper,
+            int fetchSize) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.binder = binder;
+        this.mapper = mapper;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new CursorSubscription(subscriber));
+    }
+
+    private final class CursorSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException invalidRequest;
+
+        // доступны только из drain(), который никогда не выполняется параллельно
+        private Stream<T> stream;
+        private Iterator<T> rows;
+        private boolean done;
+
+        CursorSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest =
+                        new IllegalArgumentException("Requested " + n + " rows, must be positive");
+            } else {
+                requested.getAndAccumulate(
+                        n,
+                        (current, added) ->
+                                current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                Thread.ofVirtual().name("jdbc-publisher").start(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    emit();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (cancelled) {
+                release();
+                return;
+            }
+            if (invalidRequest != null) {
+                release();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            try {
+                if (rows == null) {
+                    stream = JdbcStreams.stream(dataSource, sql, binder, mapper, fetchSize);
+                    rows = stream.iterator();
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted < demand && !cancelled && invalidRequest == null) {
+                    if (!rows.hasNext()) {
+                        release();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (!deliver(rows.next())) {
+                        return;
+                    }
+                    emitted++;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (cancelled) {
+                    release();
+                }
+            } catch (RuntimeException e) {
+                if (done) {
+                    // исключение из onComplete — терминальный сигнал уже отправлен
+                    log.warn("Subscriber failed in onComplete for query: {}", sql, e);
+                    return;
+                }
+                log.error("Failed to publish rows for query: {}", sql, e);
+                release();
+                subscriber.onError(e);
+            }
+        }
+
+        /**
+         * Передаёт строку подписчику. Исключение из {@code onNext} — ошибка подписчика, а не
+         * источника: по правилу 2.13 Reactive Streams подписка считается отменённой, курсор
+         * закрывается, а {@code onError} этому подписчику не отправляется.
+         */
+        private boolean deliver(T row) {
+            try {
+                subscriber.onNext(row);
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Subscriber failed in onNext, cancelling query: {}", sql, e);
+                cancelled = true;
+                release();
+                return false;
+            }
+        }
+
+        private void release() {
+            done = true;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
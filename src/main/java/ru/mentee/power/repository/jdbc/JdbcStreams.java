@@ -0,0 +1,131 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Ленивые потоки строк поверх серверного курсора.
+ *
+ * <p>PostgreSQL JDBC читает результат порциями по {@code fetchSize} строк только при выключенном
+ * autocommit, поэтому вне {@link UnitOfWork} поток открывает собственную транзакцию. Соединение
+ * освобождается при {@link Stream#close()} или сразу после чтения последней строки, так что
+ * поток следует использовать в try-with-resources.
+ */
+@Slf4j
+public final class JdbcStreams {
+
+    private JdbcStreams() {}
+
+    public static <T> Stream<T> stream(
+            DataSource dataSource,
+            String sql,
+            StatementBinder binder,
+            RowMapper<T> mapper,
+            int fetchSize)
+            throws DataAccessException {
+        Cursor<T> cursor = new Cursor<>(mapper, !UnitOfWork.isActive(dataSource));
+        try {
+            cursor.open(dataSource, sql, binder, fetchSize);
+        } catch (DataAccessException e) {
+            cursor.release();
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            cursor.release();
+            throw new DataAccessException("Failed to open cursor for query: " + sql, e);
+        }
+        return StreamSupport.stream(cursor, false).onClose(cursor::release);
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final RowMapper<T> mapper;
+        private final boolean ownTransaction;
+        private RowMapper<T> rowMapper;
+        private Connection connection;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+        private boolean released;
+
+        Cursor(RowMapper<T> mapper, boolean ownTransaction) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.mapper = mapper;
+            this.ownTransaction = ownTransaction;
+        }
+
+        void open(DataSource dataSource, String sql, StatementBinder binder, int fetchSize)
+                throws SQLException {
+            connection = UnitOfWork.getConnection(dataSource);
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+            }
+            statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            binder.bind(statement);
+            resultSet = statement.executeQuery();
+            rowMapper = mapper.forColumns(resultSet.getMetaData());
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (released) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    release();
+                    return false;
+                }
+                action.accept(rowMapper.mapRow(resultSet));
+                return true;
+            } catch (SQLException e) {
+                release();
+                throw new DataAccessException("Failed to read next row from cursor", e);
+            }
+        }
+
+        void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+            if (connection == null) {
+                return;
+            }
+            try {
+                if (ownTransaction) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to finish cursor transaction", e);
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+
+        private static void closeQuietly(AutoCloseable resource) {
+            if (resource == null) {
+                return;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.debug("Failed to close cursor resource", e);
+            }
+        }
+    }
+}
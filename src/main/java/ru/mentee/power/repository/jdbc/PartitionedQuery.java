@@ -0,0 +1,323 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.connection.TransactionOptions;
+import ru.mentee.power.connection.UnitOfWork;
+import ru.mentee.power.exception.DataAccessException;
+
+/**
+ * Агрегирующий запрос, разбитый на диапазоны ключа, которые выполняются параллельно на отдельных
+ * соединениях.
+ *
+ * <p>Запрос диапазона получает границы {@code [from, to)} через {@link RangeBinder} и должен
+ * возвращать строки в порядке {@code order}; частичные результаты сливаются k-путевым слиянием.
+ * Ключи группировки не должны пересекаться между диапазонами — тогда слияние не меняет агрегаты.
+ *
+ * <p>Все диапазоны читают один снимок данных. В PostgreSQL ведущая транзакция экспортирует его
+ * через {@code pg_export_snapshot()}, а каждая рабочая транзакция импортирует через {@code SET
+ * TRANSACTION SNAPSHOT}; ведущая транзакция остаётся открытой до конца всех диапазонов. На других
+ * СУБД диапазоны выполняются последовательно в ведущей транзакции. Внутри {@link UnitOfWork}
+ * ведущей становится её транзакция, без неё открывается {@link
+ * TransactionOptions#readOnlySnapshot()}.
+ *
+ * <p>Диапазоны разбирают ведущее соединение и рабочие соединения, которые ведущий резервирует
+ * заранее. Из {@link PooledDataSource} берутся только свободные в момент вызова соединения, без
+ * ожидания: иначе одновременные вызовы, занявшие пул ведущими соединениями, ждали бы рабочих друг
+ * у друга до таймаута. Если свободных нет, все диапазоны выполняет ведущее соединение. Из других
+ * источников рабочие соединения берутся обычным {@code getConnection()}, по одному на диапазон.
+ */
+@Slf4j
+public final class PartitionedQuery<T> {
+
+    private static final String EXPORT_SNAPSHOT_SQL = "SELECT pg_export_snapshot()";
+
+    private final DataSource dataSource;
+    private final String boundsSql;
+    private final String rangeSql;
+    private final RangeBinder binder;
+    private final RowMapper<T> mapper;
+    private final Comparator<? super T> order;
+
+    /**
+     * @param boundsSql запрос, возвращающий минимальный и максимальный ключ одной строкой
+     * @param rangeSql запрос одного диапазона, упорядоченный по {@code order}
+     */
+    public PartitionedQuery(
+            DataSource dataSource,
+            String boundsSql,
+            String rangeSql,
+            RangeBinder binder,
+            RowMapper<T> mapper,
+            Comparator<? super T> order) {
+        this.dataSource = dataSource;
+        this.boundsSql = boundsSql;
+        this.rangeSql = rangeSql;
+        this.binder = binder;
+        this.mapper = mapper;
+        this.order = order;
+    }
+
+    /** Устанавливает границы диапазона {@code [from, to)} в запрос диапазона. */
+    @FunctionalInterface
+    public interface RangeBinder {
+        void bind(PreparedStatement statement, long from, long to) throws SQLException;
+    }
+
+    public List<T> execute(int partitions) throws DataAccessException {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        return new UnitOfWork(dataSource)
+                .execute(
+                        TransactionOptions.readOnlySnapshot(),
+                        () -> {
+                            try (Connection leader = UnitOfWork.getConnection(dataSource)) {
+                                return execute(leader, partitions);
+                            } catch (SQLException e) {
+                                throw new DataAccessException(
+                                        "Failed to execute partitioned query: " + rangeSql, e);
+                            }
+                        });
+    }
+
+    private List<T> execute(Connection leader, int partitions) throws SQLException {
+        List<long[]> ranges = split(leader, partitions);
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        List<List<T>> parts = new ArrayList<>(ranges.size());
+        if (ranges.size() == 1 || !isPostgres(leader)) {
+            for (long[] range : ranges) {
+                parts.add(query(leader, range));
+            }
+        } else {
+            parts = queryInParallel(leader, exportSnapshot(leader), ranges);
+        }
+        return merge(parts);
+    }
+
+    private List<long[]> split(Connection leader, int partitions) throws SQLException {
+        long min;
+        long max;
+        try (PreparedStatement statement = leader.prepareStatement(boundsSql);
+                ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            min = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return List.of();
+            }
+            max = resultSet.getLong(2);
+        }
+        long width = Math.max(1, (max - min) / partitions + 1);
+        List<long[]> ranges = new ArrayList<>(partitions);
+        for (long from = min; from <= max; from += width) {
+            ranges.add(new long[] {from, Math.min(from + width, max + 1)});
+        }
+        return ranges;
+    }
+
+    private List<List<T>> queryInParallel(
+            Connection leader, String snapshot, List<long[]> ranges) throws SQLException {
+        List<Connection> workers = reserveWorkers(ranges.size() - 1);
+        log.debug("Querying {} partitions on {} worker connections", ranges.size(), workers.size());
+        Deadline deadline = Deadline.current().orElse(null);
+        List<List<T>> parts = new ArrayList<>(Collections.nCopies(ranges.size(), null));
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>(workers.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Connection worker : workers) {
+                UnitOfWork.Work<Void> work =
+                        () -> queryInSnapshot(worker, snapshot, ranges, next, parts);
+                futures.add(
+                        executor.submit(
+                                () -> deadline == null ? work.execute() : deadline.run(work)));
+            }
+            queryRanges(leader, ranges, next, parts);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return parts;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof DataAccessException dataAccessException) {
+                throw dataAccessException;
+            }
+            throw new DataAccessException("Partition query failed", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for partitions", e);
+        } catch (SQLException | RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } finally {
+            // ведущая транзакция должна пережить все рабочие, иначе снимок станет недоступен
+            executor.close();
+            // Задача, отменённая до старта, не закроет своё соединение; для остальных close — no-op
+            workers.forEach(PartitionedQuery::closeQuietly);
+        }
+    }
+
+    /** Резервирует до {@code count} рабочих соединений; из пула — только свободные. */
+    private List<Connection> reserveWorkers(int count) {
+        List<Connection> workers = new ArrayList<>(count);
+        try {
+            PooledDataSource pool =
+                    dataSource.isWrapperFor(PooledDataSource.class)
+                            ? dataSource.unwrap(PooledDataSource.class)
+                            : null;
+            while (workers.size() < count) {
+                Optional<Connection> worker =
+                        pool != null
+                                ? pool.tryGetConnection()
+                                : Optional.of(dataSource.getConnection());
+                if (worker.isEmpty()) {
+                    break;
+                }
+                workers.add(worker.get());
+            }
+        } catch (SQLException e) {
+            log.debug("Failed to reserve worker connection, continuing with {}", workers.size(), e);
+        }
+        return workers;
+    }
+
+    private Void queryInSnapshot(
+            Connection worker,
+            String snapshot,
+            List<long[]> ranges,
+            AtomicInteger next,
+            List<List<T>> parts) {
+        return new UnitOfWork(dataSource)
+                .execute(
+                        worker,
+                        TransactionOptions.readOnlySnapshot(),
+                        () -> {
+                            try (Connection connection = UnitOfWork.getConnection(dataSource)) {
+                                try (Statement statement = connection.createStatement()) {
+                                    statement.execute(
+                                            "SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                                }
+                                queryRanges(connection, ranges, next, parts);
+                                return null;
+                            } catch (SQLException e) {
+                                throw new DataAccessException(
+                                        "Failed to query partitions in snapshot " + snapshot, e);
+                            }
+                        });
+    }
+
+    /** Забирает ещё не начатые диапазоны и выполняет их на {@code connection}. */
+    private void queryRanges(
+            Connection connection, List<long[]> ranges, AtomicInteger next, List<List<T>> parts)
+            throws SQLException {
+        int index;
+        while ((index = next.getAndIncrement()) < ranges.size()) {
+            long[] range = ranges.get(index);
+            try {
+                parts.set(index, query(connection, range));
+            } catch (SQLException e) {
+                String partition = "[" + range[0] + ", " + range[1] + ")";
+                throw new SQLException("Failed to query partition " + partition, e);
+            }
+        }
+    }
+
+    private List<T> query(Connection connection, long[] range) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(rangeSql)) {
+            binder.bind(statement, range[0], range[1]);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<T> rowMapper = mapper.forColumns(resultSet.getMetaData());
+                List<T> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    rows.add(rowMapper.mapRow(resultSet));
+                }
+                log.debug("Partition [{}, {}) returned {} rows", range[0], range[1], rows.size());
+                return rows;
+            }
+        }
+    }
+
+    private List<T> merge(List<List<T>> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int total = 0;
+        PriorityQueue<Cursor<T>> heads =
+                new PriorityQueue<>(parts.size(), (a, b) -> order.compare(a.head(), b.head()));
+        for (List<T> part : parts) {
+            total += part.size();
+            if (!part.isEmpty()) {
+                heads.add(new Cursor<>(part));
+            }
+        }
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to release worker connection", e);
+        }
+    }
+
+    private static String exportSnapshot(Connection leader) throws SQLException {
+        try (Statement statement = leader.createStatement();
+                ResultSet resultSet = statement.executeQuery(EXPORT_SNAPSHOT_SQL)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    /** Позиция чтения в одном упорядоченном частичном результате. */
+    private static final class Cursor<T> {
+        private final List<T> rows;
+        private int position;
+
+        Cursor(List<T> rows) {
+            this.rows = rows;
+        }
+
+        T head() {
+            return rows.get(position);
+        }
+
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+}
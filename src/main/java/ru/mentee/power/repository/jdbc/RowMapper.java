@@ -0,0 +1,20 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/** Преобразует текущую строку {@link ResultSet} в объект. Не должен вызывать {@code next()}. */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Маппер для строк одного результата с данными столбцами. Вызывается один раз после {@code
+     * executeQuery()}, до первой строки; {@link ColumnMapper} здесь находит индексы столбцов.
+     */
+    default RowMapper<T> forColumns(ResultSetMetaData metaData) throws SQLException {
+        return this;
+    }
+}
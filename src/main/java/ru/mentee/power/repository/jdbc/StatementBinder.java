@@ -0,0 +1,14 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/** Устанавливает параметры подготовленного выражения перед выполнением. */
+@FunctionalInterface
+public interface StatementBinder {
+
+    StatementBinder NONE = statement -> {};
+
+    void bind(PreparedStatement statement) throws SQLException;
+}
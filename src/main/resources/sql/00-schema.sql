@@ -68,14 +68,171 @@ CREATE
     INDEX idx_users_email ON
     users(email);
 
+-- История заказов пользователя: страница заказов читается только из индекса
 CREATE
-    INDEX idx_orders_user_id ON
-    orders(user_id);
+    INDEX idx_orders_user_id_created_at ON
+    orders(
+        user_id,
+        created_at DESC,
+        id DESC
+    ) INCLUDE(
+        total,
+        status
+    );
 
+-- Позиции заказов страницы истории в порядке id без обращения к таблице
 CREATE
     INDEX idx_order_items_order_id ON
-    order_items(order_id);
+    order_items(
+        order_id,
+        id
+    ) INCLUDE(
+        product_id,
+        quantity,
+        price
+    );
 
 CREATE
     INDEX idx_order_items_product_id ON
-    order_items(product_id);
\ No newline at end of file
+    order_items(product_id);
+
+-- Keyset-пагинация пользователей по (created_at, id)
+CREATE
+    INDEX idx_users_created_at_id ON
+    users(
+        created_at DESC,
+        id DESC
+    );
+
+-- Месячная статистика заказов, поддерживаемая MonthlyRollupJob
+CREATE
+    TABLE
+        monthly_order_stats(
+            year INTEGER NOT NULL,
+            month INTEGER NOT NULL,
+            orders_count BIGINT NOT NULL,
+            monthly_revenue DECIMAL(
+                16,
+                2
+            ) NOT NULL,
+            PRIMARY KEY(
+                year,
+                month
+            )
+        );
+
+-- Позиция (created_at, id), до которой заказы уже учтены в сводных таблицах
+CREATE
+    TABLE
+        rollup_watermarks(
+            name VARCHAR(50) PRIMARY KEY,
+            last_created_at TIMESTAMP NOT NULL,
+            last_id BIGINT NOT NULL
+        );
+
+-- Месяцы, в которых изменились уже учтённые заказы
+CREATE
+    TABLE
+        monthly_order_stats_dirty(
+            month_start TIMESTAMP PRIMARY KEY
+        );
+
+-- Скетчи HyperLogLog различных покупателей, сохраняемые DistinctBuyerSketches
+CREATE
+    TABLE
+        buyer_sketches(
+            dimension VARCHAR(20) NOT NULL,
+            bucket VARCHAR(100) NOT NULL,
+            sketch BYTEA NOT NULL,
+            PRIMARY KEY(
+                dimension,
+                bucket
+            )
+        );
+
+CREATE
+    INDEX idx_orders_created_at_id ON
+    orders(
+        created_at,
+        id
+    );
+
+-- Отмечает месяцы заказов, оказавшихся за водяным знаком MonthlyRollupJob. Триггер отложенный
+-- и срабатывает при коммите: долгая транзакция сравнивает заказ с водяным знаком на момент
+-- коммита, а не вставки. Разделяемая advisory-блокировка ждёт идущий запуск задачи, поэтому
+-- водяной знак читается уже сдвинутым. Блокировка и чтение водяного знака выполняются один раз
+-- на транзакцию: блокировка держится до её конца, и водяной знак до коммита не сдвинется, так
+-- что остальные строки берут его из локальной для транзакции настройки. Вне READ COMMITTED
+-- снимок транзакции может не видеть свежий водяной знак, и месяц отмечается всегда.
+CREATE
+    OR REPLACE FUNCTION mark_monthly_order_stats_dirty() RETURNS TRIGGER AS $$
+DECLARE
+    cached TEXT;
+    mark_created_at TIMESTAMP;
+    mark_id BIGINT;
+    stale_snapshot BOOLEAN;
+BEGIN
+    cached := current_setting('rollup.monthly_order_stats_mark', true);
+
+    IF cached IS NULL OR cached = '' THEN
+        PERFORM pg_advisory_xact_lock_shared(hashtext('monthly_order_stats'));
+
+        SELECT
+            last_created_at,
+            last_id
+        INTO
+            mark_created_at,
+            mark_id
+        FROM
+            rollup_watermarks
+        WHERE
+            name = 'monthly_order_stats';
+
+        cached := CASE
+            WHEN FOUND THEN mark_created_at::TEXT || '|' || mark_id::TEXT
+            ELSE 'none'
+        END;
+        PERFORM set_config('rollup.monthly_order_stats_mark', cached, true);
+    END IF;
+
+    IF cached = 'none' THEN
+        RETURN NULL;
+    END IF;
+
+    mark_created_at := split_part(cached, '|', 1)::TIMESTAMP;
+    mark_id := split_part(cached, '|', 2)::BIGINT;
+
+    stale_snapshot := current_setting('transaction_isolation') <> 'read committed';
+
+    IF TG_OP IN ('UPDATE', 'DELETE')
+        AND (stale_snapshot
+            OR (OLD.created_at, OLD.id) <= (mark_created_at, mark_id)) THEN
+        INSERT
+            INTO
+                monthly_order_stats_dirty(month_start)
+            VALUES(date_trunc('month', OLD.created_at))
+        ON CONFLICT DO NOTHING;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE')
+        AND (stale_snapshot
+            OR (NEW.created_at, NEW.id) <= (mark_created_at, mark_id)) THEN
+        INSERT
+            INTO
+                monthly_order_stats_dirty(month_start)
+            VALUES(date_trunc('month', NEW.created_at))
+        ON CONFLICT DO NOTHING;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE
+    CONSTRAINT TRIGGER orders_monthly_order_stats_dirty AFTER INSERT
+    OR UPDATE
+        OF total,
+        created_at
+    OR DELETE
+        ON
+        orders DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION mark_monthly_order_stats_dirty();
\ No newline at end of file
@@ -0,0 +1,133 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderAnalyticsBatch;
+import ru.mentee.power.entity.OrderStatsBucket;
+import ru.mentee.power.entity.TimeGranularity;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+class PostgresOrderRepositoryTest {
+
+    private PooledDataSource dataSource;
+    private PostgresOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        repository = new PostgresOrderRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldReturnDailyBucketsIncludingEmptyOnes() {
+        // Act
+        List<OrderStatsBucket> buckets =
+                repository.getOrderStats(
+                        LocalDateTime.parse("2024-01-20T00:00:00"),
+                        LocalDateTime.parse("2024-01-27T00:00:00"),
+                        TimeGranularity.DAY);
+
+        // Assert
+        assertThat(buckets)
+                .hasSize(7)
+                .extracting(OrderStatsBucket::getOrdersCount)
+                .containsExactly(1, 0, 0, 0, 0, 1, 0);
+        assertThat(buckets.get(0).getBucketStart())
+                .isEqualTo(LocalDateTime.parse("2024-01-20T00:00:00"));
+        assertThat(buckets.get(0).getRevenue()).isEqualByComparingTo("15000.00");
+        assertThat(buckets.get(1).getRevenue()).isEqualByComparingTo("0");
+        assertThat(buckets.get(5).getRevenue()).isEqualByComparingTo("5000.00");
+    }
+
+    @Test
+    void shouldAggregateMonthlyBucketsWithinRange() {
+        // Act
+        List<OrderStatsBucket> buckets =
+                repository.getOrderStats(
+                        LocalDateTime.parse("2024-01-01T00:00:00"),
+                        LocalDateTime.parse("2024-05-01T00:00:00"),
+                        TimeGranularity.MONTH);
+
+        // Assert
+        assertThat(buckets)
+                .extracting(OrderStatsBucket::getOrdersCount)
+                .containsExactly(2, 2, 2, 0);
+        assertThat(buckets.get(1).getRevenue()).isEqualByComparingTo("25999.99");
+        assertThat(buckets.get(2).getAvgOrderValue()).isEqualByComparingTo("13500.00");
+    }
+
+    @Test
+    void shouldCountOnlyOrdersInsideRangeForPartialBucket() {
+        // Act
+        List<OrderStatsBucket> buckets =
+                repository.getOrderStats(
+                        LocalDateTime.parse("2024-02-01T00:00:00"),
+                        LocalDateTime.parse("2024-04-01T00:00:00"),
+                        TimeGranularity.QUARTER);
+
+        // Assert
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).getBucketStart())
+                .isEqualTo(LocalDateTime.parse("2024-01-01T00:00:00"));
+        assertThat(buckets.get(0).getOrdersCount()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldReturnUserAnalyticsAsColumnarBatch() {
+        // Act
+        OrderAnalyticsBatch batch = repository.getUserAnalyticsBatch();
+
+        // Assert
+        assertThat(batch.toList())
+                .containsExactlyInAnyOrderElementsOf(repository.getUserAnalytics());
+        assertThat(batch.getUserId(0)).isEqualTo(1);
+        assertThat(batch.getCustomerType(0)).isEqualTo("VIP");
+        assertThat(batch.row(1).getTotalSpentCents()).isEqualTo(1_200_000);
+        assertThat(batch.row(1).getCustomerType()).isEqualTo("REGULAR");
+        assertThat(batch.getCustomerType(2)).isEqualTo("NEW");
+    }
+
+    @Test
+    void shouldStartWeeksOnMonday() {
+        assertThat(TimeGranularity.WEEK.truncate(LocalDateTime.parse("2024-01-17T13:45:00")))
+                .isEqualTo(LocalDateTime.parse("2024-01-15T00:00:00"));
+        assertThat(TimeGranularity.QUARTER.truncate(LocalDateTime.parse("2024-11-30T23:59:59")))
+                .isEqualTo(LocalDateTime.parse("2024-10-01T00:00:00"));
+    }
+
+    @Test
+    void shouldRejectEmptyRange() {
+        LocalDateTime point = LocalDateTime.parse("2024-01-01T00:00:00");
+
+        assertThatThrownBy(() -> repository.getOrderStats(point, point, TimeGranularity.DAY))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void shouldRejectNullStatsArguments() {
+        LocalDateTime from = LocalDateTime.parse("2024-01-01T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2024-02-01T00:00:00");
+
+        assertThatThrownBy(() -> repository.getOrderStats(null, to, TimeGranularity.DAY))
+                .isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> repository.getOrderStats(from, null, TimeGranularity.DAY))
+                .isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> repository.getOrderStats(from, to, null))
+                .isInstanceOf(DataAccessException.class);
+    }
+}
@@ -6,25 +6,37 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
 import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.Page;
 import ru.mentee.power.model.User;
 import ru.mentee.power.repository.PostgresUserRepository;
 
 class PostgresUserRepositoryTest {
 
+    private PooledDataSource dataSource;
     private PostgresUserRepository repository;
 
     @BeforeEach
     void setUp() {
         TestDatabaseConfig testDatabaseConfig = new TestDatabaseConfig();
         TestDatabaseConfig.TestApplicationConfig config = testDatabaseConfig.createTestConfig();
-        repository = new PostgresUserRepository(config);
+        dataSource = new PooledDataSource(config);
+        repository = new PostgresUserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
     }
 
     @Test
@@ -88,6 +100,22 @@ class PostgresUserRepositoryTest {
         assertThat(nonExisting).isEmpty();
     }
 
+    @Test
+    void shouldFindUsersByIdsAndEmailsInOneQuery() throws DataAccessException {
+        // Act
+        List<User> byIds = repository.findAllByIds(List.of(1L, 3L, 3L, 999L));
+        List<User> byEmails =
+                repository.findAllByEmails(
+                        List.of("jane.smith@example.com", "non.existing@example.com"));
+
+        // Assert
+        assertThat(byIds)
+                .extracting(User::getName)
+                .containsExactlyInAnyOrder("John Doe", "Alice Johnson");
+        assertThat(byEmails).extracting(User::getId).containsExactly(2L);
+        assertThat(repository.findAllByIds(List.of())).isEmpty();
+    }
+
     @Test
     void shouldFindUsersByNameContaining() throws DataAccessException {
         // Act - Case-insensitive search
@@ -124,6 +152,84 @@ class PostgresUserRepositoryTest {
                 .containsExactly("Charlie Brown", "Bob Wilson", "Alice Johnson");
     }
 
+    @Test
+    void shouldStreamAllUsersOrderedByCreationDate() throws DataAccessException {
+        // Act
+        List<User> users;
+        try (Stream<User> stream = repository.streamAll()) {
+            users = stream.toList();
+        }
+
+        // Assert
+        assertThat(users)
+                .hasSize(5)
+                .isSortedAccordingTo(Comparator.comparing(User::getCreatedAt).reversed());
+    }
+
+    @Test
+    void shouldStreamUsersRegisteredAfterSpecificDateLazily() throws DataAccessException {
+        // Act
+        List<String> names;
+        try (Stream<User> stream =
+                repository.streamByRegistrationDateAfter(LocalDate.parse("2024-01-17"))) {
+            names = stream.limit(2).map(User::getName).toList();
+        }
+
+        // Assert
+        assertThat(names).containsExactly("Charlie Brown", "Bob Wilson");
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldPageThroughAllUsersWithContinuationToken() throws DataAccessException {
+        // Act
+        List<User> collected = new ArrayList<>();
+        int pages = 0;
+        String token = null;
+        do {
+            Page<User> page = repository.findAll(token, 2);
+            collected.addAll(page.getItems());
+            token = page.getNextPageToken();
+            pages++;
+        } while (token != null);
+
+        // Assert
+        assertThat(pages).isEqualTo(3);
+        assertThat(collected).containsExactlyElementsOf(repository.findAll());
+    }
+
+    @Test
+    void shouldRejectPageSizeOutOfRange() {
+        assertThatThrownBy(() -> repository.findAll(null, 0))
+                .isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> repository.findAll(null, Integer.MAX_VALUE))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void shouldPageFilteredUsers() throws DataAccessException {
+        // Act
+        Page<User> first =
+                repository.findByRegistrationDateAfter(LocalDate.parse("2024-01-17"), null, 2);
+        Page<User> second =
+                repository.findByRegistrationDateAfter(
+                        LocalDate.parse("2024-01-17"), first.getNextPageToken(), 2);
+
+        // Assert
+        assertThat(first.getItems())
+                .extracting(User::getName)
+                .containsExactly("Charlie Brown", "Bob Wilson");
+        assertThat(second.getItems()).extracting(User::getName).containsExactly("Alice Johnson");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldRejectMalformedPageToken() {
+        assertThatThrownBy(() -> repository.findAll("not-a-token", 2))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("Некорректный токен страницы");
+    }
+
     @Test
     void shouldHandleNullParametersGracefully() {
         assertThatThrownBy(() -> repository.findById(null))
@@ -138,5 +244,8 @@ class PostgresUserRepositoryTest {
         assertThatThrownBy(() -> repository.findByRegistrationDateAfter(null))
                 .isInstanceOf(DataAccessException.class)
                 .hasMessageContaining("Ошибка нахождения пользователей после даты: null");
+        assertThatThrownBy(() -> repository.streamByRegistrationDateAfter(null))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("Ошибка нахождения пользователей после даты: null");
     }
 }
@@ -0,0 +1,127 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.CohortRetention;
+import ru.mentee.power.exception.DataAccessException;
+
+class CohortRetentionEngineTest {
+
+    @Test
+    void shouldIntersectSparseAndDenseContainersExactly() {
+        IdBitmap sparse = new IdBitmap();
+        IdBitmap dense = new IdBitmap();
+        Set<Integer> sparseIds = new HashSet<>();
+        Set<Integer> denseIds = new HashSet<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int id = random.nextInt(1 << 22);
+            sparse.add(id);
+            sparseIds.add(id);
+        }
+        for (int id = 0; id < 300_000; id += 1 + random.nextInt(3)) {
+            dense.add(id);
+            denseIds.add(id);
+        }
+        Set<Integer> common = new HashSet<>(sparseIds);
+        common.retainAll(denseIds);
+
+        assertThat(sparse.cardinality()).isEqualTo(sparseIds.size());
+        assertThat(dense.cardinality()).isEqualTo(denseIds.size());
+        assertThat(sparse.andCardinality(dense)).isEqualTo(common.size());
+        assertThat(dense.andCardinality(sparse)).isEqualTo(common.size());
+        assertThat(dense.contains(0)).isTrue();
+        assertThat(dense.contains(300_001)).isFalse();
+    }
+
+    @Test
+    void shouldBuildRetentionTableFromDatabase() {
+        CohortRetentionEngine engine;
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            engine = CohortRetentionEngine.load(dataSource);
+        }
+
+        List<CohortRetention> retention = engine.getRetention();
+
+        assertThat(retention).hasSize(1);
+        CohortRetention january = retention.get(0);
+        assertThat(january.getCohortMonth()).isEqualTo(YearMonth.of(2024, 1));
+        assertThat(january.getCohortSize()).isEqualTo(5);
+        assertThat(january.getActiveBuyers()).containsExactly(2L, 2L, 2L);
+        assertThat(january.retentionPercent(1)).isEqualTo(40.0);
+    }
+
+    @Test
+    void shouldApplyNewUsersAndOrders() {
+        CohortRetentionEngine engine = new CohortRetentionEngine();
+        YearMonth march = YearMonth.of(2024, 3);
+        engine.recordUser(1, march.atDay(1).atStartOfDay());
+        engine.recordUser(2, march.atDay(2).atStartOfDay());
+        engine.recordUser(3, march.plusMonths(1).atDay(1).atStartOfDay());
+        engine.recordOrder(1, march.plusMonths(2).atDay(1).atStartOfDay());
+        engine.recordOrder(1, march.plusMonths(2).atDay(5).atStartOfDay());
+        engine.recordOrder(3, march.plusMonths(2).atDay(5).atStartOfDay());
+
+        List<CohortRetention> retention = engine.getRetention();
+
+        assertThat(retention)
+                .extracting(CohortRetention::getCohortMonth)
+                .containsExactly(march, march.plusMonths(1));
+        assertThat(retention.get(0).getActiveBuyers()).containsExactly(0L, 0L, 1L);
+        assertThat(retention.get(0).retentionPercent(2)).isEqualTo(50.0);
+        assertThat(retention.get(1).getActiveBuyers()).containsExactly(0L, 1L);
+    }
+
+    @Test
+    void shouldRejectUserIdsBeyondBitmapRange() {
+        CohortRetentionEngine engine = new CohortRetentionEngine();
+        LocalDateTime createdAt = YearMonth.of(2024, 3).atDay(1).atStartOfDay();
+
+        assertThatThrownBy(() -> engine.recordUser(Integer.MAX_VALUE + 1L, createdAt))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining(String.valueOf(Integer.MAX_VALUE));
+        assertThatThrownBy(() -> engine.recordOrder(-1, createdAt))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void shouldSkipRowsWithoutCreationTime() throws SQLException {
+        CohortRetentionEngine engine;
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "INSERT INTO users (name, email, created_at)"
+                                + " VALUES ('No Date', 'no.date@example.com', NULL)");
+                statement.executeUpdate(
+                        "INSERT INTO orders (user_id, total, status, created_at)"
+                                + " VALUES (4, 100.00, 'pending', NULL)");
+            }
+            engine = CohortRetentionEngine.load(dataSource);
+        }
+
+        assertThat(engine.getRetention())
+                .singleElement()
+                .satisfies(
+                        january -> {
+                            assertThat(january.getCohortSize()).isEqualTo(5);
+                            assertThat(january.getActiveBuyers()).containsExactly(2L, 2L, 2L);
+                        });
+    }
+}
@@ -0,0 +1,101 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+class ColumnarOrderEngineTest {
+
+    private PooledDataSource dataSource;
+    private ColumnarOrderEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        engine = new ColumnarOrderEngine(OrderColumns.load(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldMatchSqlMonthlyStats() {
+        List<MonthlyOrderStats> expected =
+                new PostgresOrderRepository(dataSource).getMonthlyOrderStats();
+        List<MonthlyOrderStats> actual = engine.getMonthlyOrderStats();
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getYear()).isEqualTo(expected.get(i).getYear());
+            assertThat(actual.get(i).getMonth()).isEqualTo(expected.get(i).getMonth());
+            assertThat(actual.get(i).getOrdersCount())
+                    .isEqualTo(expected.get(i).getOrdersCount());
+            assertThat(actual.get(i).getMonthlyRevenue())
+                    .isEqualByComparingTo(expected.get(i).getMonthlyRevenue());
+        }
+    }
+
+    @Test
+    void shouldApplyFilterToUserTotals() {
+        OrderFilter filter =
+                OrderFilter.builder()
+                        .statuses(Set.of("delivered", "shipped"))
+                        .from(YearMonth.of(2024, 2))
+                        .minTotal(new BigDecimal("1000.00"))
+                        .build();
+
+        List<OrderAnalytics> totals = engine.getUserTotals(filter);
+
+        assertThat(totals).hasSize(1);
+        assertThat(totals.get(0).getUserId()).isEqualTo(1L);
+        assertThat(totals.get(0).getOrdersCount()).isEqualTo(2);
+        assertThat(totals.get(0).getTotalSpent()).isEqualByComparingTo("45000.00");
+    }
+
+    @Test
+    void shouldSortRowsAppendedOutOfUserOrder() {
+        OrderColumns columns =
+                OrderColumns.builder(4)
+                        .append(2, 2024, 1, new BigDecimal("10.00"), "pending")
+                        .append(1, 2024, 1, new BigDecimal("5.50"), "pending")
+                        .append(2, 2024, 2, new BigDecimal("1.00"), "pending")
+                        .build();
+
+        List<OrderAnalytics> totals = new ColumnarOrderEngine(columns).getUserTotals();
+
+        assertThat(totals).extracting(OrderAnalytics::getUserId).containsExactly(2L, 1L);
+        assertThat(totals.get(0).getTotalSpent()).isEqualByComparingTo("11.00");
+    }
+
+    @Test
+    void shouldSortUserIdsBeyondIntRangeStably() {
+        long large = Integer.MAX_VALUE + 10L;
+        OrderColumns columns =
+                OrderColumns.builder(4)
+                        .append(large, 2024, 1, new BigDecimal("10.00"), "pending")
+                        .append(1, 2024, 1, new BigDecimal("5.50"), "pending")
+                        .append(large, 2024, 2, new BigDecimal("1.00"), "shipped")
+                        .append(-3, 2024, 3, new BigDecimal("2.00"), "pending")
+                        .build();
+
+        assertThat(columns.userId(0)).isEqualTo(-3L);
+        assertThat(columns.userId(1)).isEqualTo(1L);
+        assertThat(columns.userId(2)).isEqualTo(large);
+        assertThat(columns.amountCents(2)).isEqualTo(1_000L);
+        assertThat(columns.amountCents(3)).isEqualTo(100L);
+    }
+}
@@ -0,0 +1,101 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.model.DistinctCountEstimate;
+import ru.mentee.power.repository.DistinctBuyerRepository;
+import ru.mentee.power.repository.SketchDistinctBuyerRepository;
+
+class DistinctBuyerSketchesTest {
+
+    @Test
+    void shouldEstimateWithinErrorBoundsAndMergeLikeUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long id = 0; id < 60_000; id++) {
+            first.add(id);
+        }
+        for (long id = 40_000; id < 100_000; id++) {
+            second.add(id);
+            second.add(id);
+        }
+
+        HyperLogLog union = first.copy();
+        union.merge(second);
+
+        double tolerance = 3 * union.relativeError();
+        assertThat(first.toBytes()).hasSize(4096 + 2);
+        assertThat(first.estimate())
+                .isBetween(
+                        Math.round(60_000 * (1 - tolerance)), Math.round(60_000 * (1 + tolerance)));
+        assertThat(union.estimate())
+                .isBetween(
+                        Math.round(100_000 * (1 - tolerance)),
+                        Math.round(100_000 * (1 + tolerance)));
+        assertThat(HyperLogLog.fromBytes(union.toBytes()).estimate()).isEqualTo(union.estimate());
+        assertThatThrownBy(() -> union.merge(new HyperLogLog(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCountSmallCardinalitiesExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 50; id++) {
+            sketch.add(id);
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(50);
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void shouldPersistSketchesAndMergeMonthsOnRead() {
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            DistinctBuyerSketches.load(dataSource, HyperLogLog.DEFAULT_PRECISION).save(dataSource);
+            DistinctBuyerRepository repository = new SketchDistinctBuyerRepository(dataSource);
+
+            DistinctCountEstimate january =
+                    repository.countBuyers(YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+            DistinctCountEstimate quarter =
+                    repository.countBuyers(YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+
+            assertThat(january.getEstimate()).isEqualTo(2);
+            assertThat(quarter.getEstimate()).isEqualTo(3);
+            assertThat(quarter.lowerBound()).isLessThanOrEqualTo(3);
+            assertThat(quarter.upperBound()).isGreaterThanOrEqualTo(3);
+            assertThat(repository.countProductBuyers(3).getEstimate()).isEqualTo(3);
+            assertThat(repository.countProductBuyers(2).getEstimate()).isEqualTo(1);
+            assertThat(repository.countCategoryBuyers("Electronics").getEstimate()).isEqualTo(1);
+            assertThat(repository.countCategoryBuyers("Toys").getEstimate()).isZero();
+        }
+    }
+
+    @Test
+    void shouldSkipOrdersWithoutCreationTimeInMonths() throws SQLException {
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "INSERT INTO orders (user_id, total, status, created_at)"
+                                + " VALUES (4, 100.00, 'pending', NULL)");
+            }
+
+            DistinctBuyerSketches sketches =
+                    DistinctBuyerSketches.load(dataSource, HyperLogLog.DEFAULT_PRECISION);
+
+            assertThat(sketches.estimate(BuyerDimension.MONTH, "2024-01").getEstimate())
+                    .isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+@Testcontainers
+class MonthlyRollupJobIT {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:13")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    private static final String FULL_SCAN_SQL =
+            "SELECT EXTRACT(YEAR FROM created_at) AS year, EXTRACT(MONTH FROM created_at) AS month,"
+                    + " COUNT(*), SUM(total) FROM orders GROUP BY 1, 2 ORDER BY 1 DESC, 2 DESC";
+
+    private static final String ROLLUP_SQL =
+            "SELECT year, month, orders_count, monthly_revenue FROM monthly_order_stats ORDER BY"
+                    + " year DESC, month DESC";
+
+    private static PGSimpleDataSource dataSource;
+
+    private MonthlyRollupJob job;
+
+    @BeforeAll
+    static void initDatabase() throws SQLException, IOException {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(postgres.getJdbcUrl());
+        dataSource.setUser(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+
+        try (InputStream input =
+                        MonthlyRollupJobIT.class.getResourceAsStream("/sql/00-schema.sql");
+                Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute(
+                "TRUNCATE orders, users, monthly_order_stats, monthly_order_stats_dirty,"
+                        + " rollup_watermarks RESTART IDENTITY CASCADE");
+        execute(
+                "INSERT INTO users(name, email) VALUES ('John Doe', 'john@example.com'),"
+                        + " ('Jane Smith', 'jane@example.com')");
+        execute(
+                "INSERT INTO orders(user_id, total, created_at) VALUES"
+                        + " (1, 100.00, '2024-01-10 10:00:00'), (1, 250.50, '2024-01-20 12:00:00'),"
+                        + " (2, 75.25, '2024-02-03 09:30:00'), (2, 300.00, '2024-03-15 18:45:00')");
+        job = new MonthlyRollupJob(dataSource, Duration.ZERO);
+    }
+
+    @Test
+    void shouldRollUpOrdersAfterWatermark() throws SQLException {
+        assertThat(job.run()).isEqualTo(3);
+        assertThat(rows(ROLLUP_SQL)).isEqualTo(rows(FULL_SCAN_SQL));
+
+        execute(
+                "INSERT INTO orders(user_id, total, created_at) VALUES"
+                        + " (1, 10.00, '2024-03-20 10:00:00'), (2, 20.00, '2024-04-01 00:00:00')");
+
+        assertThat(job.run()).isEqualTo(2);
+        assertThat(rows(ROLLUP_SQL)).isEqualTo(rows(FULL_SCAN_SQL));
+        assertThat(job.run()).isZero();
+    }
+
+    @Test
+    void shouldRecomputeMonthsOfChangedRolledUpOrders() throws SQLException {
+        job.run();
+
+        execute("UPDATE orders SET total = 1000.00 WHERE id = 1");
+        execute("UPDATE orders SET created_at = '2024-03-01 00:00:00' WHERE id = 3");
+        execute("DELETE FROM orders WHERE id = 4");
+
+        job.run();
+
+        assertThat(rows(ROLLUP_SQL)).isEqualTo(rows(FULL_SCAN_SQL));
+    }
+
+    @Test
+    void shouldRecountOrderCommittedBehindWatermark() throws SQLException {
+        job.run();
+
+        try (Connection longTransaction = dataSource.getConnection()) {
+            longTransaction.setAutoCommit(false);
+            try (Statement statement = longTransaction.createStatement()) {
+                statement.executeUpdate("INSERT INTO orders(user_id, total) VALUES (1, 42.00)");
+            }
+            execute("INSERT INTO orders(user_id, total) VALUES (2, 8.00)");
+            job.run();
+            longTransaction.commit();
+        }
+
+        job.run();
+
+        assertThat(rows(ROLLUP_SQL)).isEqualTo(rows(FULL_SCAN_SQL));
+    }
+
+    @Test
+    void shouldCheckWatermarkOncePerTransactionOnReusedSession() throws SQLException {
+        job.run();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "INSERT INTO orders(user_id, total, created_at) VALUES"
+                                + " (1, 5.00, '2024-05-01 10:00:00'),"
+                                + " (2, 6.00, '2024-05-02 10:00:00')");
+                statement.executeUpdate("UPDATE orders SET total = 1.00 WHERE id = 1");
+            }
+            connection.commit();
+            job.run();
+            // Водяной знак сдвинулся; следующая транзакция сессии должна прочитать его заново
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE orders SET total = 2.00 WHERE id = 5");
+            }
+            connection.commit();
+        }
+
+        job.run();
+
+        assertThat(rows(ROLLUP_SQL)).isEqualTo(rows(FULL_SCAN_SQL));
+    }
+
+    @Test
+    void shouldMergeRollupWithUnprocessedTail() throws SQLException {
+        job.run();
+        execute(
+                "INSERT INTO orders(user_id, total, created_at) VALUES"
+                        + " (1, 50.00, '2024-03-25 10:00:00'), (2, 60.00, '2024-05-05 10:00:00')");
+
+        List<MonthlyOrderStats> stats =
+                new PostgresOrderRepository(dataSource).getMonthlyOrderStats();
+
+        List<List<Object>> expected = rows(FULL_SCAN_SQL);
+        assertThat(stats).hasSameSizeAs(expected);
+        for (int i = 0; i < stats.size(); i++) {
+            MonthlyOrderStats actual = stats.get(i);
+            assertThat(List.of(actual.getYear(), actual.getMonth(), actual.getOrdersCount()))
+                    .isEqualTo(expected.get(i).subList(0, 3));
+            assertThat(actual.getMonthlyRevenue())
+                    .isEqualByComparingTo(expected.get(i).get(3).toString());
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /** Строки вида (год, месяц, количество, выручка) для сравнения между собой. */
+    private static List<List<Object>> rows(String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                rows.add(
+                        List.of(
+                                resultSet.getInt(1),
+                                resultSet.getInt(2),
+                                resultSet.getInt(3),
+                                resultSet.getBigDecimal(4).stripTrailingZeros()));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,240 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+class OrderAnalyticsStoreTest {
+
+    private PooledDataSource dataSource;
+    private OrderAnalyticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        store = new OrderAnalyticsStore(dataSource, Duration.ofHours(1), Duration.ofHours(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        dataSource.close();
+    }
+
+    @Test
+    void shouldMatchDatabaseAggregatesAfterStart() {
+        store.start();
+
+        List<OrderAnalytics> fromMemory = sortedByUserId(store.getUserAnalytics());
+        List<OrderAnalytics> fromDatabase =
+                sortedByUserId(new PostgresOrderRepository(dataSource).getUserAnalytics());
+
+        assertThat(fromMemory).hasSameSizeAs(fromDatabase).hasSize(5);
+        for (int i = 0; i < fromDatabase.size(); i++) {
+            OrderAnalytics expected = fromDatabase.get(i);
+            OrderAnalytics actual = fromMemory.get(i);
+            assertThat(actual.getUserId()).isEqualTo(expected.getUserId());
+            assertThat(actual.getOrdersCount()).isEqualTo(expected.getOrdersCount());
+            assertThat(actual.getTotalSpent()).isEqualByComparingTo(expected.getTotalSpent());
+            assertThat(actual.getCustomerType()).isEqualTo(expected.getCustomerType());
+        }
+        assertThat(store.isFresh()).isTrue();
+    }
+
+    @Test
+    void shouldApplyOrderEventsIncrementally() {
+        store.start();
+
+        store.apply(OrderEvent.inserted(new OrderRow(100, 3, new BigDecimal("20000.00"))));
+        store.apply(
+                OrderEvent.updated(
+                        new OrderRow(4, 2, new BigDecimal("5000.00")),
+                        new OrderRow(4, 2, new BigDecimal("3000.00"))));
+        store.apply(OrderEvent.deleted(new OrderRow(3, 1, new BigDecimal("20000.00"))));
+
+        List<OrderAnalytics> top = store.getTopCustomers(3);
+
+        assertThat(top).extracting(OrderAnalytics::getUserId).containsExactly(1L, 3L, 2L);
+        assertThat(top.get(0).getOrdersCount()).isEqualTo(2);
+        assertThat(top.get(0).getTotalSpent()).isEqualByComparingTo("40000.00");
+        assertThat(top.get(0).getCustomerType()).isEqualTo("REGULAR");
+        assertThat(top.get(1).getTotalSpent()).isEqualByComparingTo("20999.99");
+        assertThat(top.get(1).getAvgOrderValue()).isEqualByComparingTo("10500.00");
+        assertThat(top.get(2).getTotalSpent()).isEqualByComparingTo("10000.00");
+    }
+
+    @Test
+    void shouldPickUpExternalChangesOnRefresh() {
+        store.start();
+        execute("DELETE FROM orders WHERE user_id = 1");
+
+        assertThat(store.getTopCustomers(1).get(0).getUserId()).isEqualTo(1L);
+
+        store.refresh();
+
+        assertThat(store.getTopCustomers(1).get(0).getUserId()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldCountEventDeliveredDuringRefreshOnce() {
+        AtomicReference<Runnable> beforeConnection = new AtomicReference<>(() -> {});
+        OrderAnalyticsStore hooked =
+                new OrderAnalyticsStore(
+                        hookedDataSource(() -> beforeConnection.getAndSet(() -> {}).run()),
+                        Duration.ofHours(1),
+                        Duration.ofHours(2));
+        hooked.start();
+        // Заказ закоммичен до снимка, а событие о нём приходит, когда сверка уже началась
+        execute("INSERT INTO orders (id, user_id, total, status) VALUES (100, 4, 700.00, 'new')");
+        beforeConnection.set(
+                () ->
+                        hooked.apply(
+                                OrderEvent.inserted(
+                                        new OrderRow(100, 4, new BigDecimal("700.00")))));
+
+        hooked.refresh();
+
+        OrderAnalytics user = sortedByUserId(hooked.getUserAnalytics()).get(3);
+        assertThat(user.getUserId()).isEqualTo(4L);
+        assertThat(user.getOrdersCount()).isEqualTo(1);
+        assertThat(user.getTotalSpent()).isEqualByComparingTo("700.00");
+        hooked.close();
+    }
+
+    @Test
+    void shouldApplyEventsWhileChangedOrdersAreRead() {
+        AtomicReference<Runnable> beforeConnection = new AtomicReference<>(() -> {});
+        AtomicReference<Runnable> beforeOrdersRead = new AtomicReference<>(() -> {});
+        OrderAnalyticsStore hooked =
+                new OrderAnalyticsStore(
+                        hookedDataSource(
+                                () -> beforeConnection.getAndSet(() -> {}).run(),
+                                sql -> {
+                                    if (sql.contains("ANY(")) {
+                                        beforeOrdersRead.getAndSet(() -> {}).run();
+                                    }
+                                }),
+                        Duration.ofHours(1),
+                        Duration.ofHours(2));
+        hooked.start();
+        execute("INSERT INTO orders (id, user_id, total, status) VALUES (100, 4, 700.00, 'new')");
+        execute("INSERT INTO orders (id, user_id, total, status) VALUES (101, 4, 300.00, 'new')");
+        beforeConnection.set(
+                () ->
+                        hooked.apply(
+                                OrderEvent.inserted(
+                                        new OrderRow(100, 4, new BigDecimal("700.00")))));
+        // Событие приходит из другого потока, пока сверка читает строки изменённых заказов
+        OrderEvent late = OrderEvent.inserted(new OrderRow(101, 4, new BigDecimal("300.00")));
+        AtomicBoolean applied = new AtomicBoolean();
+        beforeOrdersRead.set(
+                () -> {
+                    Thread writer =
+                            Thread.ofVirtual()
+                                    .start(
+                                            () -> {
+                                                hooked.apply(late);
+                                                applied.set(true);
+                                            });
+                    try {
+                        writer.join(Duration.ofSeconds(5));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        hooked.refresh();
+
+        assertThat(applied).isTrue();
+        OrderAnalytics user = sortedByUserId(hooked.getUserAnalytics()).get(3);
+        assertThat(user.getOrdersCount()).isEqualTo(2);
+        assertThat(user.getTotalSpent()).isEqualByComparingTo("1000.00");
+        hooked.close();
+    }
+
+    @Test
+    void shouldRejectReadsBeforeStart() {
+        assertThat(store.isFresh()).isFalse();
+        assertThatThrownBy(() -> store.getUserAnalytics()).isInstanceOf(DataAccessException.class);
+    }
+
+    private static List<OrderAnalytics> sortedByUserId(List<OrderAnalytics> analytics) {
+        return analytics.stream()
+                .sorted(Comparator.comparingLong(OrderAnalytics::getUserId))
+                .toList();
+    }
+
+    private DataSource hookedDataSource(Runnable beforeConnection) {
+        return hookedDataSource(beforeConnection, sql -> {});
+    }
+
+    private DataSource hookedDataSource(Runnable beforeConnection, Consumer<String> beforePrepare) {
+        return (DataSource)
+                Proxy.newProxyInstance(
+                        DataSource.class.getClassLoader(),
+                        new Class<?>[] {DataSource.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("getConnection")) {
+                                beforeConnection.run();
+                                return hookedConnection(
+                                        (Connection) invoke(dataSource, method, args),
+                                        beforePrepare);
+                            }
+                            return invoke(dataSource, method, args);
+                        });
+    }
+
+    private static Connection hookedConnection(
+            Connection connection, Consumer<String> beforePrepare) {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("prepareStatement")) {
+                                beforePrepare.accept((String) args[0]);
+                            }
+                            return invoke(connection, method, args);
+                        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderValuePercentiles;
+
+class OrderValueDigestsTest {
+
+    @Test
+    void shouldKeepTailQuantilesAccurateAfterMerging() {
+        int count = 200_000;
+        double[] values = new double[count];
+        TDigest[] months = {new TDigest(), new TDigest(), new TDigest()};
+        Random random = new Random(7);
+        for (int i = 0; i < count; i++) {
+            // логнормальные суммы: длинный правый хвост, как у корзин заказов
+            values[i] = Math.exp(random.nextGaussian() * 1.2 + 8);
+            months[i % months.length].add(values[i]);
+        }
+        TDigest merged = new TDigest();
+        for (TDigest month : months) {
+            merged.merge(month);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            int rank = Arrays.binarySearch(values, merged.quantile(q));
+            double actualQ = (double) (rank < 0 ? -rank - 1 : rank) / count;
+            assertThat(actualQ).isBetween(q - 0.005, q + 0.005);
+        }
+        assertThat(merged.quantile(0)).isEqualTo(values[0]);
+        assertThat(merged.quantile(1)).isEqualTo(values[count - 1]);
+        assertThat(merged.centroidCount()).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void shouldComputePercentilesByMonthAndCustomerType() {
+        OrderValueDigests digests;
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            digests = OrderValueDigests.load(dataSource, TDigest.DEFAULT_COMPRESSION);
+        }
+        YearMonth january = YearMonth.of(2024, 1);
+        YearMonth march = YearMonth.of(2024, 3);
+
+        OrderValuePercentiles quarter = digests.getPercentiles(january, march);
+        OrderValuePercentiles regular = digests.getPercentiles("REGULAR", january, march);
+
+        assertThat(quarter.getOrdersCount()).isEqualTo(6);
+        assertThat(quarter.getP50()).isEqualByComparingTo("11000.00");
+        assertThat(quarter.getP99()).isEqualByComparingTo("25000.00");
+        assertThat(regular.getOrdersCount()).isEqualTo(3);
+        assertThat(regular.getP50()).isEqualByComparingTo("15000.00");
+        assertThat(digests.getPercentiles("VIP", january, march).getP50())
+                .isEqualByComparingTo("20000.00");
+        assertThat(digests.getMonthlyPercentiles())
+                .containsOnlyKeys(january, YearMonth.of(2024, 2), march);
+        assertThat(digests.getPercentiles(YearMonth.of(2025, 1), YearMonth.of(2025, 12)).getP50())
+                .isNull();
+    }
+
+    @Test
+    void shouldSkipOrdersWithoutCreationTime() throws SQLException {
+        OrderValueDigests digests;
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "INSERT INTO orders (user_id, total, status, created_at)"
+                                + " VALUES (4, 100.00, 'pending', NULL)");
+            }
+            digests = OrderValueDigests.load(dataSource, TDigest.DEFAULT_COMPRESSION);
+        }
+
+        assertThat(
+                        digests.getPercentiles(YearMonth.of(2024, 1), YearMonth.of(2024, 3))
+                                .getOrdersCount())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void shouldApplyNewOrdersIncrementally() {
+        OrderValueDigests digests = new OrderValueDigests(TDigest.DEFAULT_COMPRESSION);
+        YearMonth month = YearMonth.of(2024, 5);
+        for (int i = 1; i <= 100; i++) {
+            digests.record(month.atDay(1).atStartOfDay(), i * 10_000L, "NEW");
+        }
+
+        OrderValuePercentiles before = digests.getPercentiles(month, month);
+        digests.record(month.atDay(2).atStartOfDay(), 100_000_000L, "VIP");
+        OrderValuePercentiles after = digests.getPercentiles(month, month);
+
+        assertThat(before.getP50()).isEqualByComparingTo("5050.00");
+        assertThat(after.getOrdersCount()).isEqualTo(101);
+        assertThat(after.getP99()).isGreaterThan(before.getP99());
+        assertThat(digests.getPercentiles("NEW", month, month).getP99())
+                .isEqualByComparingTo(before.getP99());
+    }
+}
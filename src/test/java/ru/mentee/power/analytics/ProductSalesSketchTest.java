@@ -0,0 +1,98 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+
+class ProductSalesSketchTest {
+
+    @Test
+    void shouldBoundTrueCountsOfSkewedStream() {
+        SpaceSaving<Integer> sketch = new SpaceSaving<>(50);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // степенное распределение: ключ 0 самый частый, хвост из ~5000 редких ключей
+            int key = (int) Math.floor(Math.pow(random.nextDouble(), 3) * 5_000);
+            sketch.offer(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<HeavyHitter<Integer>> top = sketch.top(10);
+
+        assertThat(top).hasSize(10);
+        assertThat(top.get(0).getKey()).isZero();
+        long tenthExact =
+                exact.values().stream().sorted(Comparator.reverseOrder()).toList().get(9);
+        for (HeavyHitter<Integer> hitter : top) {
+            long actual = exact.get(hitter.getKey());
+            assertThat(actual).isBetween(hitter.lowerBound(), hitter.getCount());
+            if (hitter.isGuaranteed()) {
+                assertThat(actual).isGreaterThanOrEqualTo(tenthExact);
+            }
+        }
+        assertThat(sketch.errorBound()).isLessThanOrEqualTo(sketch.totalWeight() / 50);
+    }
+
+    @Test
+    void shouldMatchExactTopSellingProductsFromDatabase() {
+        ProductSalesSketch sketch;
+        try (PooledDataSource dataSource =
+                new PooledDataSource(new TestDatabaseConfig().createTestConfig())) {
+            sketch = ProductSalesSketch.load(dataSource, 16);
+        }
+
+        List<ProductSalesEstimate> top = sketch.getTopSellingProducts(2);
+
+        assertThat(sketch.totalOrderItems()).isEqualTo(8);
+        assertThat(sketch.errorBound()).isZero();
+        assertThat(top.get(0).getProductName()).isEqualTo("Book");
+        assertThat(top.get(0).getEstimate()).isEqualTo(3);
+        assertThat(top.get(0).isGuaranteed()).isTrue();
+        assertThat(sketch.getCategoryLeaders())
+                .extracting(ProductSalesEstimate::getProductName)
+                .containsExactly("Book", "Phone", "Pen");
+    }
+
+    @Test
+    void shouldTrackCategoryLeadersByQuantity() {
+        ProductSalesSketch sketch = new ProductSalesSketch(2);
+        sketch.record(new OrderItemSale(1, "Laptop", "Electronics", 1));
+        sketch.record(new OrderItemSale(2, "Phone", "Electronics", 3));
+        sketch.record(new OrderItemSale(3, "Cable", "Electronics", 1));
+        sketch.record(new OrderItemSale(2, "Phone", "Electronics", 2));
+
+        ProductSalesEstimate leader = sketch.getCategoryLeaders().get(0);
+
+        assertThat(leader.getProductId()).isEqualTo(2);
+        assertThat(leader.getEstimate() - leader.getMaxError()).isLessThanOrEqualTo(5);
+        assertThat(leader.getEstimate()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void shouldKeepMetadataOnlyForTrackedProductsAndCapCategories() {
+        ProductSalesSketch sketch = new ProductSalesSketch(4, 2);
+        sketch.record(new OrderItemSale(1, "Laptop", "Electronics", 5_000));
+        sketch.record(new OrderItemSale(2, "Book", "Books", 40));
+        for (long productId = 100; productId < 1_100; productId++) {
+            sketch.record(
+                    new OrderItemSale(productId, "Item " + productId, "Misc " + productId, 1));
+        }
+
+        assertThat(sketch.trackedProducts()).isLessThanOrEqualTo(4 + 2 * 4);
+        assertThat(sketch.getCategoryLeaders())
+                .hasSizeLessThanOrEqualTo(2)
+                .extracting(ProductSalesEstimate::getProductName)
+                .contains("Laptop");
+        assertThat(sketch.getTopSellingProducts(4))
+                .allSatisfy(estimate -> assertThat(estimate.getProductName()).isNotNull());
+    }
+}
@@ -0,0 +1,86 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import ru.mentee.power.config.DatabaseConfig;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PoolConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.repository.PostgresUserRepository;
+import ru.mentee.power.repository.async.AsyncUserRepository;
+import ru.mentee.power.repository.async.VirtualThreadExecutor;
+
+/**
+ * Сравнивает пропускную способность {@code findById} при большом числе одновременных запросов:
+ * асинхронный фасад на виртуальных потоках против блокирующего API на фиксированном пуле
+ * платформенных потоков. Оба варианта работают с одним и тем же пулом соединений.
+ *
+ * <p>Запуск: {@code java ... ru.mentee.power.benchmark.AsyncRepositoryBenchmark [requests]
+ * [platformThreads]}
+ */
+public class AsyncRepositoryBenchmark {
+
+    private static final int DEFAULT_REQUESTS = 10_000;
+    private static final int DEFAULT_PLATFORM_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_REQUESTS;
+        int platformThreads =
+                args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLATFORM_THREADS;
+        DatabaseConfig config = new TestDatabaseConfig().createTestConfig();
+        PoolConfig poolConfig = PoolConfig.builder().maximumPoolSize(POOL_SIZE).build();
+
+        try (PooledDataSource dataSource = new PooledDataSource(config, poolConfig);
+                VirtualThreadExecutor executor = VirtualThreadExecutor.forPool(dataSource);
+                ExecutorService platform = Executors.newFixedThreadPool(platformThreads)) {
+            PostgresUserRepository repository = new PostgresUserRepository(dataSource);
+            AsyncUserRepository async = new AsyncUserRepository(repository, executor);
+
+            // прогрев JIT и пула
+            runBlocking(repository, platform, requests / 5);
+            runAsync(async, requests / 5);
+
+            long blocking = runBlocking(repository, platform, requests);
+            long virtual = runAsync(async, requests);
+
+            System.out.printf(
+                    "blocking (%d platform threads): %6d ms, %8.0f ops/s%n",
+                    platformThreads, blocking, requests * 1_000.0 / Math.max(1, blocking));
+            System.out.printf(
+                    "async (virtual threads):       %6d ms, %8.0f ops/s%n",
+                    virtual, requests * 1_000.0 / Math.max(1, virtual));
+        }
+    }
+
+    private static long runBlocking(
+            PostgresUserRepository repository, ExecutorService platform, int requests)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long id = i % 5 + 1;
+            futures.add(platform.submit(() -> repository.findById(id)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long runAsync(AsyncUserRepository repository, int requests) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            futures[i] = repository.findById((long) (i % 5 + 1));
+        }
+        CompletableFuture.allOf(futures).join();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
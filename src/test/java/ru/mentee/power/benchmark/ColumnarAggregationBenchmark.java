@@ -0,0 +1,129 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import ru.mentee.power.analytics.ColumnarOrderEngine;
+import ru.mentee.power.analytics.MonthlyRollupJob;
+import ru.mentee.power.analytics.OrderColumns;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+/**
+ * Сравнивает {@code getMonthlyOrderStats()} через SQL и через {@link ColumnarOrderEngine} на
+ * синтетических заказах, а также проверяет, что результаты совпадают. SQL выполняется в
+ * PostgreSQL в Testcontainers ({@link PostgresBenchmarkDatabase}) дважды: по всей таблице, пока
+ * сводка {@code monthly_order_stats} пуста, и после {@link MonthlyRollupJob}, когда запрос читает
+ * только сводку. Для 50M строк нужен heap порядка 16 ГБ.
+ *
+ * <p>Запуск: {@code java ... ru.mentee.power.benchmark.ColumnarAggregationBenchmark [rows]
+ * [iterations]}
+ */
+public class ColumnarAggregationBenchmark {
+
+    private static final long DEFAULT_ROWS = 10_000_000;
+    private static final int DEFAULT_ITERATIONS = 5;
+
+    private static final String SEED_SQL =
+            "INSERT INTO orders(user_id, total, status, created_at) SELECT x % 5 + 1,"
+                    + " CAST((x * 7919) % 100000 AS DECIMAL(10, 2)) / 100, CASE x % 4 WHEN 0 THEN"
+                    + " 'pending' WHEN 1 THEN 'shipped' ELSE 'delivered' END, TIMESTAMP"
+                    + " '2025-01-01 00:00:00' - make_interval(mins => CAST((x * 31) % 5256000 AS"
+                    + " INTEGER)) FROM generate_series(1, ?) AS x";
+
+    // Сводку всё равно строит MonthlyRollupJob с нуля: метки грязных месяцев при заливке не нужны
+    private static final String DISABLE_DIRTY_TRIGGER_SQL =
+            "ALTER TABLE orders DISABLE TRIGGER orders_monthly_order_stats_dirty";
+
+    private static final String ENABLE_DIRTY_TRIGGER_SQL =
+            "ALTER TABLE orders ENABLE TRIGGER orders_monthly_order_stats_dirty";
+
+    public static void main(String[] args) throws SQLException, IOException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_ROWS;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        try (PostgresBenchmarkDatabase database = PostgresBenchmarkDatabase.start()) {
+            PooledDataSource dataSource = database.dataSource();
+            seed(dataSource, rows);
+            PostgresOrderRepository repository = new PostgresOrderRepository(dataSource);
+
+            long loadStart = System.nanoTime();
+            OrderColumns columns = OrderColumns.load(dataSource);
+            double loadMillis = (System.nanoTime() - loadStart) / 1_000_000.0;
+            ColumnarOrderEngine engine = new ColumnarOrderEngine(columns);
+
+            List<MonthlyOrderStats> fromSql = repository.getMonthlyOrderStats();
+            List<MonthlyOrderStats> fromColumns = engine.getMonthlyOrderStats();
+            verify(fromSql, fromColumns);
+
+            double sqlMillis = measure(iterations, repository::getMonthlyOrderStats);
+            double columnarMillis = measure(iterations, engine::getMonthlyOrderStats);
+
+            long rollupStart = System.nanoTime();
+            new MonthlyRollupJob(dataSource, Duration.ZERO).run();
+            double rollupMillis = (System.nanoTime() - rollupStart) / 1_000_000.0;
+            verify(repository.getMonthlyOrderStats(), fromColumns);
+            double rolledUpMillis = measure(iterations, repository::getMonthlyOrderStats);
+
+            System.out.printf(
+                    "%,d orders, %d months%n  sql full scan: %10.1f ms/op%n"
+                            + "  sql rollup:    %10.1f ms/op (one-off rollup %.1f ms)%n"
+                            + "  columnar:      %10.1f ms/op (one-off load %.1f ms)%n",
+                    columns.size(),
+                    fromColumns.size(),
+                    sqlMillis,
+                    rolledUpMillis,
+                    rollupMillis,
+                    columnarMillis,
+                    loadMillis);
+        }
+    }
+
+    private static void seed(PooledDataSource dataSource, long rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(DISABLE_DIRTY_TRIGGER_SQL);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SEED_SQL)) {
+                statement.setLong(1, rows);
+                statement.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(ENABLE_DIRTY_TRIGGER_SQL);
+            }
+        }
+    }
+
+    private static void verify(List<MonthlyOrderStats> expected, List<MonthlyOrderStats> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException(
+                    "Month count differs: " + expected.size() + " vs " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            MonthlyOrderStats sql = expected.get(i);
+            MonthlyOrderStats columnar = actual.get(i);
+            if (sql.getYear() != columnar.getYear()
+                    || sql.getMonth() != columnar.getMonth()
+                    || sql.getOrdersCount() != columnar.getOrdersCount()
+                    || sql.getMonthlyRevenue().compareTo(columnar.getMonthlyRevenue()) != 0) {
+                throw new IllegalStateException("Results differ: " + sql + " vs " + columnar);
+            }
+        }
+    }
+
+    private static double measure(int iterations, Supplier<?> call) {
+        call.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / iterations;
+    }
+}
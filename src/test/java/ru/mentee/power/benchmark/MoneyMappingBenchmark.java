@@ -0,0 +1,154 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderAnalytics;
+
+/**
+ * Сравнивает аллокации маппера строк {@link OrderAnalytics} на {@link BigDecimal} (как было до
+ * перехода на копейки) и на {@code long}-копейках. Оба маппера читают один и тот же результат
+ * запроса к PostgreSQL в Testcontainers ({@link PostgresBenchmarkDatabase}). Драйвер получает все
+ * строки ещё в {@code executeQuery}, поэтому байты, выделенные текущим потоком, считаются только
+ * за проход маппера по уже загруженным строкам: разбор значений драйвером и объекты модели, без
+ * сетевого чтения и без работы встроенной СУБД в том же потоке.
+ *
+ * <p>Запуск: {@code java ... ru.mentee.power.benchmark.MoneyMappingBenchmark [rows] [iterations]}
+ */
+public class MoneyMappingBenchmark {
+
+    private static final long DEFAULT_ROWS = 200_000;
+    private static final int DEFAULT_ITERATIONS = 5;
+
+    private static final String SEED_SQL =
+            "INSERT INTO orders(user_id, total, status, created_at) SELECT x % 5 + 1,"
+                    + " CAST((x * 7919) % 10000000 AS DECIMAL(10, 2)) / 100, 'delivered',"
+                    + " TIMESTAMP '2024-06-01 00:00:00' FROM generate_series(1, ?) AS x";
+
+    private static final String ROWS_SQL =
+            "SELECT id AS user_id, 3 AS orders_count, total AS total_spent,"
+                    + " CAST(total * 100 AS BIGINT) AS total_spent_cents FROM orders";
+
+    private static final BigDecimal VIP_THRESHOLD = BigDecimal.valueOf(50000);
+    private static final BigDecimal REGULAR_THRESHOLD = BigDecimal.valueOf(10000);
+
+    /** Не даёт JIT убрать создание объектов строк. */
+    private static volatile Object sink;
+
+    /** Прежнее представление строки: все суммы в {@link BigDecimal}. */
+    private record LegacyAnalytics(
+            long userId,
+            int ordersCount,
+            BigDecimal totalSpent,
+            BigDecimal avgOrderValue,
+            String customerType) {}
+
+    @FunctionalInterface
+    private interface RowMapper {
+        Object map(ResultSet resultSet) throws SQLException;
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_ROWS;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        try (PostgresBenchmarkDatabase database = PostgresBenchmarkDatabase.start()) {
+            PooledDataSource dataSource = database.dataSource();
+            seed(dataSource, rows);
+
+            Result legacy = null;
+            Result cents = null;
+            for (int i = 0; i <= iterations; i++) {
+                // первый проход прогревает JIT и не учитывается
+                Result nextLegacy = measure(dataSource, MoneyMappingBenchmark::mapLegacy);
+                Result nextCents = measure(dataSource, MoneyMappingBenchmark::mapCents);
+                if (i > 0) {
+                    legacy = Result.min(legacy, nextLegacy);
+                    cents = Result.min(cents, nextCents);
+                }
+            }
+
+            System.out.printf(
+                    "%,d rows%n  BigDecimal: %8.1f bytes/row %8.1f ms%n"
+                            + "  long cents: %8.1f bytes/row %8.1f ms%n",
+                    cents.rows(),
+                    legacy.bytesPerRow(),
+                    legacy.millis(),
+                    cents.bytesPerRow(),
+                    cents.millis());
+        }
+    }
+
+    private static Object mapLegacy(ResultSet rs) throws SQLException {
+        int ordersCount = rs.getInt("orders_count");
+        BigDecimal totalSpent = rs.getBigDecimal("total_spent");
+        String customerType;
+        if (totalSpent.compareTo(VIP_THRESHOLD) > 0) {
+            customerType = "VIP";
+        } else if (totalSpent.compareTo(REGULAR_THRESHOLD) >= 0) {
+            customerType = "REGULAR";
+        } else {
+            customerType = "NEW";
+        }
+        return new LegacyAnalytics(
+                rs.getLong("user_id"),
+                ordersCount,
+                totalSpent,
+                totalSpent.divide(BigDecimal.valueOf(ordersCount), 2, RoundingMode.HALF_UP),
+                customerType);
+    }
+
+    private static Object mapCents(ResultSet rs) throws SQLException {
+        return new OrderAnalytics(
+                rs.getLong("user_id"), rs.getInt("orders_count"), rs.getLong("total_spent_cents"));
+    }
+
+    private record Result(long rows, long bytes, double millis) {
+
+        double bytesPerRow() {
+            return (double) bytes / rows;
+        }
+
+        static Result min(Result current, Result next) {
+            return current == null || next.bytes < current.bytes ? next : current;
+        }
+    }
+
+    private static Result measure(PooledDataSource dataSource, RowMapper mapper)
+            throws SQLException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(ROWS_SQL)) {
+            // без курсора: executeQuery читает весь результат до начала замера
+            statement.setFetchSize(0);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                long rows = 0;
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                while (resultSet.next()) {
+                    sink = mapper.map(resultSet);
+                    rows++;
+                }
+                double millis = (System.nanoTime() - start) / 1_000_000.0;
+                long bytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                return new Result(rows, bytes, millis);
+            }
+        }
+    }
+
+    private static void seed(PooledDataSource dataSource, long rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(SEED_SQL)) {
+            statement.setLong(1, rows);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.mentee.power.config.DatabaseConfig;
+import ru.mentee.power.config.PostgresConfig;
+import ru.mentee.power.connection.PooledDataSource;
+
+/**
+ * PostgreSQL в Testcontainers со схемой {@code 00-schema.sql} и пятью пользователями — БД для
+ * бенчмарков, чьи выводы относятся к PostgreSQL. Нужен запущенный Docker.
+ */
+final class PostgresBenchmarkDatabase implements AutoCloseable {
+
+    private static final String USERS_SQL =
+            "INSERT INTO users(name, email) SELECT 'User ' || x, 'user' || x || '@example.com'"
+                    + " FROM generate_series(1, 5) AS x";
+
+    private final PostgreSQLContainer<?> container;
+    private final PooledDataSource dataSource;
+
+    private PostgresBenchmarkDatabase(PostgreSQLContainer<?> container) {
+        this.container = container;
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.DB_URL, container.getJdbcUrl());
+        properties.setProperty(DatabaseConfig.DB_USERNAME, container.getUsername());
+        properties.setProperty(DatabaseConfig.DB_PASSWORD, container.getPassword());
+        properties.setProperty(DatabaseConfig.DB_SHOW_SQL, "false");
+        this.dataSource = new PooledDataSource(new PostgresConfig(properties));
+    }
+
+    static PostgresBenchmarkDatabase start() throws SQLException, IOException {
+        PostgreSQLContainer<?> container =
+                new PostgreSQLContainer<>("postgres:13")
+                        .withDatabaseName("benchmark")
+                        .withUsername("benchmark")
+                        .withPassword("benchmark");
+        container.start();
+        PostgresBenchmarkDatabase database = new PostgresBenchmarkDatabase(container);
+        try (InputStream input =
+                        PostgresBenchmarkDatabase.class.getResourceAsStream("/sql/00-schema.sql");
+                Connection connection = database.dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            statement.executeUpdate(USERS_SQL);
+        } catch (SQLException | IOException | RuntimeException e) {
+            database.close();
+            throw e;
+        }
+        return database;
+    }
+
+    PooledDataSource dataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+        container.stop();
+    }
+}
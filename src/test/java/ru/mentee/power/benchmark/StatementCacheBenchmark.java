@@ -0,0 +1,71 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.benchmark;
+
+import java.util.function.LongConsumer;
+import ru.mentee.power.config.DatabaseConfig;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PoolConfig;
+import ru.mentee.power.connection.PoolStats;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.repository.PostgresUserRepository;
+
+/**
+ * Сравнивает задержку {@code findById}/{@code findByEmail} с кэшем подготовленных выражений и без
+ * него. По умолчанию работает на тестовой БД из {@code application-test.properties}; для замера на
+ * PostgreSQL достаточно подменить параметры подключения в этом файле.
+ *
+ * <p>Запуск: {@code java ... ru.mentee.power.benchmark.StatementCacheBenchmark [iterations]}
+ */
+public class StatementCacheBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 50_000;
+    private static final String[] EMAILS = {
+        "john.doe@example.com",
+        "jane.smith@example.com",
+        "alice.johnson@example.com",
+        "bob.wilson@example.com",
+        "charlie.brown@example.com"
+    };
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        DatabaseConfig config = new TestDatabaseConfig().createTestConfig();
+
+        run("without cache", config, 0, iterations);
+        run("with cache", config, 64, iterations);
+    }
+
+    private static void run(String label, DatabaseConfig config, int cacheSize, int iterations) {
+        PoolConfig poolConfig =
+                PoolConfig.builder().maximumPoolSize(1).statementCacheSize(cacheSize).build();
+        try (PooledDataSource dataSource = new PooledDataSource(config, poolConfig)) {
+            PostgresUserRepository repository = new PostgresUserRepository(dataSource);
+
+            // прогрев JIT и пула
+            measure(iterations / 5, i -> repository.findById(i % 5 + 1));
+            measure(iterations / 5, i -> repository.findByEmail(EMAILS[(int) (i % 5)]));
+
+            double byId = measure(iterations, i -> repository.findById(i % 5 + 1));
+            double byEmail =
+                    measure(iterations, i -> repository.findByEmail(EMAILS[(int) (i % 5)]));
+
+            PoolStats stats = dataSource.getStats();
+            System.out.printf(
+                    "%-14s findById: %8.2f us/op, findByEmail: %8.2f us/op"
+                            + " (cache hits=%d, misses=%d)%n",
+                    label,
+                    byId,
+                    byEmail,
+                    stats.getStatementCacheHits(),
+                    stats.getStatementCacheMisses());
+        }
+    }
+
+    private static double measure(int iterations, LongConsumer call) {
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            call.accept(i);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+}
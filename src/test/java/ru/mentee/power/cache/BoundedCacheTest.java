@@ -0,0 +1,238 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+class BoundedCacheTest {
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(
+                        executor.submit(
+                                () ->
+                                        cache.get(
+                                                1L,
+                                                key -> {
+                                                    loads.incrementAndGet();
+                                                    await(release);
+                                                    return "value";
+                                                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws InterruptedException {
+        BoundedCache<String, String> cache =
+                new BoundedCache<>(
+                        100,
+                        value -> value.isEmpty() ? Duration.ofMillis(1) : Duration.ofMinutes(1));
+        cache.put("missing", "");
+        cache.put("present", "value");
+
+        Thread.sleep(10);
+
+        assertThat(cache.getIfPresent("missing")).isNull();
+        assertThat(cache.getIfPresent("present")).isEqualTo("value");
+        assertThat(cache.getStats().getExpiredCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStayWithinMaximumSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(64, Duration.ofMinutes(1));
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(i, key -> key);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    void shouldKeepHotKeyDuringScanOfColdKeys() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(16, Duration.ofMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            cache.get(-1, key -> key);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            cache.get(i, key -> key);
+            if (i % 10 == 0) {
+                cache.get(-1, key -> key);
+            }
+        }
+
+        assertThat(cache.peek(-1)).isEqualTo(-1);
+        assertThat(cache.getStats().getRejectedCount()).isPositive();
+    }
+
+    @Test
+    void shouldDropInvalidatedKey() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        cache.get(1L, key -> "old");
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L, key -> "new")).isEqualTo("new");
+        assertThat(cache.getStats().getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropPutStampedBeforeInvalidation() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        long stamp = cache.invalidationStamp();
+
+        cache.invalidate(1L);
+        cache.putIfNotInvalidatedSince(1L, "stale", stamp);
+        cache.putIfNotInvalidatedSince(2L, "fresh", cache.invalidationStamp());
+
+        assertThat(cache.peek(1L)).isNull();
+        assertThat(cache.peek(2L)).isEqualTo("fresh");
+    }
+
+    @Test
+    void shouldKeepStampsOfOtherSegmentsValidAfterSingleKeyInvalidation() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        Long other =
+                LongStream.rangeClosed(2, 1_000)
+                        .boxed()
+                        .filter(key -> segmentIndex(key) != segmentIndex(1L))
+                        .findFirst()
+                        .orElseThrow();
+        long stamp = cache.invalidationStamp();
+
+        cache.invalidate(1L);
+        cache.get(3L, key -> "loaded");
+        cache.putIfNotInvalidatedSince(other, "fresh", stamp);
+
+        assertThat(cache.peek(other)).isEqualTo("fresh");
+    }
+
+    @Test
+    void shouldHonorMaximumSizeNotDivisibleBySegmentCount() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(20, Duration.ofMinutes(1));
+
+        for (long key = 0; key < 10_000 && cache.size() < 20; key++) {
+            cache.put(key, "value");
+        }
+
+        assertThat(cache.size()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldBoundJoiningCallerByItsOwnDeadline() throws Exception {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loader =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            1L,
+                                            key -> {
+                                                loading.countDown();
+                                                await(release);
+                                                return "value";
+                                            }));
+            loading.await();
+
+            assertThatThrownBy(
+                            () ->
+                                    Deadline.within(
+                                            Duration.ofMillis(50),
+                                            () -> cache.get(1L, key -> "unexpected")))
+                    .isInstanceOf(QueryTimeoutException.class);
+
+            release.countDown();
+            assertThat(loader.get()).isEqualTo("value");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRetryWhenJoinedLoadHitsAnotherCallersDeadline() throws Exception {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> timedOut =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            1L,
+                                            key -> {
+                                                loads.incrementAndGet();
+                                                loading.countDown();
+                                                await(release);
+                                                throw new QueryTimeoutException("Loader timed out");
+                                            }));
+            loading.await();
+            Future<String> waiter =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            1L,
+                                            key -> {
+                                                loads.incrementAndGet();
+                                                return "value";
+                                            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThatThrownBy(timedOut::get).hasCauseInstanceOf(QueryTimeoutException.class);
+            assertThat(waiter.get()).isEqualTo("value");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    /** Повторяет выбор сегмента в {@link BoundedCache} для кэша из 16 сегментов. */
+    private static int segmentIndex(Long key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % 16;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+class RefreshingCacheTest {
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        RefreshingCache<String, String> cache = cache(Duration.ofMinutes(1), Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(
+                        executor.submit(
+                                () ->
+                                        cache.get(
+                                                "key",
+                                                key -> {
+                                                    loads.incrementAndGet();
+                                                    await(release);
+                                                    return "value";
+                                                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldServeStaleValueWhileRefreshingInBackground() throws InterruptedException {
+        RefreshingCache<String, String> cache =
+                cache(Duration.ofMillis(20), Duration.ofMinutes(1));
+        cache.get("key", key -> "old");
+        Thread.sleep(40);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        String stale =
+                cache.get(
+                        "key",
+                        key -> {
+                            await(release);
+                            refreshed.countDown();
+                            return "new";
+                        });
+        String stillStale = cache.get("key", key -> "unexpected");
+        release.countDown();
+
+        assertThat(stale).isEqualTo("old");
+        assertThat(stillStale).isEqualTo("old");
+        assertThat(refreshed.await(1, TimeUnit.SECONDS)).isTrue();
+        awaitRefreshCount(cache, 2);
+        assertThat(cache.get("key", key -> "unexpected")).isEqualTo("new");
+        assertThat(cache.getStats().getStaleHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLoadSynchronouslyAfterStaleWindow() throws InterruptedException {
+        RefreshingCache<String, String> cache = cache(Duration.ofMillis(1), Duration.ofMillis(1));
+        cache.get("key", key -> "old");
+        Thread.sleep(10);
+
+        assertThat(cache.get("key", key -> "new")).isEqualTo("new");
+        assertThat(cache.getStats().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotStoreValueLoadedBeforeInvalidation() throws Exception {
+        RefreshingCache<String, String> cache = cache(Duration.ofMinutes(1), Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> result =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            "key",
+                                            key -> {
+                                                loading.countDown();
+                                                await(release);
+                                                return "old";
+                                            }));
+            loading.await();
+            cache.invalidateAll();
+            release.countDown();
+            assertThat(result.get()).isEqualTo("old");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.get("key", key -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    void shouldBoundJoiningCallerByItsOwnDeadline() throws Exception {
+        RefreshingCache<String, String> cache = cache(Duration.ofMinutes(1), Duration.ZERO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loader =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            "key",
+                                            key -> {
+                                                loading.countDown();
+                                                await(release);
+                                                return "value";
+                                            }));
+            loading.await();
+
+            assertThatThrownBy(
+                            () ->
+                                    Deadline.within(
+                                            Duration.ofMillis(50),
+                                            () -> cache.get("key", key -> "unexpected")))
+                    .isInstanceOf(QueryTimeoutException.class);
+
+            release.countDown();
+            assertThat(loader.get()).isEqualTo("value");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRetryWhenJoinedLoadHitsAnotherCallersDeadline() throws Exception {
+        RefreshingCache<String, String> cache = cache(Duration.ofMinutes(1), Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> timedOut =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            "key",
+                                            key -> {
+                                                loads.incrementAndGet();
+                                                loading.countDown();
+                                                await(release);
+                                                throw new QueryTimeoutException("Loader timed out");
+                                            }));
+            loading.await();
+            Future<String> waiter =
+                    executor.submit(
+                            () ->
+                                    cache.get(
+                                            "key",
+                                            key -> {
+                                                loads.incrementAndGet();
+                                                return "value";
+                                            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThatThrownBy(timedOut::get).hasCauseInstanceOf(QueryTimeoutException.class);
+            assertThat(waiter.get()).isEqualTo("value");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldReportHitRatioAndRefreshLatency() {
+        RefreshingCache<String, String> cache = cache(Duration.ofMinutes(1), Duration.ZERO);
+        cache.get("key", key -> "value");
+        cache.get("key", key -> "value");
+        cache.get("key", key -> "value");
+        cache.get("key", key -> "value");
+
+        RefreshingCacheStats stats = cache.getStats();
+
+        assertThat(stats.hitRatio()).isEqualTo(0.75);
+        assertThat(stats.getRefreshCount()).isEqualTo(1);
+        assertThat(stats.averageRefreshTime()).isEqualTo(stats.maxRefreshTime());
+    }
+
+    private static RefreshingCache<String, String> cache(Duration ttl, Duration stale) {
+        return new RefreshingCache<>("test", ttl, stale, 100);
+    }
+
+    private static void awaitRefreshCount(RefreshingCache<?, ?> cache, long count)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (cache.getStats().getRefreshCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.exception.QueryTimeoutException;
+import ru.mentee.power.repository.PostgresUserRepository;
+
+class DeadlineTest {
+
+    private static final String SLOW_QUERY =
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 10000000000) WHERE MOD(X, 7) = 3";
+
+    private PooledDataSource dataSource;
+    private PostgresUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        repository = new PostgresUserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldRunQueriesWithinDeadline() {
+        long count = Deadline.within(Duration.ofSeconds(5), repository::count);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    void shouldFailFastWhenDeadlineAlreadyExpired() {
+        assertThatThrownBy(() -> Deadline.within(Duration.ZERO, repository::count))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void shouldCancelSlowQueryWhenDeadlinePasses() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> Deadline.within(Duration.ofMillis(200), this::runSlowQuery))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotReturnCancelledConnectionToPool() {
+        long closedBefore = dataSource.getStats().getClosedCount();
+
+        assertThatThrownBy(() -> Deadline.within(Duration.ofMillis(200), this::runSlowQuery))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(dataSource.getStats().getClosedCount()).isEqualTo(closedBefore + 1);
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotStartQueryWhenThreadInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> Deadline.within(Duration.ofSeconds(5), this::runSlowQuery))
+                    .isInstanceOf(DataAccessException.class)
+                    .isNotInstanceOf(QueryTimeoutException.class);
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotExtendOuterDeadline() {
+        Duration remaining =
+                Deadline.within(
+                        Duration.ofMillis(100),
+                        () ->
+                                Deadline.within(
+                                        Duration.ofSeconds(10),
+                                        () -> Deadline.current().orElseThrow().remaining()));
+
+        assertThat(remaining).isLessThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    private Long runSlowQuery() {
+        try (Connection connection = UnitOfWork.getConnection(dataSource);
+                PreparedStatement statement = connection.prepareStatement(SLOW_QUERY);
+                ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+
+class PooledDataSourceTest {
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabaseConfig.TestApplicationConfig config =
+                new TestDatabaseConfig().createTestConfig();
+        dataSource =
+                new PooledDataSource(
+                        config,
+                        PoolConfig.builder()
+                                .maximumPoolSize(2)
+                                .minimumIdle(0)
+                                .connectionTimeout(Duration.ofMillis(200))
+                                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldReusePhysicalConnection() throws SQLException {
+        Connection first;
+        try (Connection connection = dataSource.getConnection()) {
+            first = connection.unwrap(Connection.class);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.unwrap(Connection.class)).isSameAs(first);
+        }
+
+        PoolStats stats = dataSource.getStats();
+        assertThat(stats.getCreatedCount()).isEqualTo(1);
+        assertThat(stats.getBorrowCount()).isEqualTo(2);
+        assertThat(stats.getIdleConnections()).isEqualTo(1);
+        assertThat(stats.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void shouldTimeOutWhenPoolIsExhausted() throws SQLException {
+        try (Connection ignored1 = dataSource.getConnection();
+                Connection ignored2 = dataSource.getConnection()) {
+            assertThatThrownBy(() -> dataSource.getConnection())
+                    .isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(dataSource.getStats().getActiveConnections()).isEqualTo(2);
+        }
+        assertThat(dataSource.getStats().getTimeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotWaitInTryGetConnectionWhenPoolIsExhausted() throws SQLException {
+        try (Connection ignored = dataSource.getConnection()) {
+            try (Connection second = dataSource.tryGetConnection().orElseThrow()) {
+                assertThat(dataSource.tryGetConnection()).isEmpty();
+                assertThat(second.isValid(1)).isTrue();
+            }
+        }
+
+        assertThat(dataSource.getStats().getTimeoutCount()).isZero();
+        assertThat(dataSource.getStats().getBorrowCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectUseOfReturnedHandle() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThatThrownBy(connection::createStatement).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void shouldResetTransactionStateOnReturn() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+            assertThat(connection.isReadOnly()).isFalse();
+        }
+    }
+
+    @Test
+    void shouldReusePreparedStatementAcrossBorrows() throws SQLException {
+        String sql = "SELECT name FROM users WHERE id = ?";
+        for (long id = 1; id <= 3; id++) {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertThat(resultSet.next()).isTrue();
+                }
+            }
+        }
+
+        PoolStats stats = dataSource.getStats();
+        assertThat(stats.getStatementCacheMisses()).isEqualTo(1);
+        assertThat(stats.getStatementCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPrepareSeparateStatementForNestedUseOfSameSql() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM users";
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement outer = connection.prepareStatement(sql);
+                PreparedStatement inner = connection.prepareStatement(sql)) {
+            assertThat(inner).isNotSameAs(outer);
+            assertThat(dataSource.getStats().getStatementCacheMisses()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldKeepHealthyConnectionAfterStatementError() throws SQLException {
+        Connection physical;
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            physical = connection.unwrap(Connection.class);
+            assertThatThrownBy(() -> statement.executeQuery("SELECT * FROM missing_table"))
+                    .isInstanceOf(SQLException.class);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.unwrap(Connection.class)).isSameAs(physical);
+        }
+    }
+
+    @Test
+    void shouldRetireConnectionThatDiedDuringStatement() throws SQLException {
+        Connection physical;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            physical = connection.unwrap(Connection.class);
+            physical.close();
+            assertThatThrownBy(statement::executeQuery).isInstanceOf(SQLException.class);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.unwrap(Connection.class)).isNotSameAs(physical);
+        }
+        assertThat(dataSource.getStats().getClosedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCloseOnlyLeakedStatementsOnReturn() throws SQLException {
+        Statement leaked;
+        try (Connection connection = dataSource.getConnection()) {
+            for (int i = 0; i < 100; i++) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            }
+            leaked = connection.createStatement();
+        }
+
+        assertThat(leaked.isClosed()).isTrue();
+    }
+
+    @Test
+    void shouldHandOutPooledHandlesFromStatementsAndResults() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT 1");
+                ResultSet resultSet = statement.executeQuery()) {
+            assertThat(statement.getConnection()).isSameAs(connection);
+            assertThat(resultSet.getStatement()).isSameAs(statement);
+        }
+    }
+
+    @Test
+    void shouldNotFillMinimumIdleBeyondMaximumPoolSize() throws InterruptedException {
+        try (PooledDataSource pool =
+                new PooledDataSource(
+                        new TestDatabaseConfig().createTestConfig(),
+                        PoolConfig.builder()
+                                .maximumPoolSize(2)
+                                .minimumIdle(5)
+                                .housekeepingPeriod(Duration.ofMillis(10))
+                                .build())) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+            while (pool.getStats().getIdleConnections() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            assertThat(pool.getStats().getTotalConnections()).isEqualTo(2);
+        }
+    }
+}
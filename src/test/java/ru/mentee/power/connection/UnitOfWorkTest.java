@@ -0,0 +1,86 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.repository.PostgresUserRepository;
+
+class UnitOfWorkTest {
+
+    private PooledDataSource dataSource;
+    private UnitOfWork unitOfWork;
+    private PostgresUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        unitOfWork = new UnitOfWork(dataSource);
+        repository = new PostgresUserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldShareOneConnectionBetweenRepositoryCalls() {
+        long count =
+                unitOfWork.execute(
+                        TransactionOptions.readOnlySnapshot(),
+                        () -> {
+                            repository.findByEmail("jane.smith@example.com");
+                            repository.findAll();
+                            return repository.count();
+                        });
+
+        assertThat(count).isEqualTo(5);
+        assertThat(dataSource.getStats().getBorrowCount()).isEqualTo(1);
+        assertThat(UnitOfWork.isActive(dataSource)).isFalse();
+    }
+
+    @Test
+    void shouldRollBackWhenWorkFails() {
+        assertThatThrownBy(
+                        () ->
+                                unitOfWork.execute(
+                                        () -> {
+                                            deleteAllUsers();
+                                            assertThat(repository.count()).isZero();
+                                            throw new DataAccessException("boom");
+                                        }))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessage("boom");
+
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldCommitWhenWorkSucceeds() {
+        unitOfWork.execute(
+                () -> {
+                    deleteAllUsers();
+                    return null;
+                });
+
+        assertThat(repository.count()).isZero();
+    }
+
+    private void deleteAllUsers() {
+        try (Connection connection = UnitOfWork.getConnection(dataSource);
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM users")) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+}
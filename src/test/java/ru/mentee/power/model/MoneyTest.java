@@ -0,0 +1,67 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.entity.OrderAnalytics;
+
+class MoneyTest {
+
+    @Test
+    void shouldRoundAverageLikeBigDecimal() {
+        long[][] cases = {{100, 3}, {200, 3}, {5, 2}, {-5, 2}, {-7, 3}, {999_999, 7}, {0, 4}};
+        for (long[] c : cases) {
+            BigDecimal expected =
+                    BigDecimal.valueOf(c[0], 2)
+                            .divide(BigDecimal.valueOf(c[1]), 2, RoundingMode.HALF_UP);
+
+            assertThat(Money.toBigDecimal(Money.average(c[0], c[1]))).isEqualTo(expected);
+        }
+        assertThat(Money.average(100, 0)).isZero();
+    }
+
+    @Test
+    void shouldConvertBetweenCentsAndBigDecimal() {
+        assertThat(Money.toCents(new BigDecimal("999.99"))).isEqualTo(99_999);
+        assertThat(Money.toCents(new BigDecimal("0.005"))).isEqualTo(1);
+        assertThat(Money.toBigDecimal(1_500_000)).isEqualTo(new BigDecimal("15000.00"));
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("1e30")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldClassifyCustomersByCents() {
+        OrderAnalytics vip = new OrderAnalytics(1, 3, 6_000_000);
+
+        assertThat(vip.getCustomerType()).isEqualTo("VIP");
+        assertThat(vip.getAvgOrderValue()).isEqualTo(new BigDecimal("20000.00"));
+        assertThat(OrderAnalytics.customerTypeOf(5_000_000)).isEqualTo("REGULAR");
+        assertThat(OrderAnalytics.customerTypeOf(999_999)).isEqualTo("NEW");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldKeepDeprecatedBigDecimalConstructorsAndSetters() {
+        OrderAnalytics analytics =
+                new OrderAnalytics(1L, 2, new BigDecimal("60000.00"), new BigDecimal("30000.00"));
+        UserOrderSummary summary =
+                new UserOrderSummary(1L, "John", "john@example.com", 2, new BigDecimal("12.34"));
+        UserOrderCount count = new UserOrderCount(1L, "John", "john@example.com", 2, null);
+
+        assertThat(analytics.getTotalSpentCents()).isEqualTo(6_000_000);
+        assertThat(analytics.getAvgOrderValueCents()).isEqualTo(3_000_000);
+        assertThat(analytics.getCustomerType()).isEqualTo("VIP");
+        assertThat(summary.getTotalSpentCents()).isEqualTo(1_234);
+        assertThat(count.getTotalSpentCents()).isZero();
+
+        analytics.setTotalSpent(new BigDecimal("100.00"));
+        count.setTotalSpent(new BigDecimal("0.50"));
+
+        assertThat(analytics.getCustomerType()).isEqualTo("NEW");
+        assertThat(count.getTotalSpent()).isEqualByComparingTo("0.50");
+    }
+}
@@ -0,0 +1,80 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.exception.DataAccessException;
+
+class BatchingLoaderTest {
+
+    private final List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private Map<Long, String> loadEvenKeys(Set<Long> keys) {
+        batches.add(Set.copyOf(keys));
+        return keys.stream()
+                .filter(key -> key % 2 == 0)
+                .collect(Collectors.toMap(Function.identity(), key -> "user-" + key));
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLoadsIntoOneBatch() {
+        BatchingLoader<Long, String> loader =
+                new BatchingLoader<>(this::loadEvenKeys, Duration.ofMillis(50), 100);
+
+        List<CompletableFuture<Optional<String>>> futures = new ArrayList<>();
+        for (long key = 1; key <= 10; key++) {
+            futures.add(loader.load(key));
+        }
+        futures.add(loader.load(2L));
+
+        assertThat(futures.get(1).join()).contains("user-2");
+        assertThat(futures.get(0).join()).isEmpty();
+        assertThat(futures.get(10).join()).contains("user-2");
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(10);
+    }
+
+    @Test
+    void shouldDispatchImmediatelyWhenBatchIsFull() {
+        BatchingLoader<Long, String> loader =
+                new BatchingLoader<>(this::loadEvenKeys, Duration.ofSeconds(30), 3);
+
+        List<CompletableFuture<Optional<String>>> futures =
+                List.of(loader.load(1L), loader.load(2L), loader.load(3L));
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        assertThat(batches).containsExactly(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void shouldFailAllFuturesOfFailedBatch() {
+        BatchingLoader<Long, String> loader =
+                new BatchingLoader<>(
+                        keys -> {
+                            throw new DataAccessException("db is down");
+                        },
+                        Duration.ofMillis(10),
+                        100);
+
+        CompletableFuture<Optional<String>> first = loader.load(1L);
+        CompletableFuture<Optional<String>> second = loader.load(2L);
+
+        assertThatThrownBy(first::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DataAccessException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(DataAccessException.class);
+    }
+}
@@ -0,0 +1,134 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.cache.CacheConfig;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.model.User;
+
+class CachingUserRepositoryTest {
+
+    private static final String JOHN_EMAIL = "john.doe@example.com";
+
+    private PooledDataSource dataSource;
+    private CountingUserRepository delegate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        delegate = new CountingUserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldServeLookupByEmailFromUserLoadedById() {
+        CachingUserRepository repository = new CachingUserRepository(delegate);
+
+        Optional<User> byId = repository.findById(1L);
+        Optional<User> byEmail = repository.findByEmail(JOHN_EMAIL);
+
+        assertThat(byEmail).isEqualTo(byId).isPresent();
+        assertThat(delegate.byIdCalls).hasValue(1);
+        assertThat(delegate.byEmailCalls).hasValue(0);
+    }
+
+    @Test
+    void shouldNotExtendTtlOfOtherCacheOnHit() throws InterruptedException {
+        CachingUserRepository repository =
+                new CachingUserRepository(
+                        delegate, CacheConfig.builder().ttl(Duration.ofMillis(300)).build());
+
+        repository.findById(1L);
+        Thread.sleep(200);
+        repository.findById(1L);
+        Thread.sleep(200);
+
+        assertThat(delegate.byEmailCalls).hasValue(0);
+        repository.findByEmail(JOHN_EMAIL);
+        assertThat(delegate.byEmailCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldNotRestoreUserInvalidatedWhileLoading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        delegate.beforeFindById =
+                () -> {
+                    loading.countDown();
+                    await(invalidated);
+                };
+        CachingUserRepository repository = new CachingUserRepository(delegate);
+
+        CompletableFuture<Optional<User>> load =
+                CompletableFuture.supplyAsync(() -> repository.findById(1L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        repository.invalidateByEmail(JOHN_EMAIL);
+        invalidated.countDown();
+        load.get(5, TimeUnit.SECONDS);
+
+        repository.findByEmail(JOHN_EMAIL);
+        assertThat(delegate.byEmailCalls).hasValue(1);
+    }
+
+    @Test
+    void shouldCacheUsersLoadedInBatch() {
+        CachingUserRepository repository = new CachingUserRepository(delegate);
+
+        List<User> users = repository.findAllByIds(List.of(1L, 2L, 99L));
+
+        assertThat(users).extracting(User::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(repository.findById(99L)).isEmpty();
+        assertThat(repository.findByEmail(JOHN_EMAIL)).isPresent();
+        assertThat(delegate.byIdCalls).hasValue(0);
+        assertThat(delegate.byEmailCalls).hasValue(0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingUserRepository extends PostgresUserRepository {
+
+        private final AtomicInteger byIdCalls = new AtomicInteger();
+        private final AtomicInteger byEmailCalls = new AtomicInteger();
+        private volatile Runnable beforeFindById = () -> {};
+
+        CountingUserRepository(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Optional<User> findById(Long id) {
+            byIdCalls.incrementAndGet();
+            beforeFindById.run();
+            return super.findById(id);
+        }
+
+        @Override
+        public Optional<User> findByEmail(String email) {
+            byEmailCalls.incrementAndGet();
+            return super.findByEmail(email);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.Dashboard;
+import ru.mentee.power.entity.MonthlyOrderStats;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.repository.async.ParallelDashboardRepository;
+import ru.mentee.power.repository.async.VirtualThreadExecutor;
+
+class DashboardRepositoryTest {
+
+    private PooledDataSource dataSource;
+    private PostgresOrderRepository orders;
+    private UserOrderRepositoryImpl userOrders;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        orders = new PostgresOrderRepository(dataSource);
+        userOrders = new UserOrderRepositoryImpl(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldReturnSameReportsAsSeparateQueriesOnOneConnection() {
+        Dashboard dashboard = new PostgresDashboardRepository(dataSource).getDashboard(3, 2);
+
+        assertMatchesRepositories(dashboard, 3, 2);
+        assertThat(dashboard.getTopCustomers())
+                .extracting(OrderAnalytics::getUserId)
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldReturnSameReportsWhenFannedOut() {
+        Dashboard dashboard;
+        try (VirtualThreadExecutor executor = new VirtualThreadExecutor(3)) {
+            dashboard =
+                    new ParallelDashboardRepository(orders, userOrders, executor)
+                            .getDashboard(2, 4);
+        }
+
+        assertMatchesRepositories(dashboard, 2, 4);
+    }
+
+    @Test
+    void shouldCancelOtherReportsOnFirstFailure() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        PostgresOrderRepository failing =
+                new PostgresOrderRepository(dataSource) {
+                    @Override
+                    public List<OrderAnalytics> getTopCustomers(int limit) {
+                        try {
+                            started.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new DataAccessException("Top customers failed");
+                    }
+
+                    @Override
+                    public List<MonthlyOrderStats> getMonthlyOrderStats() {
+                        started.countDown();
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                        return List.of();
+                    }
+                };
+
+        try (VirtualThreadExecutor executor = new VirtualThreadExecutor(3)) {
+            ParallelDashboardRepository repository =
+                    new ParallelDashboardRepository(failing, userOrders, executor);
+
+            assertThatThrownBy(() -> repository.getDashboard(2, 2))
+                    .isInstanceOf(DataAccessException.class)
+                    .hasMessage("Top customers failed");
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRejectNegativeLimits() {
+        assertThatThrownBy(() -> new PostgresDashboardRepository(dataSource).getDashboard(-1, 5))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessage("Limit cannot be negative");
+        try (VirtualThreadExecutor executor = new VirtualThreadExecutor(3)) {
+            ParallelDashboardRepository parallel =
+                    new ParallelDashboardRepository(orders, userOrders, executor);
+
+            assertThatThrownBy(() -> parallel.getDashboard(2, -1))
+                    .isInstanceOf(DataAccessException.class)
+                    .hasMessage("Limit cannot be negative");
+        }
+    }
+
+    private void assertMatchesRepositories(Dashboard dashboard, int customers, int products) {
+        assertThat(dashboard.getTopCustomers()).isEqualTo(orders.getTopCustomers(customers));
+        assertThat(dashboard.getMonthlyStats()).isEqualTo(orders.getMonthlyOrderStats());
+        assertThat(dashboard.getTopProducts())
+                .isEqualTo(userOrders.getTopSellingProducts(products))
+                .hasSize(products);
+    }
+}
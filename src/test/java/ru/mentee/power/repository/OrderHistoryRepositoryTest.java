@@ -0,0 +1,132 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.OrderItemDetails;
+import ru.mentee.power.model.OrderWithItems;
+import ru.mentee.power.model.Page;
+
+class OrderHistoryRepositoryTest {
+
+    private PooledDataSource dataSource;
+    private UserOrderRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        repository = new UserOrderRepositoryImpl(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldLoadOrderPagesWithItemsAndProducts() {
+        Page<OrderWithItems> first = repository.findOrderHistory(1L, null, 2);
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.getItems()).extracting(OrderWithItems::getOrderId).containsExactly(3L, 2L);
+        OrderWithItems second = first.getItems().get(1);
+        assertThat(second.getTotalCents()).isEqualTo(2_500_000L);
+        assertThat(second.getStatus()).isEqualTo("delivered");
+        assertThat(second.getItems())
+                .extracting(
+                        OrderItemDetails::getProductName,
+                        OrderItemDetails::getCategory,
+                        OrderItemDetails::getQuantity,
+                        OrderItemDetails::getPriceCents)
+                .containsExactly(
+                        tuple("Phone", "Electronics", 1, 500_000L),
+                        tuple("Book", "Books", 2, 49_999L));
+
+        Page<OrderWithItems> last = repository.findOrderHistory(1L, first.getNextPageToken(), 2);
+
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.getItems()).extracting(OrderWithItems::getOrderId).containsExactly(1L);
+        assertThat(last.getItems().get(0).getItems())
+                .extracting(OrderItemDetails::getProductName)
+                .containsExactly("Laptop");
+    }
+
+    @Test
+    void shouldReturnEmptyPageForUserWithoutOrders() {
+        Page<OrderWithItems> page = repository.findOrderHistory(4L, null, 10);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldLoadLatestOrdersOfManyUsersInOneQuery() {
+        Map<Long, List<OrderWithItems>> histories =
+                repository.findOrderHistories(List.of(2L, 1L, 4L), 1);
+
+        assertThat(histories).containsOnlyKeys(2L, 1L, 4L);
+        assertThat(histories.get(1L)).extracting(OrderWithItems::getOrderId).containsExactly(3L);
+        assertThat(histories.get(2L)).extracting(OrderWithItems::getOrderId).containsExactly(5L);
+        assertThat(histories.get(2L).get(0).getItems())
+                .extracting(OrderItemDetails::getProductName, OrderItemDetails::getQuantity)
+                .containsExactly(tuple("Pen", 10));
+        assertThat(histories.get(4L)).isEmpty();
+    }
+
+    @Test
+    void shouldBatchConcurrentHistoryLoads() {
+        OrderHistoryLoader loader =
+                new OrderHistoryLoader(repository, 5, Duration.ofMillis(50), 100);
+
+        CompletableFuture<List<OrderWithItems>> first = loader.load(1L);
+        CompletableFuture<List<OrderWithItems>> second = loader.load(2L);
+
+        assertThat(first.join()).extracting(OrderWithItems::getOrderId).containsExactly(3L, 2L, 1L);
+        assertThat(second.join()).extracting(OrderWithItems::getOrderId).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void shouldRejectInvalidPageArguments() {
+        assertThatThrownBy(() -> repository.findOrderHistory(1L, null, 0))
+                .isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> repository.findOrderHistory(1L, null, Integer.MAX_VALUE))
+                .isInstanceOf(DataAccessException.class);
+        assertThatThrownBy(() -> repository.findOrderHistory(1L, "not-a-token", 2))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void shouldSkipOrdersWithoutCreationTime() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "INSERT INTO orders (user_id, total, status, created_at)"
+                            + " VALUES (1, 100.00, 'pending', NULL)");
+        }
+
+        Page<OrderWithItems> page = repository.findOrderHistory(1L, null, 10);
+        Map<Long, List<OrderWithItems>> histories = repository.findOrderHistories(List.of(1L), 10);
+
+        assertThat(page.getItems())
+                .extracting(OrderWithItems::getOrderId)
+                .containsExactly(3L, 2L, 1L);
+        assertThat(histories.get(1L))
+                .extracting(OrderWithItems::getOrderId)
+                .containsExactly(3L, 2L, 1L);
+    }
+}
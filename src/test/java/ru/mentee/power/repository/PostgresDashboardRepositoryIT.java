@@ -0,0 +1,152 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.mentee.power.config.DatabaseConfig;
+import ru.mentee.power.config.PostgresConfig;
+import ru.mentee.power.connection.PoolConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.Dashboard;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.model.ProductSalesInfo;
+
+@Testcontainers
+class PostgresDashboardRepositoryIT {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:13")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    private static PGSimpleDataSource adminDataSource;
+
+    private PooledDataSource dataSource;
+    private PostgresDashboardRepository repository;
+
+    @BeforeAll
+    static void initDatabase() throws SQLException, IOException {
+        adminDataSource = new PGSimpleDataSource();
+        adminDataSource.setUrl(postgres.getJdbcUrl());
+        adminDataSource.setUser(postgres.getUsername());
+        adminDataSource.setPassword(postgres.getPassword());
+
+        try (InputStream input =
+                        PostgresDashboardRepositoryIT.class.getResourceAsStream(
+                                "/sql/00-schema.sql");
+                Connection connection = adminDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute(
+                "TRUNCATE order_items, orders, products, users, monthly_order_stats,"
+                        + " monthly_order_stats_dirty, rollup_watermarks RESTART IDENTITY CASCADE");
+        execute(
+                "INSERT INTO users(name, email) VALUES ('John Doe', 'john@example.com'),"
+                        + " ('Jane Smith', 'jane@example.com'), ('Bob Brown', 'bob@example.com')");
+        execute(
+                "INSERT INTO products(name, price, category) VALUES"
+                        + " ('Laptop', 1000.00, 'Electronics'), ('Book', 20.00, 'Books'),"
+                        + " ('Pen', 1.50, 'Stationery')");
+        execute(
+                "INSERT INTO orders(user_id, total, created_at) VALUES"
+                        + " (1, 1020.00, '2024-01-10 10:00:00'), (2, 40.00, '2024-02-03 09:30:00'),"
+                        + " (2, 15.00, '2024-02-20 18:45:00'), (3, 3.00, '2024-03-15 12:00:00')");
+        execute(
+                "INSERT INTO order_items(order_id, product_id, quantity, price) VALUES"
+                        + " (1, 1, 1, 1000.00), (1, 2, 1, 20.00), (2, 2, 2, 20.00),"
+                        + " (3, 3, 10, 1.50), (4, 3, 2, 1.50)");
+
+        // Одно соединение в пуле: каждый вызов после ошибки получает то же соединение
+        dataSource =
+                new PooledDataSource(
+                        databaseConfig(), PoolConfig.builder().maximumPoolSize(1).build());
+        repository = new PostgresDashboardRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldReadEveryResultSetOfBatchInOrder() {
+        Dashboard dashboard = repository.getDashboard(2, 3);
+
+        assertThat(dashboard.getTopCustomers())
+                .extracting(OrderAnalytics::getUserId)
+                .containsExactly(1L, 2L);
+        assertThat(dashboard.getMonthlyStats())
+                .isEqualTo(new PostgresOrderRepository(dataSource).getMonthlyOrderStats())
+                .hasSize(3);
+        assertThat(dashboard.getTopProducts())
+                .isEqualTo(new UserOrderRepositoryImpl(dataSource).getTopSellingProducts(3))
+                .extracting(ProductSalesInfo::getProductName)
+                .containsExactlyInAnyOrder("Laptop", "Book", "Pen");
+    }
+
+    @Test
+    void shouldFailWhenStatementInMiddleOfBatchFails() throws SQLException {
+        execute("ALTER TABLE monthly_order_stats RENAME TO monthly_order_stats_hidden");
+        try {
+            assertThatThrownBy(() -> repository.getDashboard(2, 3))
+                    .isInstanceOf(DataAccessException.class)
+                    .hasRootCauseInstanceOf(SQLException.class);
+        } finally {
+            execute("ALTER TABLE monthly_order_stats_hidden RENAME TO monthly_order_stats");
+        }
+
+        assertThat(repository.getDashboard(2, 3).getTopCustomers()).hasSize(2);
+    }
+
+    @Test
+    void shouldFailWhenLastStatementOfBatchFails() throws SQLException {
+        execute("ALTER TABLE products RENAME TO products_hidden");
+        try {
+            assertThatThrownBy(() -> repository.getDashboard(2, 3))
+                    .isInstanceOf(DataAccessException.class);
+        } finally {
+            execute("ALTER TABLE products_hidden RENAME TO products");
+        }
+
+        assertThat(repository.getDashboard(2, 3).getTopProducts()).hasSize(3);
+    }
+
+    private static DatabaseConfig databaseConfig() {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.DB_URL, postgres.getJdbcUrl());
+        properties.setProperty(DatabaseConfig.DB_USERNAME, postgres.getUsername());
+        properties.setProperty(DatabaseConfig.DB_PASSWORD, postgres.getPassword());
+        return new PostgresConfig(properties);
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = adminDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
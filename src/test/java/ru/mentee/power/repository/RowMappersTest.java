@@ -0,0 +1,66 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.model.ProductSalesInfo;
+
+class RowMappersTest {
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldMatchColumnsOfEveryRepositoryQuery() {
+        new PostgresOrderRepository(dataSource).verifyQueryColumns();
+        new UserOrderRepositoryImpl(dataSource).verifyQueryColumns();
+        new PostgresUserRepository(dataSource).verifyQueryColumns();
+    }
+
+    @Test
+    void shouldReportMissingAndUnexpectedColumns() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThatThrownBy(
+                            () ->
+                                    RowMappers.PRODUCT_SALES_INFO.verify(
+                                            connection,
+                                            "SELECT id, name, price, category, COUNT(*) AS"
+                                                    + " sales_count FROM products GROUP BY id,"
+                                                    + " name, price, category"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("missing [total_quantity]")
+                    .hasMessageContaining("unexpected [price]");
+        }
+    }
+
+    @Test
+    void shouldMapTopSellingProductsByColumnIndex() {
+        List<ProductSalesInfo> products =
+                new UserOrderRepositoryImpl(dataSource).getTopSellingProducts(2);
+
+        assertThat(products)
+                .extracting(ProductSalesInfo::getProductName)
+                .containsExactly("Book", "Pen");
+        assertThat(products.get(0).getCategory()).isEqualTo("Books");
+        assertThat(products.get(0).getTotalOrdersCount()).isEqualTo(3);
+        assertThat(products.get(0).getTotalQuantitySold()).isEqualTo(6);
+    }
+}
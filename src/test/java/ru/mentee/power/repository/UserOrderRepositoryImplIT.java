@@ -14,6 +14,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import ru.mentee.power.exception.DataAccessException;
 import ru.mentee.power.model.ProductSalesInfo;
 import ru.mentee.power.model.UserOrderCount;
+import ru.mentee.power.model.UserOrderCountBatch;
 import ru.mentee.power.model.UserOrderSummary;
 
 @Testcontainers
@@ -170,6 +171,27 @@ class UserOrderRepositoryImplIT {
                 "Должно выбрасываться исключение при отрицательном limit");
     }
 
+    @Test
+    @Order(10)
+    void getAllUsersWithOrderCount_shouldMatchSingleQueryWhenPartitioned()
+            throws DataAccessException {
+        UserOrderRepositoryImpl partitioned = new UserOrderRepositoryImpl(dataSource, 3);
+
+        List<UserOrderCount> result = partitioned.getAllUsersWithOrderCount();
+
+        assertEquals(repository.getAllUsersWithOrderCount(), result);
+    }
+
+    @Test
+    @Order(11)
+    void getAllUsersWithOrderCountBatch_shouldMatchObjectList() throws DataAccessException {
+        UserOrderCountBatch batch = repository.getAllUsersWithOrderCountBatch();
+
+        assertEquals(repository.getAllUsersWithOrderCount(), batch.toList());
+        assertEquals(3, batch.row(0).getOrdersCount());
+        assertEquals(0, batch.getTotalSpentCents(batch.size() - 1));
+    }
+
     private void insertTestProductsData() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             // Создаем таблицы если они еще не существуют
@@ -0,0 +1,152 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.connection.Deadline;
+import ru.mentee.power.exception.DataAccessException;
+import ru.mentee.power.exception.QueryTimeoutException;
+
+class VirtualThreadExecutorTest {
+
+    private VirtualThreadExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new VirtualThreadExecutor(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldCompleteWithDataAccessExceptionAsIs() {
+        DataAccessException failure = new DataAccessException("Query failed");
+
+        CompletableFuture<Object> future =
+                executor.submit(
+                        () -> {
+                            throw failure;
+                        });
+
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .satisfies(e -> assertThat(e.getCause()).isSameAs(failure));
+    }
+
+    @Test
+    void shouldNotRunTaskCancelledBeforeStart() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = executor.submit(() -> await(release));
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<Integer> waiting = executor.submit(runs::incrementAndGet);
+        assertThat(waiting.cancel(true)).isTrue();
+        release.countDown();
+
+        assertThat(blocker.join()).isEqualTo("released");
+        // Разрешение отменённой задачи не теряется: следующая задача выполняется
+        assertThat(executor.submit(() -> "next").join()).isEqualTo("next");
+        assertThat(runs).hasValue(0);
+        assertThatThrownBy(waiting::join).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void shouldInterruptRunningTaskOnCancel() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> running =
+                executor.submit(
+                        () -> {
+                            started.countDown();
+                            try {
+                                Thread.sleep(10_000);
+                                return "finished";
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                                throw new DataAccessException("Interrupted", e);
+                            }
+                        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        running.cancel(true);
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(running.isCancelled()).isTrue();
+        assertThat(executor.submit(() -> "next").join()).isEqualTo("next");
+    }
+
+    @Test
+    void shouldRunAtMostMaxConcurrencyTasksAtOnce() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        try (VirtualThreadExecutor limited = new VirtualThreadExecutor(2)) {
+            for (int i = 0; i < 8; i++) {
+                futures.add(
+                        limited.submit(
+                                () -> {
+                                    maxActive.accumulateAndGet(
+                                            active.incrementAndGet(), Math::max);
+                                    sleep(Duration.ofMillis(50));
+                                    return active.decrementAndGet();
+                                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertThat(maxActive).hasValue(2);
+    }
+
+    @Test
+    void shouldTimeOutWhileWaitingForPermitWhenDeadlinePasses() {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = executor.submit(() -> await(release));
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<Integer> waiting =
+                Deadline.within(
+                        Duration.ofMillis(50), () -> executor.submit(runs::incrementAndGet));
+
+        assertThatThrownBy(waiting::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(QueryTimeoutException.class);
+        release.countDown();
+        assertThat(blocker.join()).isEqualTo("released");
+        assertThat(runs).hasValue(0);
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return "released";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted", e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+
+class JdbcPublisherTest {
+
+    private static final String SQL = "SELECT email FROM users ORDER BY id";
+
+    private PooledDataSource dataSource;
+    private JdbcPublisher<String> publisher;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+        publisher =
+                new JdbcPublisher<>(
+                        dataSource, SQL, StatementBinder.NONE, rs -> rs.getString("email"), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldEmitOnlyRequestedRows() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        subscriber.awaitItems(2);
+        Thread.sleep(100);
+
+        assertThat(subscriber.items)
+                .containsExactly("john.doe@example.com", "jane.smith@example.com");
+        assertThat(subscriber.terminated.getCount()).isEqualTo(1);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.awaitTermination();
+
+        assertThat(subscriber.items).hasSize(5);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(dataSource.getStats().getActiveConnections()).isZero();
+    }
+
+    @Test
+    void shouldReleaseConnectionOnCancel() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.awaitItems(1);
+        assertThat(dataSource.getStats().getActiveConnections()).isEqualTo(1);
+
+        subscriber.subscription.cancel();
+        awaitNoActiveConnections();
+
+        assertThat(subscriber.items).hasSize(1);
+        assertThat(subscriber.terminated.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSignalErrorAndReleaseConnectionWhenQueryFails() throws InterruptedException {
+        JdbcPublisher<String> failing =
+                new JdbcPublisher<>(
+                        dataSource,
+                        "SELECT missing_column FROM users",
+                        StatementBinder.NONE,
+                        rs -> rs.getString(1),
+                        2);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        failing.subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.awaitTermination();
+
+        assertThat(subscriber.error).isNotNull();
+        assertThat(dataSource.getStats().getActiveConnections()).isZero();
+    }
+
+    @Test
+    void shouldCancelWithoutErrorSignalWhenSubscriberThrows() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.failAfterItems = 2;
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.awaitItems(2);
+        awaitNoActiveConnections();
+        Thread.sleep(100);
+
+        assertThat(subscriber.items).hasSize(2);
+        assertThat(subscriber.error).isNull();
+        assertThat(subscriber.terminated.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectNonPositiveRequest() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        subscriber.awaitTermination();
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+        assertThat(subscriber.items).isEmpty();
+    }
+
+    private void awaitNoActiveConnections() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dataSource.getStats().getActiveConnections() > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dataSource.getStats().getActiveConnections()).isZero();
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<String> {
+
+        private final List<String> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        private volatile int failAfterItems = Integer.MAX_VALUE;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+            if (items.size() >= failAfterItems) {
+                throw new IllegalStateException("Subscriber failed on " + item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        void awaitItems(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (items.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(items).hasSizeGreaterThanOrEqualTo(count);
+        }
+
+        void awaitTermination() throws InterruptedException {
+            assertThat(terminated.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.mentee.power.config.DatabaseConfig;
+import ru.mentee.power.config.PostgresConfig;
+import ru.mentee.power.connection.PoolConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+@Testcontainers
+class PartitionedQueryIT {
+
+    private static final int CALLERS = 8;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:13")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    private static PGSimpleDataSource adminDataSource;
+
+    private PooledDataSource dataSource;
+
+    @BeforeAll
+    static void initDatabase() throws SQLException, IOException {
+        adminDataSource = new PGSimpleDataSource();
+        adminDataSource.setUrl(postgres.getJdbcUrl());
+        adminDataSource.setUser(postgres.getUsername());
+        adminDataSource.setPassword(postgres.getPassword());
+
+        try (InputStream input =
+                        PartitionedQueryIT.class.getResourceAsStream("/sql/00-schema.sql");
+                Connection connection = adminDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            statement.executeUpdate(
+                    "INSERT INTO users(name, email) SELECT 'User ' || x, 'user' || x ||"
+                            + " '@example.com' FROM generate_series(1, 40) AS x");
+            statement.executeUpdate(
+                    "INSERT INTO orders(user_id, total, created_at) SELECT 1 + x % 40, x,"
+                            + " TIMESTAMP '2024-01-01' + x * INTERVAL '1 hour'"
+                            + " FROM generate_series(1, 400) AS x");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.DB_URL, postgres.getJdbcUrl());
+        properties.setProperty(DatabaseConfig.DB_USERNAME, postgres.getUsername());
+        properties.setProperty(DatabaseConfig.DB_PASSWORD, postgres.getPassword());
+        // Пул меньше числа вызывающих: все соединения заняты ведущими, рабочих взять неоткуда
+        dataSource =
+                new PooledDataSource(
+                        new PostgresConfig(properties),
+                        PoolConfig.builder()
+                                .maximumPoolSize(2)
+                                .minimumIdle(0)
+                                .connectionTimeout(Duration.ofSeconds(5))
+                                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldMatchSingleQueryOnPostgres() {
+        List<OrderAnalytics> single = new PostgresOrderRepository(dataSource).getUserAnalytics();
+
+        assertThat(new PostgresOrderRepository(dataSource, 4).getUserAnalytics())
+                .hasSize(40)
+                .containsExactlyInAnyOrderElementsOf(single);
+    }
+
+    @Test
+    void shouldNotStarveConcurrentCallersOfSmallPool() throws Exception {
+        List<OrderAnalytics> expected = new PostgresOrderRepository(dataSource).getUserAnalytics();
+        PostgresOrderRepository partitioned = new PostgresOrderRepository(dataSource, 4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<OrderAnalytics>>> results = new ArrayList<>(CALLERS);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(
+                        callers.submit(
+                                () -> {
+                                    start.await();
+                                    return partitioned.getUserAnalytics();
+                                }));
+            }
+            start.countDown();
+            for (Future<List<OrderAnalytics>> result : results) {
+                assertThat(result.get()).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+
+        assertThat(dataSource.getStats().getTimeoutCount()).isZero();
+        assertThat(dataSource.getStats().getActiveConnections()).isZero();
+    }
+}
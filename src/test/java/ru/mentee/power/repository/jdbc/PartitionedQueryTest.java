@@ -0,0 +1,87 @@
+/* @MENTEE_POWER (C)2025 */
+package ru.mentee.power.repository.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.mentee.power.config.TestDatabaseConfig;
+import ru.mentee.power.connection.PooledDataSource;
+import ru.mentee.power.entity.OrderAnalytics;
+import ru.mentee.power.repository.PostgresOrderRepository;
+
+class PartitionedQueryTest {
+
+    private static final String BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM users";
+
+    private static final String RANGE_SQL =
+            "SELECT email FROM users WHERE id >= ? AND id < ? ORDER BY email DESC";
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PooledDataSource(new TestDatabaseConfig().createTestConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldMergePartitionsInRequestedOrder() {
+        List<String> emails = emailsQuery().execute(3);
+
+        assertThat(emails)
+                .hasSize(5)
+                .isSortedAccordingTo(Comparator.reverseOrder())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldHandleMorePartitionsThanKeys() {
+        assertThat(emailsQuery().execute(64)).isEqualTo(emailsQuery().execute(1));
+    }
+
+    @Test
+    void shouldReturnEmptyListForEmptyTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM users");
+        }
+
+        assertThat(emailsQuery().execute(4)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchSingleQueryUserAnalytics() {
+        List<OrderAnalytics> single = new PostgresOrderRepository(dataSource).getUserAnalytics();
+        List<OrderAnalytics> partitioned =
+                new PostgresOrderRepository(dataSource, 2).getUserAnalytics();
+
+        assertThat(partitioned)
+                .extracting(OrderAnalytics::getUserId)
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(partitioned).containsExactlyInAnyOrderElementsOf(single);
+    }
+
+    private PartitionedQuery<String> emailsQuery() {
+        return new PartitionedQuery<>(
+                dataSource,
+                BOUNDS_SQL,
+                RANGE_SQL,
+                (statement, from, to) -> {
+                    statement.setLong(1, from);
+                    statement.setLong(2, to);
+                },
+                rs -> rs.getString("email"),
+                Comparator.<String>reverseOrder());
+    }
+}
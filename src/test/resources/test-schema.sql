@@ -1,3 +1,27 @@
+DROP
+    TABLE
+        IF EXISTS buyer_sketches;
+
+DROP
+    TABLE
+        IF EXISTS monthly_order_stats;
+
+DROP
+    TABLE
+        IF EXISTS rollup_watermarks;
+
+DROP
+    TABLE
+        IF EXISTS order_items;
+
+DROP
+    TABLE
+        IF EXISTS products;
+
+DROP
+    TABLE
+        IF EXISTS orders;
+
 DROP
     TABLE
         IF EXISTS users;
@@ -44,4 +68,229 @@ INSERT
         'Charlie Brown',
         'charlie.brown@example.com',
         '2024-01-19 11:30:00'
+    );
+
+CREATE
+    TABLE
+        IF NOT EXISTS orders(
+            id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            user_id BIGINT NOT NULL REFERENCES users(id) ON
+            DELETE
+                CASCADE,
+                total DECIMAL(
+                    10,
+                    2
+                ) NOT NULL,
+                status VARCHAR(20) DEFAULT 'pending',
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        );
+
+INSERT
+    INTO
+        orders(
+            user_id,
+            total,
+            status,
+            created_at
+        )
+    VALUES(
+        1,
+        15000.00,
+        'delivered',
+        '2024-01-20 12:00:00'
+    ),
+    (
+        1,
+        25000.00,
+        'delivered',
+        '2024-02-05 10:00:00'
+    ),
+    (
+        1,
+        20000.00,
+        'shipped',
+        '2024-03-11 18:30:00'
+    ),
+    (
+        2,
+        5000.00,
+        'delivered',
+        '2024-01-25 09:00:00'
+    ),
+    (
+        2,
+        7000.00,
+        'pending',
+        '2024-03-02 15:45:00'
+    ),
+    (
+        3,
+        999.99,
+        'cancelled',
+        '2024-02-14 20:10:00'
+    );
+
+-- Сводка пуста: getMonthlyOrderStats() считает все заказы по хвосту после водяного знака
+CREATE
+    TABLE
+        IF NOT EXISTS monthly_order_stats(
+            year INTEGER NOT NULL,
+            month INTEGER NOT NULL,
+            orders_count BIGINT NOT NULL,
+            monthly_revenue DECIMAL(
+                16,
+                2
+            ) NOT NULL,
+            PRIMARY KEY(
+                year,
+                month
+            )
+        );
+
+CREATE
+    TABLE
+        IF NOT EXISTS rollup_watermarks(
+            name VARCHAR(50) PRIMARY KEY,
+            last_created_at TIMESTAMP NOT NULL,
+            last_id BIGINT NOT NULL
+        );
+
+CREATE
+    TABLE
+        IF NOT EXISTS buyer_sketches(
+            dimension VARCHAR(20) NOT NULL,
+            bucket VARCHAR(100) NOT NULL,
+            sketch BYTEA NOT NULL,
+            PRIMARY KEY(
+                dimension,
+                bucket
+            )
+        );
+
+CREATE
+    TABLE
+        IF NOT EXISTS products(
+            id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            name VARCHAR(100) NOT NULL,
+            price DECIMAL(
+                10,
+                2
+            ) NOT NULL,
+            category VARCHAR(50) NOT NULL
+        );
+
+CREATE
+    TABLE
+        IF NOT EXISTS order_items(
+            id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            order_id BIGINT NOT NULL REFERENCES orders(id) ON
+            DELETE
+                CASCADE,
+                product_id BIGINT NOT NULL REFERENCES products(id),
+                quantity INTEGER NOT NULL,
+                price DECIMAL(
+                    10,
+                    2
+                ) NOT NULL
+        );
+
+-- Индексы истории заказов; в H2 нет INCLUDE, поэтому без покрывающих столбцов
+CREATE
+    INDEX IF NOT EXISTS idx_orders_user_id_created_at ON
+    orders(
+        user_id,
+        created_at DESC,
+        id DESC
+    );
+
+CREATE
+    INDEX IF NOT EXISTS idx_order_items_order_id ON
+    order_items(
+        order_id,
+        id
+    );
+
+INSERT
+    INTO
+        products(
+            name,
+            price,
+            category
+        )
+    VALUES(
+        'Laptop',
+        15000.00,
+        'Electronics'
+    ),
+    (
+        'Phone',
+        5000.00,
+        'Electronics'
+    ),
+    (
+        'Book',
+        499.99,
+        'Books'
+    ),
+    (
+        'Pen',
+        100.00,
+        'Stationery'
+    );
+
+INSERT
+    INTO
+        order_items(
+            order_id,
+            product_id,
+            quantity,
+            price
+        )
+    VALUES(
+        1,
+        1,
+        1,
+        15000.00
+    ),
+    (
+        2,
+        2,
+        1,
+        5000.00
+    ),
+    (
+        2,
+        3,
+        2,
+        499.99
+    ),
+    (
+        3,
+        2,
+        1,
+        5000.00
+    ),
+    (
+        4,
+        3,
+        3,
+        499.99
+    ),
+    (
+        4,
+        4,
+        5,
+        100.00
+    ),
+    (
+        5,
+        4,
+        10,
+        100.00
+    ),
+    (
+        6,
+        3,
+        1,
+        499.99
     );
\ No newline at end of file